@@ -1,15 +1,26 @@
 package com.tablecraft.app.admin.controller;
 
 import com.tablecraft.app.admin.service.ConfigGeneratorService;
+import com.tablecraft.app.admin.service.ConfigSyncService;
+import com.tablecraft.app.admin.service.IndexAdvisorService;
+import com.tablecraft.app.admin.service.OnlineSchemaMigrationService;
+import com.tablecraft.app.admin.service.PartitionRotationService;
 import com.tablecraft.app.admin.service.SchemaManagementService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 設定ファイル管理API（Phase 2）
@@ -26,6 +37,18 @@ public class ConfigManagementController {
     @Autowired
     private SchemaManagementService schemaManagementService;
 
+    @Autowired
+    private IndexAdvisorService indexAdvisorService;
+
+    @Autowired
+    private PartitionRotationService partitionRotationService;
+
+    @Autowired
+    private ConfigSyncService configSyncService;
+
+    @Autowired
+    private OnlineSchemaMigrationService onlineSchemaMigrationService;
+
     /**
      * table-config.jsonを生成（プレビュー）
      * POST /api/admin/config/generate-table-config
@@ -263,15 +286,20 @@ public class ConfigManagementController {
             System.out.println("[ConfigManagementController] /api/admin/schema/apply 呼び出し");
             System.out.println("[ConfigManagementController] リクエスト内容: " + request);
 
-            @SuppressWarnings("unchecked")
-            List<Long> tableIds = (List<Long>) request.get("tableIds");
+            List<?> requestedIds = (List<?>) request.get("tableIds");
 
-            if (tableIds == null || tableIds.isEmpty()) {
+            if (requestedIds == null || requestedIds.isEmpty()) {
                 response.put("success", false);
                 response.put("error", "tableIds is required");
                 return ResponseEntity.badRequest().body(response);
             }
 
+            // JSONの数値はIntegerとして渡されるためLongに変換
+            List<Long> tableIds = new ArrayList<>();
+            for (Object id : requestedIds) {
+                tableIds.add(Long.valueOf(id.toString()));
+            }
+
             // 複数テーブルを一括適用
             Map<String, Object> result = schemaManagementService.applyMultipleSchemas(tableIds);
 
@@ -295,6 +323,214 @@ public class ConfigManagementController {
         }
     }
 
+    /**
+     * テーブル構造の適用計画を取得（DBは変更しない）
+     * 各変更の方式（INSTANT/INPLACE/COPY）と対象テーブルの行数・データサイズを返す
+     * POST /api/admin/config/schema/plan
+     */
+    @PostMapping("/schema/plan")
+    public ResponseEntity<Map<String, Object>> planSchema(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            List<?> requestedIds = (List<?>) request.get("tableIds");
+
+            if (requestedIds == null || requestedIds.isEmpty()) {
+                response.put("success", false);
+                response.put("error", "tableIds is required");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            List<Long> tableIds = new ArrayList<>();
+            for (Object id : requestedIds) {
+                tableIds.add(Long.valueOf(id.toString()));
+            }
+
+            response.put("success", true);
+            response.put("data", schemaManagementService.planSchemas(tableIds));
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            System.err.println("[ConfigManagementController] ❌ エラー: " + e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * テーブル構造をDBに適用し、テーブルごとの結果を完了した順にServer-Sent Eventsで返す
+     * イベント名は「table-result」（テーブルごと）と「complete」（全体の集計）
+     * 同時に実行できる一括適用の数を超えた場合は 429 を返す
+     * POST /api/admin/config/schema/apply-stream
+     */
+    @PostMapping("/schema/apply-stream")
+    public SseEmitter applySchemaStream(@RequestBody Map<String, Object> request) {
+        SseEmitter emitter = new SseEmitter(0L);
+
+        List<?> requestedIds = (List<?>) request.get("tableIds");
+        if (requestedIds == null || requestedIds.isEmpty()) {
+            emitter.completeWithError(new IllegalArgumentException("tableIds is required"));
+            return emitter;
+        }
+
+        List<Long> tableIds = new ArrayList<>();
+        for (Object id : requestedIds) {
+            tableIds.add(Long.valueOf(id.toString()));
+        }
+
+        try {
+            schemaManagementService.applyMultipleSchemasAsync(tableIds, tableResult -> {
+                try {
+                    emitter.send(SseEmitter.event().name("table-result").data(tableResult));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).whenComplete((result, error) -> {
+                try {
+                    if (error != null) {
+                        throw error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    }
+                    result.remove("results");
+                    emitter.send(SseEmitter.event().name("complete").data(result));
+                    emitter.complete();
+                } catch (Throwable e) {
+                    System.err.println("[ConfigManagementController] ❌ エラー: " + e.getMessage());
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "実行中の一括適用が上限に達しています");
+        }
+
+        return emitter;
+    }
+
+    /**
+     * 実行中・直近のスキーマ変更の進捗を取得
+     * POST /api/admin/config/schema/migrations
+     */
+    @PostMapping("/schema/migrations")
+    public ResponseEntity<Map<String, Object>> getSchemaMigrations() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("success", true);
+            response.put("data", onlineSchemaMigrationService.getProgress());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * クエリ実績に基づくインデックス提案を取得
+     * POST /api/admin/config/schema/index-advice
+     */
+    @PostMapping("/schema/index-advice")
+    public ResponseEntity<Map<String, Object>> getIndexAdvice() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("success", true);
+            response.put("data", indexAdvisorService.buildReport());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            System.err.println("[ConfigManagementController] ❌ エラー: " + e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * インデックス提案を適用
+     * POST /api/admin/config/schema/index-advice/apply
+     */
+    @PostMapping("/schema/index-advice/apply")
+    public ResponseEntity<Map<String, Object>> applyIndexAdvice(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            List<?> requestedIds = (List<?>) request.get("suggestionIds");
+
+            if (requestedIds == null || requestedIds.isEmpty()) {
+                response.put("success", false);
+                response.put("error", "suggestionIds is required");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            List<String> suggestionIds = new ArrayList<>();
+            for (Object id : requestedIds) {
+                suggestionIds.add(id.toString());
+            }
+
+            Map<String, Object> result = indexAdvisorService.applySuggestions(suggestionIds);
+            response.put("success", result.get("success"));
+            response.put("data", result);
+
+            if ((Boolean) result.get("success")) {
+                System.out.println("[ConfigManagementController] ✅ インデックス提案を適用: " + result.get("applied"));
+                return ResponseEntity.ok(response);
+            } else {
+                System.err.println("[ConfigManagementController] ⚠️ 一部のインデックスでエラー");
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(response);
+            }
+
+        } catch (Exception e) {
+            System.err.println("[ConfigManagementController] ❌ エラー: " + e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 記録したクエリ実績をクリア
+     * POST /api/admin/config/schema/index-advice/reset
+     */
+    @PostMapping("/schema/index-advice/reset")
+    public ResponseEntity<Map<String, Object>> resetIndexAdvice() {
+        Map<String, Object> response = new HashMap<>();
+        indexAdvisorService.resetWorkload();
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 日付RANGEパーティションのローテーションを今すぐ実行（通常は毎日スケジュール実行）
+     * POST /api/admin/config/schema/partitions/rotate
+     */
+    @PostMapping("/schema/partitions/rotate")
+    public ResponseEntity<Map<String, Object>> rotatePartitions() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            List<Map<String, Object>> results = partitionRotationService.rotateAll();
+            boolean success = results.stream().allMatch(r -> Boolean.TRUE.equals(r.get("success")));
+            response.put("success", success);
+            response.put("data", results);
+            return success
+                    ? ResponseEntity.ok(response)
+                    : ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).body(response);
+
+        } catch (PartitionRotationService.RotationLockedException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+
+        } catch (Exception e) {
+            System.err.println("[ConfigManagementController] ❌ エラー: " + e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * デフォルト設定を読み込み
      * GET /api/admin/config/default/{filename}
@@ -337,6 +573,47 @@ public class ConfigManagementController {
         }
     }
 
+    /**
+     * 設定ファイルのバイナリスナップショットを作成
+     * POST /api/admin/config/build-snapshots
+     */
+    @PostMapping("/build-snapshots")
+    public ResponseEntity<Map<String, Object>> buildSnapshots() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            Map<String, Object> snapshots = configGeneratorService.buildSnapshots();
+            response.put("success", true);
+            response.put("data", snapshots);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * ノード間の設定同期状態を取得
+     * POST /api/admin/config/sync-status
+     */
+    @PostMapping("/sync-status")
+    public ResponseEntity<Map<String, Object>> getSyncStatus() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("success", true);
+            response.put("data", configSyncService.getStatus());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * デフォルト設定で初期化
      * POST /api/admin/config/initialize
@@ -2,13 +2,19 @@ package com.tablecraft.app.admin.controller;
 
 import com.tablecraft.app.admin.entity.ParsedTableDefinition;
 import com.tablecraft.app.admin.entity.UploadedSqlFile;
+import com.tablecraft.app.admin.repository.UploadedSqlFileSummary;
 import com.tablecraft.app.admin.service.SqlFileService;
+import com.tablecraft.app.admin.service.SqlParseJobService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,9 +30,18 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class SqlManagementController {
 
+    private static final int DEFAULT_LIST_LIMIT = 100;
+    private static final int MAX_LIST_LIMIT = 1000;
+
     @Autowired
     private SqlFileService sqlFileService;
 
+    @Autowired
+    private SqlParseJobService sqlParseJobService;
+
+    @Value("${tablecraft.sql.store.preview-chars:100000}")
+    private int previewChars;
+
     /**
      * SQLファイルアップロード
      * POST /api/admin/sql/upload
@@ -62,7 +77,9 @@ public class SqlManagementController {
                     "fileName", sqlFile.getFileName(),
                     "fileSize", sqlFile.getFileSize(),
                     "parseStatus", sqlFile.getParseStatus(),
-                    "uploadedAt", sqlFile.getUploadedAt().toString()));
+                    "uploadedAt", sqlFile.getUploadedAt().toString(),
+                    "contentHash", sqlFile.getContentHash(),
+                    "duplicateOf", sqlFileService.findDuplicateIds(sqlFile)));
 
             return ResponseEntity.ok(response);
 
@@ -74,7 +91,8 @@ public class SqlManagementController {
     }
 
     /**
-     * SQL解析実行
+     * SQL解析実行（バックグラウンドのジョブとして開始し、ジョブIDを返す）
+     * 「wait」: true の場合は完了まで待ち（最大waitTimeoutMs）、解析済みテーブル一覧も返す
      * POST /api/admin/sql/parse
      */
     @PostMapping("/parse")
@@ -84,25 +102,82 @@ public class SqlManagementController {
         try {
             Long sqlFileId = Long.valueOf(request.get("sqlFileId").toString());
 
-            // 解析処理
-            UploadedSqlFile sqlFile = sqlFileService.parseSqlFile(sqlFileId);
+            // 解析ジョブを開始
+            SqlParseJobService.ParseJob job = sqlParseJobService.submit(sqlFileId);
 
-            // テーブル定義を取得
-            List<ParsedTableDefinition> definitions = sqlFileService.getTableDefinitions(sqlFileId);
+            boolean wait = Boolean.TRUE.equals(request.get("wait"));
+            if (wait) {
+                long timeoutMs = request.get("waitTimeoutMs") != null
+                        ? Long.parseLong(request.get("waitTimeoutMs").toString()) : 60000L;
+                job.await(timeoutMs);
+            }
 
-            Map<String, Object> data = new HashMap<>();
-            data.put("sqlFileId", sqlFile.getId());
-            data.put("parseStatus", sqlFile.getParseStatus());
-            data.put("tableCount", definitions.size());
-            data.put("tables",
-                    definitions.stream().map(ParsedTableDefinition::getTableName).collect(Collectors.toList()));
-            data.put("errorMessage", sqlFile.getErrorMessage() != null ? sqlFile.getErrorMessage() : "");
+            Map<String, Object> data = new HashMap<>(job.toMap());
+            if (wait && job.isFinished()) {
+                // テーブル定義を取得
+                List<ParsedTableDefinition> definitions = sqlFileService.getTableDefinitions(sqlFileId);
+                data.put("parseStatus", "completed".equals(job.getStatus()) ? "parsed" : "error");
+                data.put("tableCount", definitions.size());
+                data.put("tables",
+                        definitions.stream().map(ParsedTableDefinition::getTableName).collect(Collectors.toList()));
+                data.put("errorMessage", job.getMessage() != null ? job.getMessage() : "");
+            } else {
+                data.put("parseStatus", "parsing");
+            }
 
             response.put("success", true);
             response.put("data", data);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 解析ジョブの進捗取得（jobId、またはsqlFileIdで直近のジョブ）
+     * ジョブが残っていない場合はuploaded_sql_filesのステータスを返す
+     * POST /api/admin/sql/parse/status
+     */
+    @PostMapping("/parse/status")
+    public ResponseEntity<Map<String, Object>> getParseStatus(@RequestBody Map<String, Object> request) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            Optional<SqlParseJobService.ParseJob> job = findJob(request);
+            if (job.isPresent()) {
+                response.put("success", true);
+                response.put("data", job.get().toMap());
+                return ResponseEntity.ok(response);
+            }
+
+            Optional<UploadedSqlFile> file = request.get("sqlFileId") != null
+                    ? sqlFileService.getSqlFile(Long.valueOf(request.get("sqlFileId").toString()))
+                    : Optional.empty();
+            if (file.isEmpty()) {
+                response.put("success", false);
+                response.put("error", "Parse job not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("sqlFileId", file.get().getId());
+            data.put("parseStatus", file.get().getParseStatus());
+            data.put("parseResult", file.get().getParseResult() != null ? file.get().getParseResult() : "");
+            data.put("errorMessage", file.get().getErrorMessage() != null ? file.get().getErrorMessage() : "");
+
+            response.put("success", true);
+            response.put("data", data);
+            return ResponseEntity.ok(response);
+
         } catch (Exception e) {
             response.put("success", false);
             response.put("error", e.getMessage());
@@ -111,7 +186,50 @@ public class SqlManagementController {
     }
 
     /**
-     * アップロード済みSQLファイル一覧
+     * 解析ジョブの進捗をServer-Sent Eventsで返す
+     * イベント名は「progress」（保存のたび）と「complete」（完了時）
+     * POST /api/admin/sql/parse/stream
+     */
+    @PostMapping("/parse/stream")
+    public SseEmitter streamParseStatus(@RequestBody Map<String, Object> request) {
+        SseEmitter emitter = new SseEmitter(0L);
+
+        Optional<SqlParseJobService.ParseJob> job = findJob(request);
+        if (job.isEmpty()) {
+            emitter.completeWithError(new IllegalArgumentException("Parse job not found"));
+            return emitter;
+        }
+
+        job.get().subscribe(current -> {
+            try {
+                if (current.isFinished()) {
+                    emitter.send(SseEmitter.event().name("complete").data(current.toMap()));
+                    emitter.complete();
+                } else {
+                    emitter.send(SseEmitter.event().name("progress").data(current.toMap()));
+                }
+            } catch (IOException e) {
+                // 切断されたクライアントは通知対象から外す
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return emitter;
+    }
+
+    private Optional<SqlParseJobService.ParseJob> findJob(Map<String, Object> request) {
+        if (request.get("jobId") != null) {
+            return sqlParseJobService.getJob(request.get("jobId").toString());
+        }
+        if (request.get("sqlFileId") != null) {
+            return sqlParseJobService.findLatestJob(Long.valueOf(request.get("sqlFileId").toString()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * アップロード済みSQLファイル一覧（アップロード日時の降順、キーセット方式のページング）
+     * リクエスト: limit（省略時100）、cursor（前ページのnextCursor）
      * POST /api/admin/sql/list
      */
     @PostMapping("/list")
@@ -120,7 +238,22 @@ public class SqlManagementController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            List<UploadedSqlFile> files = sqlFileService.listAllSqlFiles();
+            int limit = DEFAULT_LIST_LIMIT;
+            String cursor = null;
+            if (request != null) {
+                if (request.get("limit") != null) {
+                    limit = Math.max(1, Math.min(MAX_LIST_LIMIT, Integer.parseInt(request.get("limit").toString())));
+                }
+                if (request.get("cursor") != null) {
+                    cursor = request.get("cursor").toString();
+                }
+            }
+
+            List<UploadedSqlFileSummary> files = sqlFileService.listSqlFileSummaries(cursor, limit);
+            boolean hasMore = files.size() > limit;
+            if (hasMore) {
+                files = files.subList(0, limit);
+            }
 
             List<Map<String, Object>> fileList = files.stream().map(file -> {
                 Map<String, Object> fileMap = new HashMap<>();
@@ -137,9 +270,16 @@ public class SqlManagementController {
 
             response.put("success", true);
             response.put("data", fileList);
+            response.put("hasMore", hasMore);
+            response.put("nextCursor", hasMore ? sqlFileService.toCursor(files.get(files.size() - 1)) : null);
 
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
         } catch (Exception e) {
             response.put("success", false);
             response.put("error", e.getMessage());
@@ -171,7 +311,11 @@ public class SqlManagementController {
             data.put("sqlFileId", file.getId());
             data.put("fileName", file.getFileName());
             data.put("fileSize", file.getFileSize());
-            data.put("sqlContent", file.getSqlContent());
+            // 内容は先頭のみ（全体はファイルストアに保存）
+            String preview = sqlFileService.getContentPreview(file, previewChars);
+            data.put("sqlContent", preview);
+            data.put("sqlContentTruncated", preview.length() >= previewChars);
+            data.put("contentHash", file.getContentHash() != null ? file.getContentHash() : "");
             data.put("sqlType", file.getSqlType());
             data.put("dbmsType", file.getDbmsType());
             data.put("parseStatus", file.getParseStatus());
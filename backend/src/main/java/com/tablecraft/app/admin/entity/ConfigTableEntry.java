@@ -0,0 +1,98 @@
+package com.tablecraft.app.admin.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * テーブル単位の設定エントリのエンティティ
+ * 最後に変更された設定バージョンと内容のハッシュを持つ（削除時はdeleted=trueで内容なし）
+ */
+@Entity
+@Table(name = "config_table_entries")
+public class ConfigTableEntry {
+
+    @Id
+    @Column(name = "table_id", length = 255)
+    private String tableId;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Lob
+    @Column(name = "content", columnDefinition = "LONGTEXT")
+    private String content; // テーブル設定（JSON）
+
+    @Column(name = "deleted")
+    private Boolean deleted = false;
+
+    @Column(name = "updated_by", length = 100)
+    private String updatedBy;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructor
+    public ConfigTableEntry() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getTableId() {
+        return tableId;
+    }
+
+    public void setTableId(String tableId) {
+        this.tableId = tableId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getUpdatedBy() {
+        return updatedBy;
+    }
+
+    public void setUpdatedBy(String updatedBy) {
+        this.updatedBy = updatedBy;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
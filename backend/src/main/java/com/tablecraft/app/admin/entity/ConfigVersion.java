@@ -0,0 +1,92 @@
+package com.tablecraft.app.admin.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 設定バージョンのエンティティ（設定種別ごとに1行）
+ * 管理画面からの変更ごとにバージョンを加算し、各ノードはこの1行のみをポーリングする
+ */
+@Entity
+@Table(name = "config_versions")
+public class ConfigVersion {
+
+    @Id
+    @Column(name = "config_name", length = 100)
+    private String configName;
+
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    @Column(name = "header_hash", length = 64)
+    private String headerHash;
+
+    @Lob
+    @Column(name = "header_content", columnDefinition = "LONGTEXT")
+    private String headerContent; // tablesを除いた設定（JSON）
+
+    @Column(name = "updated_by", length = 100)
+    private String updatedBy;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructor
+    public ConfigVersion() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public ConfigVersion(String configName) {
+        this();
+        this.configName = configName;
+    }
+
+    // Getters and Setters
+    public String getConfigName() {
+        return configName;
+    }
+
+    public void setConfigName(String configName) {
+        this.configName = configName;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getHeaderHash() {
+        return headerHash;
+    }
+
+    public void setHeaderHash(String headerHash) {
+        this.headerHash = headerHash;
+    }
+
+    public String getHeaderContent() {
+        return headerContent;
+    }
+
+    public void setHeaderContent(String headerContent) {
+        this.headerContent = headerContent;
+    }
+
+    public String getUpdatedBy() {
+        return updatedBy;
+    }
+
+    public void setUpdatedBy(String updatedBy) {
+        this.updatedBy = updatedBy;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -35,9 +35,17 @@ public class ParsedTableDefinition {
     @Column(name = "indexes", columnDefinition = "JSON")
     private String indexes;
 
+    // 元のCREATE TABLE文のハッシュ（解析結果の再利用に使用）
+    @Column(name = "statement_hash", length = 64)
+    private String statementHash;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // 解析せずにキャッシュから作成したか（保存しない）
+    @Transient
+    private boolean reused;
+
     // Constructor
     public ParsedTableDefinition() {
         this.createdAt = LocalDateTime.now();
@@ -100,6 +108,22 @@ public class ParsedTableDefinition {
         this.indexes = indexes;
     }
 
+    public String getStatementHash() {
+        return statementHash;
+    }
+
+    public void setStatementHash(String statementHash) {
+        this.statementHash = statementHash;
+    }
+
+    public boolean isReused() {
+        return reused;
+    }
+
+    public void setReused(boolean reused) {
+        this.reused = reused;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
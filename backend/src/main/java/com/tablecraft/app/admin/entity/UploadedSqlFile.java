@@ -20,10 +20,19 @@ public class UploadedSqlFile {
     @Column(name = "file_size")
     private Long fileSize;
 
+    // 旧形式の行のみ（新しいアップロードはSqlFileStoreに保存し、content_hashで参照する）
     @Lob
-    @Column(name = "sql_content", nullable = false, columnDefinition = "LONGTEXT")
+    @Column(name = "sql_content", columnDefinition = "LONGTEXT")
     private String sqlContent;
 
+    // SQLファイルの内容のSHA-256（SqlFileStoreのキー）
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // 圧縮して保存したサイズ
+    @Column(name = "stored_size")
+    private Long storedSize;
+
     @Column(name = "sql_type", length = 20)
     private String sqlType; // 'dump', 'schema', 'migration'
 
@@ -86,6 +95,22 @@ public class UploadedSqlFile {
         this.sqlContent = sqlContent;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getStoredSize() {
+        return storedSize;
+    }
+
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+
     public String getSqlType() {
         return sqlType;
     }
@@ -0,0 +1,19 @@
+package com.tablecraft.app.admin.repository;
+
+import com.tablecraft.app.admin.entity.ConfigTableEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * ConfigTableEntryのリポジトリ
+ */
+@Repository
+public interface ConfigTableEntryRepository extends JpaRepository<ConfigTableEntry, String> {
+
+    /**
+     * 指定バージョンより後に変更されたエントリを取得
+     */
+    List<ConfigTableEntry> findByVersionGreaterThanOrderByVersionAsc(Long version);
+}
@@ -0,0 +1,40 @@
+package com.tablecraft.app.admin.repository;
+
+import com.tablecraft.app.admin.entity.ConfigVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+/**
+ * ConfigVersionのリポジトリ
+ */
+@Repository
+public interface ConfigVersionRepository extends JpaRepository<ConfigVersion, String> {
+
+    /**
+     * バージョン番号のみを取得（ポーリング用）
+     */
+    @Query("SELECT v.version FROM ConfigVersion v WHERE v.configName = :configName")
+    Optional<Long> findVersionByConfigName(@Param("configName") String configName);
+
+    /**
+     * 更新用に行ロックを取得して検索
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ConfigVersion v WHERE v.configName = :configName")
+    Optional<ConfigVersion> findForUpdate(@Param("configName") String configName);
+
+    /**
+     * バージョン行がなければ作成（既にある場合は何もしない、ノード間で同時に呼ばれても重複しない）
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO config_versions (config_name, version, updated_at) "
+            + "VALUES (:configName, 0, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int insertIfAbsent(@Param("configName") String configName);
+}
@@ -2,7 +2,11 @@ package com.tablecraft.app.admin.repository;
 
 import com.tablecraft.app.admin.entity.ParsedTableDefinition;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,4 +31,12 @@ public interface ParsedTableDefinitionRepository extends JpaRepository<ParsedTab
      * SQLファイルIDとテーブル名で検索
      */
     Optional<ParsedTableDefinition> findBySqlFileIdAndTableName(Long sqlFileId, String tableName);
+
+    /**
+     * SQLファイルIDで一括削除（エンティティを読み込まず1文で削除）
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ParsedTableDefinition d WHERE d.sqlFileId = :sqlFileId")
+    int deleteAllBySqlFileId(@Param("sqlFileId") Long sqlFileId);
 }
@@ -1,9 +1,15 @@
 package com.tablecraft.app.admin.repository;
 
 import com.tablecraft.app.admin.entity.UploadedSqlFile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -23,7 +29,43 @@ public interface UploadedSqlFileRepository extends JpaRepository<UploadedSqlFile
     List<UploadedSqlFile> findByParseStatus(String parseStatus);
 
     /**
-     * アップロード日時の降順で全件取得
+     * 一覧の先頭ページ（アップロード日時・IDの降順、メタデータのみ）
      */
-    List<UploadedSqlFile> findAllByOrderByUploadedAtDesc();
+    @Query("SELECT f.id AS id, f.fileName AS fileName, f.fileSize AS fileSize, f.sqlType AS sqlType, "
+            + "f.dbmsType AS dbmsType, f.parseStatus AS parseStatus, f.contentHash AS contentHash, "
+            + "f.uploadedBy AS uploadedBy, f.uploadedAt AS uploadedAt "
+            + "FROM UploadedSqlFile f ORDER BY f.uploadedAt DESC, f.id DESC")
+    List<UploadedSqlFileSummary> findSummaries(Pageable pageable);
+
+    /**
+     * 指定した行より後ろのページ（キーセット方式、OFFSETを使わない）
+     */
+    @Query("SELECT f.id AS id, f.fileName AS fileName, f.fileSize AS fileSize, f.sqlType AS sqlType, "
+            + "f.dbmsType AS dbmsType, f.parseStatus AS parseStatus, f.contentHash AS contentHash, "
+            + "f.uploadedBy AS uploadedBy, f.uploadedAt AS uploadedAt "
+            + "FROM UploadedSqlFile f "
+            + "WHERE f.uploadedAt < :uploadedAt OR (f.uploadedAt = :uploadedAt AND f.id < :id) "
+            + "ORDER BY f.uploadedAt DESC, f.id DESC")
+    List<UploadedSqlFileSummary> findSummariesAfter(@Param("uploadedAt") LocalDateTime uploadedAt,
+                                                    @Param("id") Long id, Pageable pageable);
+
+    /**
+     * 同じ内容（ハッシュ）を参照している件数
+     */
+    long countByContentHash(String contentHash);
+
+    /**
+     * 同じ内容（ハッシュ）のファイルを古い順に取得
+     */
+    List<UploadedSqlFile> findByContentHashOrderByIdAsc(String contentHash);
+
+    /**
+     * 解析ステータス・結果のみを更新（解析ジョブの進捗用）
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadedSqlFile f SET f.parseStatus = :parseStatus, f.parseResult = :parseResult, "
+            + "f.errorMessage = :errorMessage WHERE f.id = :id")
+    int updateParseStatus(@Param("id") Long id, @Param("parseStatus") String parseStatus,
+                          @Param("parseResult") String parseResult, @Param("errorMessage") String errorMessage);
 }
@@ -0,0 +1,27 @@
+package com.tablecraft.app.admin.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * UploadedSqlFileの一覧表示用プロジェクション（sql_content / parse_result / error_message は含まない）
+ */
+public interface UploadedSqlFileSummary {
+
+    Long getId();
+
+    String getFileName();
+
+    Long getFileSize();
+
+    String getSqlType();
+
+    String getDbmsType();
+
+    String getParseStatus();
+
+    String getContentHash();
+
+    String getUploadedBy();
+
+    LocalDateTime getUploadedAt();
+}
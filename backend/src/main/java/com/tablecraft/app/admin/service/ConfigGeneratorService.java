@@ -4,8 +4,12 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tablecraft.app.admin.entity.ParsedTableDefinition;
 import com.tablecraft.app.admin.repository.ParsedTableDefinitionRepository;
+import com.tablecraft.app.service.ConfigSnapshotCodec;
+import com.tablecraft.app.service.ExternalConfigService;
+import com.tablecraft.app.service.ShardedTableConfigStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -31,11 +35,29 @@ public class ConfigGeneratorService {
     @Autowired
     private ParsedTableDefinitionRepository tableDefinitionRepository;
 
+    @Autowired
+    private ConfigSnapshotCodec snapshotCodec;
+
+    @Autowired
+    private ExternalConfigService externalConfigService;
+
+    @Autowired
+    private ConfigSyncService configSyncService;
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    // バイナリスナップショットを作成する設定ファイル（起動時にスナップショットから読み込むもの）
+    private static final List<String> SNAPSHOT_FILES = Arrays.asList("table-config.json", "validation-config.json");
+
     @Value("${spring.config.location:classpath:/config/}")
     private String configLocation;
 
+    @Value("${tablecraft.config.sharded.enabled:false}")
+    private boolean shardedEnabled;
+
+    @Value("${tablecraft.config.sharded.directory:tables}")
+    private String shardedDirectoryName;
+
     /**
      * table-config.jsonを生成
      */
@@ -242,6 +264,16 @@ public class ConfigGeneratorService {
         // 保存先パスを解決
         Path configPath = resolveConfigPath();
         Path targetFile = configPath.resolve(filename);
+        boolean tableConfig = "table-config.json".equals(filename);
+
+        // 分割レイアウトではテーブル単位のファイルに保存（単一ファイルに書いても読み込まれないため）
+        if (tableConfig && shardedEnabled) {
+            saveShardedTableConfig(configPath, config);
+            if (configSyncService.isEnabled()) {
+                configSyncService.publishFullConfig(extractHeader(config), extractTables(config));
+            }
+            return;
+        }
 
         System.out.println("[ConfigGeneratorService] 設定ファイルを保存: " + targetFile.toAbsolutePath());
 
@@ -253,9 +285,50 @@ public class ConfigGeneratorService {
         }
 
         // JSON書き込み
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(targetFile.toFile(), config);
+        writeConfigJson(targetFile, config);
         System.out.println(
                 "[ConfigGeneratorService] ✅ 保存完了: " + filename + " (size: " + Files.size(targetFile) + " bytes)");
+
+        // 他ノードへ変更を伝えるため、テーブル設定はバージョンとして記録
+        if (configSyncService.isEnabled() && tableConfig) {
+            configSyncService.publishFullConfig(extractHeader(config), extractTables(config));
+        }
+    }
+
+    /**
+     * 設定JSONを書き込み、スナップショットが有効であれば隣にバイナリスナップショットも作成
+     * （スナップショットを読み込むtable-config.json・validation-config.jsonのみ）
+     */
+    private void writeConfigJson(Path targetFile, Object config) throws IOException {
+        byte[] content = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(config);
+        Files.write(targetFile, content);
+
+        if (snapshotCodec.isEnabled() && SNAPSHOT_FILES.contains(targetFile.getFileName().toString())) {
+            snapshotCodec.writeSnapshot(targetFile, content, config);
+        }
+    }
+
+    /**
+     * 保存先の設定ファイル（table/validation）のバイナリスナップショットを作成
+     * デプロイ時のビルドステップとして呼び出し、起動時のJSONパースを省略する
+     * ui-config.jsonはパースせずにそのまま返すためスナップショットを作成しない
+     */
+    public Map<String, Object> buildSnapshots() throws IOException {
+        Path configPath = resolveConfigPath();
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        for (String filename : SNAPSHOT_FILES) {
+            Path jsonFile = configPath.resolve(filename);
+            if (!Files.exists(jsonFile)) {
+                result.put(filename, "not found");
+                continue;
+            }
+            byte[] content = Files.readAllBytes(jsonFile);
+            snapshotCodec.writeSnapshot(jsonFile, content, objectMapper.readTree(content));
+            result.put(filename, snapshotCodec.getSnapshotPath(jsonFile).toString());
+        }
+
+        return result;
     }
 
     /**
@@ -304,9 +377,10 @@ public class ConfigGeneratorService {
         try {
             Path configPath = resolveConfigPath();
 
-            // table-config.json が存在しない場合はデフォルトをコピー
+            // table-config.json（分割レイアウトの場合はindex.jsonも）が存在しない場合はデフォルトをコピー
             Path tableConfigFile = configPath.resolve("table-config.json");
-            if (!Files.exists(tableConfigFile)) {
+            Path indexFile = configPath.resolve(shardedDirectoryName).resolve(ShardedTableConfigStore.INDEX_FILE_NAME);
+            if (!Files.exists(tableConfigFile) && !(shardedEnabled && Files.exists(indexFile))) {
                 Map<String, Object> defaultConfig = loadDefaultConfig("default-table-config.json");
                 saveConfigToFile(defaultConfig, "table-config.json");
                 System.out.println("[ConfigGeneratorService] Initialized table-config.json with defaults");
@@ -462,6 +536,12 @@ public class ConfigGeneratorService {
     public void saveTableConfig(Map<String, Object> config) throws IOException {
         Path configPath = resolveConfigPath();
         Path tableConfigFile = configPath.resolve("table-config.json");
+
+        // 分割レイアウトの場合はテーブル単位のファイルに保存（変更のあったテーブルのみ書き込み）
+        if (shardedEnabled) {
+            saveShardedTableConfig(configPath, config);
+            return;
+        }
         
         // 1. src/main/resources/config/table-config.json に保存（業務画面が読み込む）
         Path resourcesConfigPath = Paths.get("backend", "src", "main", "resources", "config");
@@ -481,7 +561,272 @@ public class ConfigGeneratorService {
         }
         
         // 3. bin/config にも保存（デフォルト）
-        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tableConfigFile.toFile(), config);
+        writeConfigJson(tableConfigFile, config);
         System.out.println("✅ table-config.json saved to: " + tableConfigFile);
     }
+
+    /**
+     * table-config.jsonの単一テーブルのエントリのみを更新（entryがnullの場合は削除）
+     * 分割レイアウトでは該当テーブルのファイルのみ書き込み、読み込み側にも差分として反映する
+     */
+    public void patchTableConfig(String tableId, Map<String, Object> entry) throws IOException {
+        writeTableConfigEntry(resolveConfigPath(), tableId, entry);
+
+        // 自ノードのキャッシュには全体を再読み込みせず差分として反映
+        externalConfigService.applyTableDelta(tableId, entry);
+
+        if (configSyncService.isEnabled()) {
+            configSyncService.publishTableEntry(tableId, entry);
+        }
+    }
+
+    /**
+     * 他ノードで記録された設定変更を取り込む
+     * バージョン番号のみをポーリングし、新しいバージョンがあれば変更されたテーブルのみ書き込んで反映する
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.config.db-sync.poll-interval-ms:2000}",
+            initialDelayString = "${tablecraft.config.db-sync.poll-interval-ms:2000}")
+    public void syncFromDatabase() {
+        if (!configSyncService.isEnabled()) {
+            return;
+        }
+
+        try {
+            Path configPath = Paths.get(configSavePath);
+            if (!configSyncService.isSeeded()) {
+                Map<String, Object> localConfig = loadLocalTableConfig(configPath);
+                configSyncService.seed(extractHeader(localConfig), extractTables(localConfig));
+            }
+
+            ConfigSyncService.ChangeSet changes = configSyncService.pollChanges();
+            if (changes == null) {
+                return;
+            }
+
+            if (!changes.isEmpty()) {
+                applyRemoteChanges(configPath, changes);
+            }
+            configSyncService.markApplied(changes);
+
+        } catch (Exception e) {
+            System.err.println("[ConfigGeneratorService] ❌ 設定の同期に失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 他ノードの変更をローカルの設定ファイルとキャッシュに反映
+     */
+    @SuppressWarnings("unchecked")
+    private void applyRemoteChanges(Path configPath, ConfigSyncService.ChangeSet changes) throws IOException {
+        if (shardedEnabled) {
+            for (Map.Entry<String, Map<String, Object>> entry : changes.getEntries().entrySet()) {
+                writeTableConfigEntry(configPath, entry.getKey(), entry.getValue());
+            }
+            if (changes.getHeader() != null) {
+                Path indexFile = configPath.resolve(shardedDirectoryName).resolve(ShardedTableConfigStore.INDEX_FILE_NAME);
+                Map<String, Object> index = new LinkedHashMap<>(changes.getHeader());
+                index.put("tables", Files.exists(indexFile)
+                        ? objectMapper.readValue(indexFile.toFile(), Map.class).get("tables")
+                        : new ArrayList<>());
+                writeIfChanged(indexFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(index));
+            }
+        } else {
+            // 単一ファイルの場合は全変更をまとめて1回で書き込む
+            Map<String, Object> config = loadLocalTableConfig(configPath);
+            Map<String, Object> tables = extractTables(config);
+            for (Map.Entry<String, Map<String, Object>> entry : changes.getEntries().entrySet()) {
+                if (entry.getValue() != null) {
+                    tables.put(entry.getKey(), entry.getValue());
+                } else {
+                    tables.remove(entry.getKey());
+                }
+            }
+            Map<String, Object> updated = new LinkedHashMap<>(changes.getHeader() != null ? changes.getHeader() : extractHeader(config));
+            updated.put("tables", tables);
+            saveTableConfig(updated);
+        }
+
+        if (changes.getHeader() != null) {
+            externalConfigService.reloadTableConfig();
+        } else {
+            for (Map.Entry<String, Map<String, Object>> entry : changes.getEntries().entrySet()) {
+                externalConfigService.applyTableDelta(entry.getKey(), entry.getValue());
+            }
+        }
+        System.out.println("[ConfigGeneratorService] ✅ 他ノードの設定変更を反映: version=" + changes.getVersion()
+                + ", tables=" + changes.getEntries().keySet());
+    }
+
+    /**
+     * ローカルのtable-configを単一ファイル形式で読み込み（分割レイアウトの場合は組み立て）
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> loadLocalTableConfig(Path configPath) throws IOException {
+        Path shardDirectory = configPath.resolve(shardedDirectoryName);
+        Path indexFile = shardDirectory.resolve(ShardedTableConfigStore.INDEX_FILE_NAME);
+        // index.jsonがまだない場合は単一ファイルの内容を使う
+        if (shardedEnabled && Files.exists(indexFile)) {
+            Map<String, Object> config = objectMapper.readValue(indexFile.toFile(), LinkedHashMap.class);
+            Map<String, Object> tables = new LinkedHashMap<>();
+            if (config.get("tables") instanceof List) {
+                for (Object tableId : (List<Object>) config.get("tables")) {
+                    Path shardFile = shardDirectory.resolve(tableId + ".json");
+                    if (Files.exists(shardFile)) {
+                        tables.put(String.valueOf(tableId), objectMapper.readValue(shardFile.toFile(), LinkedHashMap.class));
+                    }
+                }
+            }
+            config.put("tables", tables);
+            return config;
+        }
+
+        Path tableConfigFile = configPath.resolve("table-config.json");
+        return Files.exists(tableConfigFile)
+                ? objectMapper.readValue(tableConfigFile.toFile(), LinkedHashMap.class)
+                : new LinkedHashMap<>();
+    }
+
+    /**
+     * 単一テーブルのエントリをファイルに書き込む（entryがnullの場合は削除）
+     */
+    @SuppressWarnings("unchecked")
+    private void writeTableConfigEntry(Path configPath, String tableId, Map<String, Object> entry) throws IOException {
+        if (shardedEnabled) {
+            Path shardDirectory = configPath.resolve(shardedDirectoryName);
+            Files.createDirectories(shardDirectory);
+            Path shardFile = shardDirectory.resolve(tableId + ".json");
+            Path indexFile = shardDirectory.resolve(ShardedTableConfigStore.INDEX_FILE_NAME);
+
+            // index.jsonがまだない場合は、既存のtable-config.jsonの全テーブルを先に分割して保存する
+            // （編集したテーブルのみのindex.jsonが作られ、他のテーブルが読み込まれなくなるのを防ぐ）
+            Path tableConfigFile = configPath.resolve("table-config.json");
+            if (!Files.exists(indexFile) && Files.exists(tableConfigFile)) {
+                saveShardedTableConfig(configPath, objectMapper.readValue(tableConfigFile.toFile(), LinkedHashMap.class));
+            }
+
+            Map<String, Object> index = Files.exists(indexFile)
+                    ? objectMapper.readValue(indexFile.toFile(), Map.class)
+                    : new LinkedHashMap<>();
+            List<Object> tableIds = index.get("tables") instanceof List
+                    ? new ArrayList<>((List<Object>) index.get("tables"))
+                    : new ArrayList<>();
+
+            if (entry != null) {
+                writeIfChanged(shardFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(entry));
+                if (!tableIds.contains(tableId)) {
+                    tableIds.add(tableId);
+                }
+            } else {
+                tableIds.remove(tableId);
+            }
+
+            // テーブルの追加・削除時のみindex.jsonを書き換える
+            index.put("tables", tableIds);
+            writeIfChanged(indexFile, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(index));
+            if (entry == null) {
+                Files.deleteIfExists(shardFile);
+            }
+            System.out.println("✅ table-config entry " + (entry != null ? "saved" : "removed") + ": " + shardFile);
+        } else {
+            // 単一ファイルの場合は現在の内容に該当エントリのみ差し替えて保存
+            Path tableConfigFile = configPath.resolve("table-config.json");
+            Map<String, Object> config = Files.exists(tableConfigFile)
+                    ? objectMapper.readValue(tableConfigFile.toFile(), LinkedHashMap.class)
+                    : new LinkedHashMap<>();
+            Map<String, Object> tables = config.get("tables") instanceof Map
+                    ? (Map<String, Object>) config.get("tables")
+                    : new LinkedHashMap<>();
+
+            if (entry != null) {
+                tables.put(tableId, entry);
+            } else {
+                tables.remove(tableId);
+            }
+            config.put("tables", tables);
+            saveTableConfig(config);
+        }
+    }
+
+    /**
+     * table-config.jsonをテーブル単位のファイルとindex.jsonに分割して保存
+     * 内容が変わっていないテーブルのファイルは書き換えない（読み込み側の再パースを避けるため）
+     */
+    private void saveShardedTableConfig(Path configPath, Map<String, Object> config) throws IOException {
+        Path shardDirectory = configPath.resolve(shardedDirectoryName);
+        Files.createDirectories(shardDirectory);
+
+        Map<String, Object> tables = extractTables(config);
+        int written = 0;
+
+        for (Map.Entry<String, Object> entry : tables.entrySet()) {
+            byte[] content = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(entry.getValue());
+            if (writeIfChanged(shardDirectory.resolve(entry.getKey() + ".json"), content)) {
+                written++;
+            }
+        }
+
+        // 一覧から外れたテーブルのファイルを削除
+        try (var files = Files.list(shardDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".json") || name.equals(ShardedTableConfigStore.INDEX_FILE_NAME)) {
+                    continue;
+                }
+                String tableId = name.substring(0, name.length() - ".json".length());
+                if (!tables.containsKey(tableId)) {
+                    Files.deleteIfExists(file);
+                    System.out.println("[ConfigGeneratorService] テーブル定義ファイルを削除: " + file);
+                }
+            }
+        }
+
+        // テーブル本体を書き終えてからindex.jsonを更新する
+        Map<String, Object> index = new LinkedHashMap<>(config);
+        index.put("tables", new ArrayList<>(tables.keySet()));
+        writeIfChanged(shardDirectory.resolve(ShardedTableConfigStore.INDEX_FILE_NAME),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(index));
+
+        System.out.println("✅ table-config saved to: " + shardDirectory + " (" + written + "/" + tables.size()
+                + " tables written)");
+    }
+
+    /**
+     * 設定のtablesをテーブルID→定義のMapとして取り出す（Map形式・配列形式の両方に対応）
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> extractTables(Map<String, Object> config) {
+        Map<String, Object> tables = new LinkedHashMap<>();
+        Object tablesObj = config.get("tables");
+        if (tablesObj instanceof Map) {
+            tables.putAll((Map<String, Object>) tablesObj);
+        } else if (tablesObj instanceof List) {
+            for (Object tableObj : (List<Object>) tablesObj) {
+                Map<String, Object> table = (Map<String, Object>) tableObj;
+                tables.put(String.valueOf(table.get("id")), table);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 設定からtables以外の項目（project, database等）を取り出す
+     */
+    private Map<String, Object> extractHeader(Map<String, Object> config) {
+        Map<String, Object> header = new LinkedHashMap<>(config);
+        header.remove("tables");
+        return header;
+    }
+
+    /**
+     * 内容が異なる場合のみファイルを置き換える
+     */
+    private boolean writeIfChanged(Path file, byte[] content) throws IOException {
+        if (Files.exists(file) && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tempFile, content);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
 }
@@ -0,0 +1,281 @@
+package com.tablecraft.app.admin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tablecraft.app.admin.entity.ConfigTableEntry;
+import com.tablecraft.app.admin.entity.ConfigVersion;
+import com.tablecraft.app.admin.repository.ConfigTableEntryRepository;
+import com.tablecraft.app.admin.repository.ConfigVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 複数ノード間の設定バージョン同期サービス
+ * 管理画面での変更をconfig_versions（バージョン1行）とconfig_table_entries（テーブル単位）に記録し、
+ * 各ノードはバージョン番号のみをポーリングして、変更があったテーブルだけを取得する
+ */
+@Service
+public class ConfigSyncService {
+
+    public static final String TABLE_CONFIG = "table-config";
+
+    private static final String DELETED_HASH = "deleted";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${tablecraft.config.db-sync.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ConfigVersionRepository configVersionRepository;
+
+    @Autowired
+    private ConfigTableEntryRepository configTableEntryRepository;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    // 自ノードに反映済みのバージョンと、テーブルごとの内容ハッシュ
+    private volatile long appliedVersion = 0;
+    private volatile boolean seeded = false;
+    private volatile String headerHash;
+    private final Map<String, String> knownHashes = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * 自ノードのローカル設定の内容ハッシュを記録（初回ポーリング前に呼び出す）
+     * 同じ内容のエントリは取得しても書き込みを省略する
+     */
+    public synchronized void seed(Map<String, Object> header, Map<String, Object> tables) {
+        knownHashes.clear();
+        for (Map.Entry<String, Object> entry : tables.entrySet()) {
+            knownHashes.put(entry.getKey(), hash(entry.getValue()));
+        }
+        headerHash = header != null ? hash(header) : null;
+        seeded = true;
+        System.out.println("[ConfigSyncService] ローカル設定を登録: " + tables.size() + " テーブル (node: " + nodeId + ")");
+    }
+
+    /**
+     * 設定全体を記録（内容が変わったテーブル・削除されたテーブルのみ書き込む）
+     */
+    @Transactional
+    public void publishFullConfig(Map<String, Object> header, Map<String, Object> tables) {
+        Map<String, Object> changes = new LinkedHashMap<>(tables);
+        for (String tableId : knownHashes.keySet()) {
+            if (!tables.containsKey(tableId)) {
+                changes.put(tableId, null);
+            }
+        }
+        publish(header, changes);
+    }
+
+    /**
+     * 単一テーブルの変更を記録（entryがnullの場合は削除）
+     */
+    @Transactional
+    public void publishTableEntry(String tableId, Object entry) {
+        publish(null, Collections.singletonMap(tableId, entry));
+    }
+
+    private void publish(Map<String, Object> header, Map<String, Object> changes) {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            String contentHash = change.getValue() != null ? hash(change.getValue()) : DELETED_HASH;
+            String knownHash = knownHashes.get(change.getKey());
+            boolean unchanged = change.getValue() != null
+                    ? contentHash.equals(knownHash)
+                    : knownHash == null || DELETED_HASH.equals(knownHash);
+            if (seeded && unchanged) {
+                continue;
+            }
+            hashes.put(change.getKey(), contentHash);
+        }
+        String newHeaderHash = header != null ? hash(header) : null;
+        boolean headerChanged = newHeaderHash != null && !newHeaderHash.equals(headerHash);
+
+        if (hashes.isEmpty() && !headerChanged) {
+            return;
+        }
+
+        // バージョン行をロックして採番（書き込みノード間で直列化）
+        // 行がない場合（ddl-autoで作成されたテーブル等）はロックできないため、先に作成してから必ずロックする
+        configVersionRepository.insertIfAbsent(TABLE_CONFIG);
+        ConfigVersion row = configVersionRepository.findForUpdate(TABLE_CONFIG)
+                .orElseThrow(() -> new IllegalStateException("設定バージョンの行を作成できません: " + TABLE_CONFIG));
+        long version = (row.getVersion() != null ? row.getVersion() : 0L) + 1;
+
+        List<ConfigTableEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, String> changed : hashes.entrySet()) {
+            Object content = changes.get(changed.getKey());
+            ConfigTableEntry entry = new ConfigTableEntry();
+            entry.setTableId(changed.getKey());
+            entry.setVersion(version);
+            entry.setContentHash(changed.getValue());
+            entry.setContent(content != null ? toJson(content) : null);
+            entry.setDeleted(content == null);
+            entry.setUpdatedBy(nodeId);
+            entries.add(entry);
+        }
+        configTableEntryRepository.saveAll(entries);
+
+        row.setVersion(version);
+        if (headerChanged) {
+            row.setHeaderHash(newHeaderHash);
+            row.setHeaderContent(toJson(header));
+        }
+        row.setUpdatedBy(nodeId);
+        row.setUpdatedAt(LocalDateTime.now());
+        configVersionRepository.save(row);
+
+        // 自ノードはファイル反映済みのため、ポーリング時に同じ内容を書き込まないようハッシュを記録
+        knownHashes.putAll(hashes);
+        if (headerChanged) {
+            headerHash = newHeaderHash;
+        }
+        System.out.println("[ConfigSyncService] ✅ 設定バージョンを記録: version=" + version
+                + ", tables=" + hashes.keySet() + (headerChanged ? " (header)" : ""));
+    }
+
+    /**
+     * データベース上の最新バージョンを取得（1行のみの軽量クエリ）
+     */
+    public long readRemoteVersion() {
+        return configVersionRepository.findVersionByConfigName(TABLE_CONFIG).orElse(0L);
+    }
+
+    /**
+     * 前回反映したバージョン以降の変更を取得
+     * 新しいバージョンがない場合はnull、自ノードと同じ内容のエントリは含めない
+     */
+    @SuppressWarnings("unchecked")
+    public ChangeSet pollChanges() {
+        long remoteVersion = readRemoteVersion();
+        if (remoteVersion <= appliedVersion) {
+            return null;
+        }
+
+        ChangeSet changes = new ChangeSet(remoteVersion);
+        try {
+            for (ConfigTableEntry entry : configTableEntryRepository.findByVersionGreaterThanOrderByVersionAsc(appliedVersion)) {
+                if (entry.getContentHash().equals(knownHashes.get(entry.getTableId()))
+                        || (Boolean.TRUE.equals(entry.getDeleted()) && !knownHashes.containsKey(entry.getTableId()))) {
+                    continue;
+                }
+                changes.entries.put(entry.getTableId(), Boolean.TRUE.equals(entry.getDeleted())
+                        ? null
+                        : objectMapper.readValue(entry.getContent(), LinkedHashMap.class));
+                changes.hashes.put(entry.getTableId(), entry.getContentHash());
+            }
+
+            ConfigVersion row = configVersionRepository.findById(TABLE_CONFIG).orElse(null);
+            if (row != null && row.getHeaderHash() != null && !row.getHeaderHash().equals(headerHash)) {
+                changes.header = objectMapper.readValue(row.getHeaderContent(), LinkedHashMap.class);
+                changes.headerHash = row.getHeaderHash();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("設定エントリの読み込みに失敗しました: " + e.getMessage(), e);
+        }
+        return changes;
+    }
+
+    /**
+     * 取得した変更を自ノードに反映済みとして記録
+     */
+    public synchronized void markApplied(ChangeSet changes) {
+        for (Map.Entry<String, String> entry : changes.hashes.entrySet()) {
+            if (DELETED_HASH.equals(entry.getValue())) {
+                knownHashes.remove(entry.getKey());
+            } else {
+                knownHashes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (changes.headerHash != null) {
+            headerHash = changes.headerHash;
+        }
+        appliedVersion = Math.max(appliedVersion, changes.version);
+    }
+
+    /**
+     * 同期状態を取得
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("nodeId", nodeId);
+        status.put("appliedVersion", appliedVersion);
+        if (enabled) {
+            status.put("remoteVersion", readRemoteVersion());
+        }
+        status.put("knownTables", knownHashes.size());
+        return status;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("設定のJSON変換に失敗しました: " + e.getMessage(), e);
+        }
+    }
+
+    private String hash(Object value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(value).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 他ノードで行われた変更（テーブルID→設定、削除の場合はnull）
+     */
+    public static class ChangeSet {
+        private final long version;
+        private final Map<String, Map<String, Object>> entries = new LinkedHashMap<>();
+        private final Map<String, String> hashes = new HashMap<>();
+        private Map<String, Object> header;
+        private String headerHash;
+
+        private ChangeSet(long version) {
+            this.version = version;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Map<String, Map<String, Object>> getEntries() {
+            return entries;
+        }
+
+        public Map<String, Object> getHeader() {
+            return header;
+        }
+
+        public boolean isEmpty() {
+            return entries.isEmpty() && header == null;
+        }
+    }
+}
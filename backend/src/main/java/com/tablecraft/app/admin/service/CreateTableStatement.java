@@ -0,0 +1,222 @@
+package com.tablecraft.app.admin.service;
+
+import com.tablecraft.app.admin.service.SqlLexer.Statement;
+import com.tablecraft.app.admin.service.SqlLexer.Token;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CREATE TABLE文の構文木
+ * テーブル名、括弧内の要素（カラム・制約・インデックス）、閉じ括弧以降のテーブルオプションをトークン範囲で保持する
+ */
+public class CreateTableStatement {
+
+    public enum ElementKind {
+        COLUMN, PRIMARY_KEY, UNIQUE, INDEX, FULLTEXT, FOREIGN_KEY, CHECK
+    }
+
+    private final Statement statement;
+    private String schemaName;
+    private String tableName;
+    private final List<Element> elements = new ArrayList<>();
+    private int optionsStart;
+
+    private CreateTableStatement(Statement statement) {
+        this.statement = statement;
+    }
+
+    /**
+     * CREATE [TEMPORARY] TABLE [IF NOT EXISTS] name (...) options の形式か
+     */
+    public static boolean isCreateTable(Statement statement) {
+        Token first = statement.getToken(0);
+        Token second = statement.getToken(1);
+        if (first == null || second == null || !first.is("CREATE")) {
+            return false;
+        }
+        return second.is("TABLE") || (second.is("TEMPORARY") && statement.getToken(2) != null
+                && statement.getToken(2).is("TABLE"));
+    }
+
+    /**
+     * 文を解析（CREATE TABLE文でない場合はnull）
+     */
+    public static CreateTableStatement parse(Statement statement) {
+        if (!isCreateTable(statement)) {
+            return null;
+        }
+        CreateTableStatement create = new CreateTableStatement(statement);
+        List<Token> tokens = statement.getTokens();
+
+        int i = statement.getToken(1).is("TEMPORARY") ? 3 : 2;
+        if (i + 2 < tokens.size() && tokens.get(i).is("IF") && tokens.get(i + 1).is("NOT")
+                && tokens.get(i + 2).is("EXISTS")) {
+            i += 3;
+        }
+        if (i >= tokens.size() || !tokens.get(i).isIdentifier()) {
+            throw new IllegalArgumentException("テーブル名がありません（" + statement.getLine() + "行目）");
+        }
+        create.tableName = tokens.get(i++).getValue();
+        if (i + 1 < tokens.size() && tokens.get(i).isSymbol('.') && tokens.get(i + 1).isIdentifier()) {
+            create.schemaName = create.tableName;
+            create.tableName = tokens.get(i + 1).getValue();
+            i += 2;
+        }
+
+        create.optionsStart = i;
+        if (i < tokens.size() && tokens.get(i).isSymbol('(')) {
+            int close = statement.findClosingParen(i);
+            if (close < 0) {
+                throw new IllegalArgumentException("テーブル定義の括弧が閉じていません: " + create.tableName);
+            }
+            create.splitElements(i + 1, close);
+            create.optionsStart = close + 1;
+        }
+        return create;
+    }
+
+    /**
+     * 括弧内を最上位のカンマで要素に分割
+     */
+    private void splitElements(int from, int to) {
+        int depth = 0;
+        int start = from;
+        for (int i = from; i < to; i++) {
+            Token token = statement.getTokens().get(i);
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (depth == 0 && token.isSymbol(',')) {
+                addElement(start, i);
+                start = i + 1;
+            }
+        }
+        addElement(start, to);
+    }
+
+    private void addElement(int from, int to) {
+        if (from < to) {
+            elements.add(new Element(classify(from, to), from, to));
+        }
+    }
+
+    private ElementKind classify(int from, int to) {
+        int i = from;
+        Token first = statement.getTokens().get(i);
+        if (first.is("CONSTRAINT")) {
+            // CONSTRAINT [name] PRIMARY KEY / UNIQUE / FOREIGN KEY / CHECK
+            i++;
+            if (i < to && !isConstraintKeyword(statement.getTokens().get(i))) {
+                i++;
+            }
+            if (i >= to) {
+                return ElementKind.CHECK;
+            }
+            first = statement.getTokens().get(i);
+        }
+        if (first.is("PRIMARY")) {
+            return ElementKind.PRIMARY_KEY;
+        }
+        if (first.is("UNIQUE")) {
+            return ElementKind.UNIQUE;
+        }
+        if (first.is("FOREIGN")) {
+            return ElementKind.FOREIGN_KEY;
+        }
+        if (first.is("CHECK")) {
+            return ElementKind.CHECK;
+        }
+        if (first.is("KEY") || first.is("INDEX")) {
+            return ElementKind.INDEX;
+        }
+        if (first.is("FULLTEXT") || first.is("SPATIAL")) {
+            return ElementKind.FULLTEXT;
+        }
+        return ElementKind.COLUMN;
+    }
+
+    private static boolean isConstraintKeyword(Token token) {
+        return token.is("PRIMARY") || token.is("UNIQUE") || token.is("FOREIGN") || token.is("CHECK");
+    }
+
+    public Statement getStatement() {
+        return statement;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * スキーマ名付きのテーブル名
+     */
+    public String getFullTableName() {
+        return schemaName != null ? schemaName + "." + tableName : tableName;
+    }
+
+    public List<Element> getElements() {
+        return Collections.unmodifiableList(elements);
+    }
+
+    /**
+     * テーブルオプション（ENGINE、PARTITION BY等）のトークン
+     */
+    public List<Token> getOptionTokens() {
+        List<Token> tokens = statement.getTokens();
+        return tokens.subList(Math.min(optionsStart, tokens.size()), tokens.size());
+    }
+
+    public int getOptionsStart() {
+        return optionsStart;
+    }
+
+    /**
+     * 括弧内の1要素（カラム定義または制約）
+     */
+    public class Element {
+        private final ElementKind kind;
+        private final int from;
+        private final int to;
+
+        Element(ElementKind kind, int from, int to) {
+            this.kind = kind;
+            this.from = from;
+            this.to = to;
+        }
+
+        public ElementKind getKind() {
+            return kind;
+        }
+
+        public List<Token> getTokens() {
+            return statement.getTokens().subList(from, to);
+        }
+
+        /**
+         * 要素内の位置範囲（0始まり、toOffsetは含まない）の元のテキスト
+         */
+        public String getSource(int fromOffset, int toOffset) {
+            return statement.getSource(from + fromOffset, from + toOffset);
+        }
+
+        /**
+         * 要素内の開き括弧に対応する閉じ括弧の位置（要素内の位置、見つからない場合は-1）
+         */
+        public int findClosingParen(int openOffset) {
+            int close = statement.findClosingParen(from + openOffset);
+            return close >= 0 && close < to ? close - from : -1;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ":" + statement.getSource(from, to);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.tablecraft.app.admin.service;
+
+import com.tablecraft.app.service.QueryWorkloadRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 業務画面のクエリ実績からインデックスを提案するサービス
+ * 絞り込みカラム + ソートカラムを候補とし、EXPLAINでフルスキャン・filesortになっている形について
+ * 「合計実行時間 × (1 - 取得件数 / 走査件数)」を削減見込みとして大きい順に並べる
+ */
+@Service
+public class IndexAdvisorService {
+
+    // 提案から作成したインデックスの接頭辞（設定から自動作成するtc_*とは別管理で、自動削除しない）
+    public static final String ADVISOR_INDEX_PREFIX = "adv_";
+
+    private static final Set<String> NON_INDEXABLE_TYPES = new HashSet<>(Arrays.asList(
+            "tinytext", "text", "mediumtext", "longtext", "tinyblob", "blob", "mediumblob", "longblob", "json",
+            "geometry", "point", "linestring", "polygon", "multipoint", "multilinestring", "multipolygon",
+            "geometrycollection"));
+
+    @Value("${tablecraft.workload.advisor.min-executions:10}")
+    private long minExecutions;
+
+    @Autowired
+    private QueryWorkloadRecorder workloadRecorder;
+
+    @Autowired
+    private SchemaIntrospectionService schemaIntrospectionService;
+
+    @Autowired
+    private SchemaManagementService schemaManagementService;
+
+    /**
+     * インデックス提案レポート（削減見込み時間の大きい順）
+     */
+    public Map<String, Object> buildReport() {
+        List<QueryWorkloadRecorder.QueryShape> shapes = workloadRecorder.getShapes();
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(shapes.stream()
+                .map(QueryWorkloadRecorder.QueryShape::getTableName)
+                .distinct()
+                .collect(Collectors.toList()));
+
+        List<Suggestion> suggestions = mergePrefixes(collectSuggestions(shapes, catalog));
+        suggestions.sort(Comparator.comparingDouble((Suggestion suggestion) -> suggestion.estimatedSavingNanos).reversed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", workloadRecorder.isEnabled());
+        report.put("shapeCount", shapes.size());
+        report.put("suggestions", suggestions.stream().map(Suggestion::toMap).collect(Collectors.toList()));
+        report.put("shapes", shapes.stream().limit(50).map(this::toShapeMap).collect(Collectors.toList()));
+        return report;
+    }
+
+    /**
+     * 指定した提案のインデックスを作成（テーブルごとに1回のALTERで実行）
+     */
+    public Map<String, Object> applySuggestions(Collection<String> suggestionIds) {
+        List<QueryWorkloadRecorder.QueryShape> shapes = workloadRecorder.getShapes();
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(shapes.stream()
+                .map(QueryWorkloadRecorder.QueryShape::getTableName)
+                .distinct()
+                .collect(Collectors.toList()));
+
+        Map<String, List<OnlineSchemaMigrationService.IndexSpec>> indexesByTable = new LinkedHashMap<>();
+        Set<String> found = new HashSet<>();
+        for (Suggestion suggestion : mergePrefixes(collectSuggestions(shapes, catalog))) {
+            if (suggestionIds.contains(suggestion.getId())) {
+                indexesByTable.computeIfAbsent(suggestion.tableName, t -> new ArrayList<>()).add(suggestion.toIndexSpec());
+                found.add(suggestion.getId());
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, List<OnlineSchemaMigrationService.IndexSpec>> entry : indexesByTable.entrySet()) {
+            results.add(schemaManagementService.applyIndexes(entry.getKey(), entry.getValue()));
+        }
+
+        List<String> notFound = suggestionIds.stream()
+                .filter(id -> !found.contains(id))
+                .collect(Collectors.toList());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", results.stream().allMatch(r -> Boolean.TRUE.equals(r.get("success"))));
+        result.put("applied", new ArrayList<>(found));
+        result.put("notFound", notFound);
+        result.put("results", results);
+        return result;
+    }
+
+    /**
+     * 記録したクエリ実績をクリア
+     */
+    public void resetWorkload() {
+        workloadRecorder.reset();
+    }
+
+    private List<Suggestion> collectSuggestions(List<QueryWorkloadRecorder.QueryShape> shapes, SchemaCatalog catalog) {
+        Map<String, Suggestion> suggestions = new LinkedHashMap<>();
+
+        for (QueryWorkloadRecorder.QueryShape shape : shapes) {
+            if (shape.getCount() < minExecutions || !catalog.hasTable(shape.getTableName())) {
+                continue;
+            }
+
+            List<String> columns = getCandidateColumns(shape, catalog);
+            if (columns.isEmpty() || isCovered(columns, catalog.getIndexes(shape.getTableName()).values())) {
+                continue;
+            }
+
+            // EXPLAINでインデックスを使えている形は対象外
+            boolean fullScan = false;
+            boolean filesort = false;
+            long examinedRows = 0;
+            if (shape.getExplain() != null) {
+                for (Map<String, Object> row : shape.getExplain()) {
+                    fullScan |= "ALL".equalsIgnoreCase(String.valueOf(row.get("type")));
+                    filesort |= String.valueOf(row.get("Extra")).contains("filesort");
+                    if (row.get("rows") instanceof Number) {
+                        examinedRows = Math.max(examinedRows, ((Number) row.get("rows")).longValue());
+                    }
+                }
+                if (!fullScan && !filesort) {
+                    continue;
+                }
+            }
+            if (examinedRows == 0) {
+                Object tableRows = catalog.getTable(shape.getTableName()).get("TABLE_ROWS");
+                examinedRows = tableRows instanceof Number ? ((Number) tableRows).longValue() : 0;
+            }
+
+            double expectedRows = Math.max(1, shape.getAverageRows());
+            double savingRatio = examinedRows > expectedRows ? 1 - expectedRows / examinedRows : 0;
+            if (savingRatio <= 0) {
+                continue;
+            }
+
+            Suggestion suggestion = suggestions.computeIfAbsent(shape.getTableName() + ":" + String.join(",", columns),
+                    id -> new Suggestion(shape.getTableName(), columns));
+            suggestion.executions += shape.getCount();
+            suggestion.totalNanos += shape.getTotalNanos();
+            suggestion.estimatedSavingNanos += shape.getTotalNanos() * savingRatio;
+            suggestion.examinedRows = Math.max(suggestion.examinedRows, examinedRows);
+            suggestion.fullScan |= fullScan;
+            suggestion.filesort |= filesort;
+            suggestion.explained |= shape.getExplain() != null;
+            suggestion.shapes.add(toShapeMap(shape));
+        }
+        return new ArrayList<>(suggestions.values());
+    }
+
+    /**
+     * 絞り込みカラム（等価条件）→ ソートカラムの順で候補を作る
+     * ソートの向きが途中で変わる場合はそこまで、インデックス化できない型を含む場合は候補なし
+     */
+    private List<String> getCandidateColumns(QueryWorkloadRecorder.QueryShape shape, SchemaCatalog catalog) {
+        Map<String, Map<String, Object>> tableColumns = catalog.getColumns(shape.getTableName());
+        List<String> columns = new ArrayList<>();
+
+        for (String column : shape.getFilterColumns()) {
+            if (!addColumn(columns, column, tableColumns)) {
+                return Collections.emptyList();
+            }
+        }
+
+        Boolean descending = null;
+        for (String sortColumn : shape.getSortColumns()) {
+            boolean desc = sortColumn.toUpperCase().endsWith(" DESC");
+            if (descending != null && descending != desc) {
+                break;
+            }
+            descending = desc;
+            String column = desc ? sortColumn.substring(0, sortColumn.length() - 5).trim() : sortColumn.trim();
+            if (!addColumn(columns, column, tableColumns)) {
+                break;
+            }
+        }
+        return columns;
+    }
+
+    private boolean addColumn(List<String> columns, String column, Map<String, Map<String, Object>> tableColumns) {
+        Map<String, Object> info = tableColumns.get(column.toLowerCase());
+        if (info == null || NON_INDEXABLE_TYPES.contains(
+                String.valueOf(info.get("COLUMN_TYPE")).toLowerCase().replaceAll("[(\\s].*$", ""))) {
+            return false;
+        }
+        if (columns.stream().noneMatch(column::equalsIgnoreCase)) {
+            columns.add((String) info.get("COLUMN_NAME"));
+        }
+        return true;
+    }
+
+    /**
+     * 候補のカラムを先頭に持つインデックスが既にあるか
+     */
+    private boolean isCovered(List<String> columns, Collection<SchemaCatalog.IndexInfo> indexes) {
+        for (SchemaCatalog.IndexInfo index : indexes) {
+            if (startsWithIgnoreCase(index.getColumns(), columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 他の候補の先頭部分に含まれる候補はその候補にまとめる（1つのインデックスで両方の形に使える）
+     */
+    private List<Suggestion> mergePrefixes(List<Suggestion> suggestions) {
+        suggestions.sort(Comparator.comparingInt((Suggestion suggestion) -> suggestion.columns.size()).reversed());
+        List<Suggestion> merged = new ArrayList<>();
+        for (Suggestion suggestion : suggestions) {
+            Suggestion target = merged.stream()
+                    .filter(kept -> kept.tableName.equals(suggestion.tableName)
+                            && startsWithIgnoreCase(kept.columns, suggestion.columns))
+                    .findFirst()
+                    .orElse(null);
+            if (target == null) {
+                merged.add(suggestion);
+                continue;
+            }
+            target.executions += suggestion.executions;
+            target.totalNanos += suggestion.totalNanos;
+            target.estimatedSavingNanos += suggestion.estimatedSavingNanos;
+            target.examinedRows = Math.max(target.examinedRows, suggestion.examinedRows);
+            target.fullScan |= suggestion.fullScan;
+            target.filesort |= suggestion.filesort;
+            target.shapes.addAll(suggestion.shapes);
+        }
+        return merged;
+    }
+
+    private boolean startsWithIgnoreCase(List<String> columns, List<String> prefix) {
+        if (prefix.size() > columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<String, Object> toShapeMap(QueryWorkloadRecorder.QueryShape shape) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tableName", shape.getTableName());
+        map.put("filterColumns", shape.getFilterColumns());
+        map.put("sortColumns", shape.getSortColumns());
+        map.put("executions", shape.getCount());
+        map.put("totalTimeMs", shape.getTotalNanos() / 1_000_000.0);
+        map.put("avgTimeMs", shape.getCount() > 0 ? shape.getTotalNanos() / 1_000_000.0 / shape.getCount() : 0);
+        map.put("maxTimeMs", shape.getMaxNanos() / 1_000_000.0);
+        map.put("avgRows", shape.getAverageRows());
+        map.put("sampleSql", shape.getSampleSql());
+        map.put("explain", shape.getExplain());
+        return map;
+    }
+
+    /**
+     * インデックスの提案
+     */
+    private static class Suggestion {
+        private final String tableName;
+        private final List<String> columns;
+        private final List<Map<String, Object>> shapes = new ArrayList<>();
+        private long executions;
+        private long totalNanos;
+        private double estimatedSavingNanos;
+        private long examinedRows;
+        private boolean fullScan;
+        private boolean filesort;
+        private boolean explained;
+
+        Suggestion(String tableName, List<String> columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        String getId() {
+            return tableName + ":" + String.join(",", columns);
+        }
+
+        OnlineSchemaMigrationService.IndexSpec toIndexSpec() {
+            return new OnlineSchemaMigrationService.IndexSpec(
+                    ADVISOR_INDEX_PREFIX + String.join("_", columns), columns, false);
+        }
+
+        Map<String, Object> toMap() {
+            OnlineSchemaMigrationService.IndexSpec index = toIndexSpec();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", getId());
+            map.put("tableName", tableName);
+            map.put("columns", columns);
+            map.put("indexName", index.getName());
+            map.put("ddl", "ALTER TABLE `" + tableName + "` ADD " + index.toDefinitionSql()
+                    + ", ALGORITHM=INPLACE, LOCK=NONE");
+            map.put("executions", executions);
+            map.put("totalTimeMs", totalNanos / 1_000_000.0);
+            map.put("estimatedSavingMs", estimatedSavingNanos / 1_000_000.0);
+            map.put("examinedRows", examinedRows);
+            map.put("fullScan", fullScan);
+            map.put("filesort", filesort);
+            map.put("explained", explained);
+            map.put("shapes", shapes);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,1076 @@
+package com.tablecraft.app.admin.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * オンラインスキーマ変更サービス
+ * 既存テーブルのデータを保持したまま、可能な限りロックせずにカラム構造を変更する
+ *
+ * 1. ALGORITHM=INSTANT（メタデータのみの変更）
+ * 2. ALGORITHM=INPLACE, LOCK=NONE（書き込みを止めずに再構築）
+ * 3. シャドウテーブルへの主キー範囲ごとのコピー（トリガーで差分を反映し、RENAMEで切り替え）
+ */
+@Service
+public class OnlineSchemaMigrationService {
+
+    public enum Algorithm {
+        INSTANT, INPLACE, COPY
+    }
+
+    // 設定から自動作成するインデックスの接頭辞（この接頭辞のインデックスのみ自動で削除する）
+    public static final String MANAGED_INDEX_PREFIX = "tc_";
+
+    // MySQLが指定のALGORITHM/LOCKに対応していない場合のエラーコード
+    private static final Set<Integer> UNSUPPORTED_ALGORITHM_ERRORS = new HashSet<>(Arrays.asList(1845, 1846, 1235));
+    private static final int ER_PARSE_ERROR = 1064;
+    // コピー時に無視する警告（非推奨の構文、ステートメントベースのバイナリログで安全でない文）
+    private static final Set<Integer> IGNORABLE_COPY_WARNINGS = new HashSet<>(Arrays.asList(1287, 1592));
+
+    private static final Pattern INTEGER_DISPLAY_WIDTH = Pattern.compile(
+            "^(tinyint|smallint|mediumint|int|bigint)\\(\\d+\\)(.*)$");
+    private static final Pattern NON_INDEXABLE_TYPE = Pattern.compile(
+            "^((tiny|medium|long)?(text|blob)|json|geometry|geometrycollection|point|linestring|polygon|multi\\w+)\\b.*");
+    // utf8mb4で1カラムのインデックスに収まる最大文字数（3072バイト / 4）
+    private static final int MAX_INDEXABLE_VARCHAR = 768;
+    private static final Pattern VARCHAR_TYPE = Pattern.compile("^(var)?char\\((\\d+)\\)$");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchemaIntrospectionService schemaIntrospectionService;
+
+    @Value("${tablecraft.schema.online.chunk-size:1000}")
+    private int initialChunkSize;
+
+    @Value("${tablecraft.schema.online.max-chunk-size:20000}")
+    private int maxChunkSize;
+
+    @Value("${tablecraft.schema.online.chunk-time-ms:500}")
+    private long targetChunkTimeMs;
+
+    @Value("${tablecraft.schema.online.throttle-ms:50}")
+    private long throttleMs;
+
+    @Value("${tablecraft.schema.online.max-threads-running:25}")
+    private int maxThreadsRunning;
+
+    @Value("${tablecraft.schema.online.keep-old-table:false}")
+    private boolean keepOldTable;
+
+    private final Map<String, MigrationProgress> migrations = new ConcurrentHashMap<>();
+
+    /**
+     * 既存テーブルを目標のカラム定義に変更
+     * 呼び出し元のトランザクションは中断し、各DDL・コピーは個別にコミットする
+     *
+     * @param tableName          テーブル名
+     * @param targetColumns      目標のカラム定義
+     * @param dropRemovedColumns 目標に含まれないカラムを削除するか
+     * @return 実行結果（algorithm, statements, rowsCopied 等）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> migrate(String tableName, List<ColumnSpec> targetColumns, boolean dropRemovedColumns) {
+        return migrate(tableName, targetColumns, dropRemovedColumns, null);
+    }
+
+    /**
+     * 既存テーブルを目標のカラム定義に変更（取得済みのスキーマ情報を使用）
+     *
+     * @param catalog 対象テーブルを含むスキーマ情報（nullの場合はここで取得）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> migrate(String tableName, List<ColumnSpec> targetColumns, boolean dropRemovedColumns,
+            SchemaCatalog catalog) {
+        return migrate(tableName, targetColumns, null, dropRemovedColumns, catalog);
+    }
+
+    /**
+     * 既存テーブルを目標のカラム定義・セカンダリインデックスに変更
+     *
+     * @param targetIndexes 目標のセカンダリインデックス（nullの場合はインデックスを変更しない）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> migrate(String tableName, List<ColumnSpec> targetColumns, List<IndexSpec> targetIndexes,
+            boolean dropRemovedColumns, SchemaCatalog catalog) {
+        return migrate(tableName, targetColumns, targetIndexes, null, dropRemovedColumns, catalog);
+    }
+
+    /**
+     * 既存テーブルを目標のカラム定義・セカンダリインデックス・パーティションに変更
+     *
+     * @param partitionClause パーティション句（パーティションのないテーブルにのみ適用、nullの場合は変更しない）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> migrate(String tableName, List<ColumnSpec> targetColumns, List<IndexSpec> targetIndexes,
+            String partitionClause, boolean dropRemovedColumns, SchemaCatalog catalog) {
+        return run(tableName, () -> plan(tableName, targetColumns, targetIndexes, partitionClause,
+                dropRemovedColumns, catalog));
+    }
+
+    /**
+     * 既存テーブルにセカンダリインデックスを追加（カラムや他のインデックスは変更しない）
+     * 同じカラム構成のインデックスが既にある場合は追加しない
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> addIndexes(String tableName, List<IndexSpec> indexes, SchemaCatalog catalog) {
+        return run(tableName, () -> {
+            SchemaCatalog current = catalog != null ? catalog : schemaIntrospectionService.loadCatalog(tableName);
+            if (!current.hasTable(tableName)) {
+                throw new IllegalArgumentException("テーブルが存在しません: " + tableName);
+            }
+            MigrationPlan plan = new MigrationPlan(tableName);
+            Map<String, SchemaCatalog.IndexInfo> currentIndexes = current.getIndexes(tableName);
+            for (IndexSpec index : indexes) {
+                Change change = diffIndex(index, currentIndexes);
+                if (change != null) {
+                    plan.add(change);
+                }
+            }
+            SchemaCatalog.IndexInfo primaryIndex = currentIndexes.get("PRIMARY");
+            plan.existingColumns = new ArrayList<>(current.getColumns(tableName).keySet());
+            plan.primaryKey = primaryIndex != null ? primaryIndex.getColumns() : new ArrayList<>();
+            return plan;
+        });
+    }
+
+    /**
+     * 変更計画を作成して実行（同じテーブルへの同時実行は不可）
+     */
+    private Map<String, Object> run(String tableName, Supplier<MigrationPlan> planner) {
+        MigrationProgress progress = new MigrationProgress(tableName);
+        migrations.compute(tableName, (name, running) -> {
+            if (running != null && !running.isFinished()) {
+                throw new IllegalStateException("スキーマ変更を実行中です: " + name);
+            }
+            return progress;
+        });
+
+        try {
+            MigrationPlan plan = planner.get();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tableName", tableName);
+            result.put("changes", plan.getChanges().size());
+
+            if (plan.getChanges().isEmpty()) {
+                progress.finish("completed", "変更なし");
+                result.put("algorithm", null);
+                result.put("statements", Collections.emptyList());
+                return result;
+            }
+
+            System.out.println("[OnlineSchemaMigrationService] スキーマ変更開始: " + tableName
+                    + " (" + plan.getChanges().size() + " 件, 想定: " + plan.getAlgorithm() + ")");
+
+            List<String> executed = new ArrayList<>();
+            Algorithm used = execute(plan, progress, executed);
+
+            progress.finish("completed", null);
+            result.put("algorithm", used.name());
+            result.put("statements", executed);
+            result.put("rowsCopied", progress.rowsCopied);
+            System.out.println("[OnlineSchemaMigrationService] ✅ スキーマ変更完了: " + tableName + " (" + used + ")");
+            return result;
+
+        } catch (RuntimeException e) {
+            progress.finish("failed", e.getMessage());
+            System.err.println("[OnlineSchemaMigrationService] ❌ スキーマ変更失敗: " + tableName + " (" + e.getMessage() + ")");
+            throw e;
+        }
+    }
+
+    /**
+     * 既存テーブルと目標のカラム定義の差分から変更計画を作成（DBは変更しない）
+     */
+    public MigrationPlan plan(String tableName, List<ColumnSpec> targetColumns, boolean dropRemovedColumns,
+            SchemaCatalog catalog) {
+        return plan(tableName, targetColumns, null, dropRemovedColumns, catalog);
+    }
+
+    /**
+     * 既存テーブルと目標のカラム定義・セカンダリインデックスの差分から変更計画を作成（DBは変更しない）
+     */
+    public MigrationPlan plan(String tableName, List<ColumnSpec> targetColumns, List<IndexSpec> targetIndexes,
+            boolean dropRemovedColumns, SchemaCatalog catalog) {
+        return plan(tableName, targetColumns, targetIndexes, null, dropRemovedColumns, catalog);
+    }
+
+    /**
+     * 既存テーブルと目標の定義の差分から変更計画を作成（パーティション句を含む、DBは変更しない）
+     */
+    public MigrationPlan plan(String tableName, List<ColumnSpec> targetColumns, List<IndexSpec> targetIndexes,
+            String partitionClause, boolean dropRemovedColumns, SchemaCatalog catalog) {
+        if (catalog == null) {
+            catalog = schemaIntrospectionService.loadCatalog(tableName);
+        }
+        Map<String, Map<String, Object>> existing = catalog.getColumns(tableName);
+        if (existing.isEmpty()) {
+            throw new IllegalArgumentException("テーブルが存在しません: " + tableName);
+        }
+
+        MigrationPlan plan = new MigrationPlan(tableName);
+        Map<String, ColumnSpec> targetByName = new LinkedHashMap<>();
+        for (ColumnSpec column : targetColumns) {
+            targetByName.put(column.getName().toLowerCase(), column);
+        }
+
+        // 1. 追加・変更
+        for (ColumnSpec column : targetColumns) {
+            Map<String, Object> current = existing.get(column.getName().toLowerCase());
+            if (current == null) {
+                Algorithm algorithm = column.isAutoIncrement() ? Algorithm.COPY : Algorithm.INSTANT;
+                plan.add(new Change("ADD COLUMN " + column.toDefinitionSql(), algorithm, column.getName(), "add"));
+                if ((!column.isNullable() || column.isPrimaryKey()) && column.getDefaultValue() == null
+                        && !column.isAutoIncrement()) {
+                    plan.notNullWithoutDefault.add(column.getName());
+                }
+                continue;
+            }
+
+            Change change = diffColumn(column, current);
+            if (change != null) {
+                plan.add(change);
+            }
+        }
+
+        // 2. 削除（指定時のみ）
+        if (dropRemovedColumns) {
+            for (Map<String, Object> current : existing.values()) {
+                String name = (String) current.get("COLUMN_NAME");
+                if (!targetByName.containsKey(name.toLowerCase())) {
+                    plan.add(new Change("DROP COLUMN " + quote(name), Algorithm.INSTANT, name, "drop"));
+                }
+            }
+        }
+
+        // 3. 主キーの変更
+        SchemaCatalog.IndexInfo primaryIndex = catalog.getIndexes(tableName).get("PRIMARY");
+        List<String> currentPk = primaryIndex != null ? primaryIndex.getColumns() : new ArrayList<>();
+        List<String> targetPk = targetColumns.stream()
+                .filter(ColumnSpec::isPrimaryKey)
+                .map(ColumnSpec::getName)
+                .collect(Collectors.toList());
+        if (!targetPk.isEmpty() && !equalsIgnoreCase(currentPk, targetPk)) {
+            String clause = (currentPk.isEmpty() ? "" : "DROP PRIMARY KEY, ")
+                    + "ADD PRIMARY KEY (" + targetPk.stream().map(this::quote).collect(Collectors.joining(", ")) + ")";
+            plan.add(new Change(clause, Algorithm.INPLACE, String.join(",", targetPk), "primary_key"));
+            plan.primaryKeyChanged = true;
+        }
+
+        // 4. セカンダリインデックス（指定時のみ、目標にないインデックスは自動作成したもののみ削除）
+        if (targetIndexes != null) {
+            Map<String, SchemaCatalog.IndexInfo> currentIndexes = catalog.getIndexes(tableName);
+            Set<String> targetNames = new HashSet<>();
+            for (IndexSpec index : targetIndexes) {
+                targetNames.add(index.getName().toLowerCase());
+                Change change = diffIndex(index, currentIndexes);
+                if (change != null) {
+                    plan.add(change);
+                }
+            }
+            for (SchemaCatalog.IndexInfo current : currentIndexes.values()) {
+                String name = current.getName();
+                if (name.toLowerCase().startsWith(MANAGED_INDEX_PREFIX) && !targetNames.contains(name.toLowerCase())) {
+                    plan.add(new Change("DROP INDEX " + quote(name), Algorithm.INPLACE, name, "drop_index"));
+                }
+            }
+        }
+
+        // 5. パーティション化（既存のパーティション構成は変更しない、追加・削除はローテーションで行う）
+        if (partitionClause != null && catalog.getPartitions(tableName).isEmpty()) {
+            plan.add(new Change(partitionClause, Algorithm.COPY, null, "partition"));
+        }
+
+        plan.existingColumns = new ArrayList<>(existing.keySet());
+        plan.primaryKey = currentPk;
+        return plan;
+    }
+
+    /**
+     * 変更を1回のALTER TABLEにまとめたSQL（方式指定付き）
+     */
+    public String toAlterSql(String tableName, Collection<Change> changes, Algorithm algorithm) {
+        return "ALTER TABLE " + quote(tableName) + " " + joinClauses(changes, toAlgorithmOptions(algorithm));
+    }
+
+    /**
+     * ALTER TABLEの句をまとめる
+     * パーティション句はカンマ区切りの変更の後に置く必要があるため最後に連結する
+     */
+    private String joinClauses(Collection<Change> changes, List<String> algorithmOptions) {
+        List<String> options = new ArrayList<>();
+        String partitionClause = null;
+        for (Change change : changes) {
+            if ("partition".equals(change.getType())) {
+                partitionClause = change.getClause();
+            } else {
+                options.add(change.getClause());
+            }
+        }
+        options.addAll(algorithmOptions);
+        String sql = String.join(", ", options);
+        if (partitionClause != null) {
+            sql = sql.isEmpty() ? partitionClause : sql + " " + partitionClause;
+        }
+        return sql;
+    }
+
+    private List<String> toAlgorithmOptions(Algorithm algorithm) {
+        switch (algorithm) {
+            case INSTANT:
+                return Collections.singletonList("ALGORITHM=INSTANT");
+            case INPLACE:
+                return Arrays.asList("ALGORITHM=INPLACE", "LOCK=NONE");
+            default:
+                return Collections.singletonList("ALGORITHM=COPY");
+        }
+    }
+
+    /**
+     * 実行中・直近のスキーマ変更の進捗を取得
+     */
+    public List<Map<String, Object>> getProgress() {
+        return migrations.values().stream()
+                .map(MigrationProgress::toMap)
+                .collect(Collectors.toList());
+    }
+
+    private Algorithm execute(MigrationPlan plan, MigrationProgress progress, List<String> executed) {
+        String tableName = plan.getTableName();
+        String clauses = joinClauses(plan.getChanges(), Collections.emptyList());
+
+        // INSTANT → INPLACE の順に試し、MySQLが対応していない場合のみ次の方式へ
+        if (plan.getAlgorithm() != Algorithm.COPY) {
+            for (Algorithm algorithm : Arrays.asList(Algorithm.INSTANT, Algorithm.INPLACE)) {
+                if (algorithm.ordinal() < plan.getAlgorithm().ordinal()) {
+                    continue;
+                }
+                String sql = toAlterSql(tableName, plan.getChanges(), algorithm);
+                progress.update("altering", algorithm.name());
+                try {
+                    jdbcTemplate.execute(sql);
+                    executed.add(sql);
+                    return algorithm;
+                } catch (DataAccessException e) {
+                    if (!isUnsupportedAlgorithm(e, algorithm)) {
+                        throw e;
+                    }
+                    System.out.println("[OnlineSchemaMigrationService] " + algorithm + " 非対応のため次の方式を試行: "
+                            + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        // シャドウテーブル方式は主キーが必要、かつ外部キーのないテーブルのみ（RENAMEで参照が外れるため）
+        String unsupportedReason = getShadowCopyUnsupportedReason(plan);
+        if (unsupportedReason != null) {
+            System.out.println("[OnlineSchemaMigrationService] ⚠️ シャドウコピー不可のためALGORITHM=COPYで実行: "
+                    + unsupportedReason);
+            String sql = toAlterSql(tableName, plan.getChanges(), Algorithm.COPY);
+            progress.update("altering", Algorithm.COPY.name());
+            jdbcTemplate.execute(sql);
+            executed.add(sql);
+            return Algorithm.COPY;
+        }
+
+        copyViaShadowTable(plan, clauses, progress, executed);
+        return Algorithm.COPY;
+    }
+
+    /**
+     * シャドウテーブルを作成し、主キー範囲ごとにコピーしてから切り替える
+     * コピー中の更新はトリガーでシャドウテーブルに反映する
+     */
+    private void copyViaShadowTable(MigrationPlan plan, String clauses, MigrationProgress progress,
+            List<String> executed) {
+        String tableName = plan.getTableName();
+        String base = tableName.length() > 50 ? tableName.substring(0, 50) : tableName;
+        String shadowTable = "_" + base + "_new";
+        String oldTable = "_" + base + "_old";
+        List<String> triggers = Arrays.asList("tc_" + base + "_ins", "tc_" + base + "_upd", "tc_" + base + "_del");
+
+        // 旧テーブルと新テーブルの両方に存在するカラムのみコピー
+        Set<String> dropped = plan.getChanges().stream()
+                .filter(c -> "drop".equals(c.getType()))
+                .map(c -> c.getColumn().toLowerCase())
+                .collect(Collectors.toSet());
+        List<String> copyColumns = plan.existingColumns.stream()
+                .filter(col -> !dropped.contains(col))
+                .collect(Collectors.toList());
+        List<String> pk = plan.primaryKey;
+
+        String columnList = copyColumns.stream().map(this::quote).collect(Collectors.joining(", "));
+        String newValues = copyColumns.stream().map(c -> "NEW." + quote(c)).collect(Collectors.joining(", "));
+        String matchOld = pk.stream().map(c -> quote(shadowTable) + "." + quote(c) + " <=> OLD." + quote(c))
+                .collect(Collectors.joining(" AND "));
+        String pkUnchanged = pk.stream().map(c -> "OLD." + quote(c) + " <=> NEW." + quote(c))
+                .collect(Collectors.joining(" AND "));
+
+        List<String> setup = Arrays.asList(
+                "DROP TABLE IF EXISTS " + quote(shadowTable),
+                "CREATE TABLE " + quote(shadowTable) + " LIKE " + quote(tableName),
+                "ALTER TABLE " + quote(shadowTable) + " " + clauses,
+                "CREATE TRIGGER " + quote(triggers.get(0)) + " AFTER INSERT ON " + quote(tableName)
+                        + " FOR EACH ROW REPLACE INTO " + quote(shadowTable) + " (" + columnList + ") VALUES (" + newValues + ")",
+                "CREATE TRIGGER " + quote(triggers.get(1)) + " AFTER UPDATE ON " + quote(tableName)
+                        + " FOR EACH ROW BEGIN DELETE IGNORE FROM " + quote(shadowTable)
+                        + " WHERE NOT (" + pkUnchanged + ") AND " + matchOld + "; REPLACE INTO " + quote(shadowTable)
+                        + " (" + columnList + ") VALUES (" + newValues + "); END",
+                "CREATE TRIGGER " + quote(triggers.get(2)) + " AFTER DELETE ON " + quote(tableName)
+                        + " FOR EACH ROW DELETE IGNORE FROM " + quote(shadowTable) + " WHERE " + matchOld);
+
+        boolean cutOver = false;
+        try {
+            progress.update("preparing", Algorithm.COPY.name());
+            for (String sql : setup) {
+                jdbcTemplate.execute(sql);
+                executed.add(sql);
+            }
+
+            progress.rowsTotal = estimateRowCount(tableName);
+            progress.update("copying", Algorithm.COPY.name());
+            copyChunks(tableName, shadowTable, columnList, pk, progress);
+
+            // 切り替え（RENAMEは複数テーブルをアトミックに入れ替える）
+            progress.update("cutover", Algorithm.COPY.name());
+            String rename = "RENAME TABLE " + quote(tableName) + " TO " + quote(oldTable) + ", "
+                    + quote(shadowTable) + " TO " + quote(tableName);
+            jdbcTemplate.execute(rename);
+            executed.add(rename);
+            cutOver = true;
+
+        } finally {
+            for (String trigger : triggers) {
+                executeQuietly("DROP TRIGGER IF EXISTS " + quote(trigger));
+            }
+            if (!cutOver) {
+                executeQuietly("DROP TABLE IF EXISTS " + quote(shadowTable));
+            } else if (!keepOldTable) {
+                executeQuietly("DROP TABLE IF EXISTS " + quote(oldTable));
+            }
+        }
+    }
+
+    /**
+     * 主キー順に一定件数ずつコピー（処理時間に応じてチャンクサイズを調整し、負荷が高い場合は待機）
+     */
+    private void copyChunks(String tableName, String shadowTable, String columnList, List<String> pk,
+            MigrationProgress progress) {
+        String pkList = pk.stream().map(this::quote).collect(Collectors.joining(", "));
+        String pkTuple = "(" + pkList + ")";
+        String placeholders = "(" + pk.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+        // IGNOREは型変換の切り捨て等も無視するため使わない。トリガーで反映済みの行（主キーの重複）のみ既存の行を残す
+        String insertPrefix = "INSERT INTO " + quote(shadowTable) + " (" + columnList + ") SELECT "
+                + columnList + " FROM " + quote(tableName);
+        String onDuplicate = " ON DUPLICATE KEY UPDATE " + quote(shadowTable) + "." + quote(pk.get(0)) + " = "
+                + quote(shadowTable) + "." + quote(pk.get(0));
+
+        int chunkSize = Math.max(1, initialChunkSize);
+        Object[] lowerBound = null;
+
+        while (true) {
+            throttle(progress);
+
+            String lowerCondition = lowerBound != null ? pkTuple + " > " + placeholders : null;
+            String boundSql = "SELECT " + pkList + " FROM " + quote(tableName)
+                    + (lowerCondition != null ? " WHERE " + lowerCondition : "")
+                    + " ORDER BY " + pkList + " LIMIT 1 OFFSET " + (chunkSize - 1);
+            List<Map<String, Object>> bound = lowerBound != null
+                    ? jdbcTemplate.queryForList(boundSql, lowerBound)
+                    : jdbcTemplate.queryForList(boundSql);
+
+            long start = System.currentTimeMillis();
+            int copied;
+            Object[] upperBound = null;
+            if (bound.isEmpty()) {
+                // 最終チャンク
+                String sql = insertPrefix + (lowerCondition != null ? " WHERE " + lowerCondition : "")
+                        + " LOCK IN SHARE MODE" + onDuplicate;
+                copied = copyChunk(sql, lowerBound != null ? lowerBound : new Object[0]);
+            } else {
+                upperBound = bound.get(0).values().toArray();
+                List<Object> params = new ArrayList<>();
+                StringBuilder where = new StringBuilder(" WHERE ");
+                if (lowerBound != null) {
+                    where.append(lowerCondition).append(" AND ");
+                    params.addAll(Arrays.asList(lowerBound));
+                }
+                where.append(pkTuple).append(" <= ").append(placeholders);
+                params.addAll(Arrays.asList(upperBound));
+                copied = copyChunk(insertPrefix + where + " LOCK IN SHARE MODE" + onDuplicate, params.toArray());
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            progress.rowsCopied += copied;
+            progress.chunkSize = chunkSize;
+            progress.chunks++;
+
+            if (upperBound == null) {
+                break;
+            }
+            lowerBound = upperBound;
+
+            // 目標時間に収まるようにチャンクサイズを調整
+            if (elapsed < targetChunkTimeMs / 2) {
+                chunkSize = Math.min(maxChunkSize, chunkSize * 2);
+            } else if (elapsed > targetChunkTimeMs * 2) {
+                chunkSize = Math.max(100, chunkSize / 2);
+            }
+        }
+
+        System.out.println("[OnlineSchemaMigrationService] コピー完了: " + tableName + " (" + progress.rowsCopied
+                + " 行, " + progress.chunks + " チャンク)");
+    }
+
+    /**
+     * 1チャンク分をコピーし、値の切り捨て・変換の警告があれば失敗とする（sql_modeが厳格でない場合に備える）
+     */
+    private int copyChunk(String sql, Object[] params) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                int copied = statement.executeUpdate();
+                for (SQLWarning warning = statement.getWarnings(); warning != null; warning = warning.getNextWarning()) {
+                    if (!IGNORABLE_COPY_WARNINGS.contains(warning.getErrorCode())) {
+                        throw new IllegalStateException("コピー中に値の変換で警告が発生したため中止しました: "
+                                + warning.getMessage() + " (" + warning.getErrorCode() + ")");
+                    }
+                }
+                return copied;
+            }
+        });
+    }
+
+    /**
+     * チャンク間の待機と、実行中スレッド数が多い場合の一時停止
+     */
+    private void throttle(MigrationProgress progress) {
+        try {
+            if (throttleMs > 0) {
+                Thread.sleep(throttleMs);
+            }
+            while (maxThreadsRunning > 0 && getThreadsRunning() > maxThreadsRunning) {
+                progress.update("throttled", Algorithm.COPY.name());
+                Thread.sleep(1000);
+            }
+            progress.update("copying", Algorithm.COPY.name());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("スキーマ変更が中断されました", e);
+        }
+    }
+
+    private int getThreadsRunning() {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("SHOW GLOBAL STATUS LIKE 'Threads_running'");
+            return rows.isEmpty() ? 0 : Integer.parseInt(String.valueOf(rows.get(0).get("Value")));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private long estimateRowCount(String tableName) {
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT TABLE_ROWS FROM information_schema.TABLES "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Long.class, tableName);
+            return rows != null ? rows : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private String getShadowCopyUnsupportedReason(MigrationPlan plan) {
+        if (plan.primaryKey.isEmpty()) {
+            return "主キーがありません";
+        }
+        if (plan.primaryKeyChanged) {
+            return "主キーを変更します";
+        }
+        // トリガーはカラムを指定せずに挿入するため、厳格モードでは業務画面からの書き込みが失敗する
+        if (!plan.notNullWithoutDefault.isEmpty()) {
+            return "デフォルト値のないNOT NULLカラムを追加します: " + plan.notNullWithoutDefault;
+        }
+        Integer foreignKeys = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.KEY_COLUMN_USAGE "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND REFERENCED_TABLE_NAME IS NOT NULL "
+                + "AND (TABLE_NAME = ? OR REFERENCED_TABLE_NAME = ?)", Integer.class,
+                plan.getTableName(), plan.getTableName());
+        if (foreignKeys != null && foreignKeys > 0) {
+            return "外部キーが設定されています";
+        }
+        return null;
+    }
+
+    /**
+     * 既存カラムと目標定義を比較し、必要な変更を返す（変更なしの場合はnull）
+     */
+    private Change diffColumn(ColumnSpec target, Map<String, Object> current) {
+        String name = target.getName();
+        String currentType = normalizeType((String) current.get("COLUMN_TYPE"));
+        String targetType = normalizeType(target.getType());
+        boolean currentNullable = "YES".equalsIgnoreCase((String) current.get("IS_NULLABLE"));
+        boolean currentAutoIncrement = String.valueOf(current.get("EXTRA")).toLowerCase().contains("auto_increment");
+        Object currentDefault = current.get("COLUMN_DEFAULT");
+        String currentComment = (String) current.get("COLUMN_COMMENT");
+
+        boolean typeChanged = !currentType.equals(targetType);
+        boolean nullableChanged = currentNullable != target.isNullable() && !target.isPrimaryKey();
+        boolean autoIncrementChanged = currentAutoIncrement != target.isAutoIncrement();
+        boolean defaultChanged = !target.isAutoIncrement()
+                && !Objects.equals(currentDefault != null ? currentDefault.toString() : null, target.getDefaultValue());
+        boolean commentChanged = target.getComment() != null && !target.getComment().equals(currentComment);
+
+        if (!typeChanged && !nullableChanged && !autoIncrementChanged && !defaultChanged && !commentChanged) {
+            return null;
+        }
+
+        // デフォルト値のみの変更はメタデータのみで完了する
+        if (!typeChanged && !nullableChanged && !autoIncrementChanged && !commentChanged) {
+            String clause = target.getDefaultValue() != null
+                    ? "ALTER COLUMN " + quote(name) + " SET DEFAULT " + target.toDefaultSql()
+                    : "ALTER COLUMN " + quote(name) + " DROP DEFAULT";
+            return new Change(clause, Algorithm.INSTANT, name, "default");
+        }
+
+        Algorithm algorithm;
+        if (autoIncrementChanged) {
+            algorithm = Algorithm.COPY;
+        } else if (typeChanged) {
+            algorithm = isVarcharWidening(currentType, targetType) ? Algorithm.INPLACE : Algorithm.COPY;
+        } else {
+            algorithm = Algorithm.INPLACE;
+        }
+        return new Change("MODIFY COLUMN " + target.toDefinitionSql(), algorithm, name, "modify");
+    }
+
+    /**
+     * 既存インデックスと目標を比較し、必要な変更を返す（変更なしの場合はnull）
+     * 名前が異なっても同じカラム構成のインデックスがあれば追加しない
+     */
+    private Change diffIndex(IndexSpec target, Map<String, SchemaCatalog.IndexInfo> currentIndexes) {
+        SchemaCatalog.IndexInfo sameName = null;
+        boolean covered = false;
+        for (SchemaCatalog.IndexInfo current : currentIndexes.values()) {
+            if (current.getName().equalsIgnoreCase(target.getName())) {
+                sameName = current;
+            } else if (!current.getName().toLowerCase().startsWith(MANAGED_INDEX_PREFIX)
+                    && equalsIgnoreCase(current.getColumns(), target.getColumns())
+                    && (!target.isUnique() || !current.isNonUnique())) {
+                covered = true;
+            }
+        }
+
+        if (sameName != null) {
+            if (equalsIgnoreCase(sameName.getColumns(), target.getColumns()) && sameName.isNonUnique() != target.isUnique()) {
+                return null;
+            }
+            return new Change("DROP INDEX " + quote(sameName.getName()) + ", ADD " + target.toDefinitionSql(),
+                    Algorithm.INPLACE, target.getName(), "modify_index");
+        }
+        if (covered) {
+            return null;
+        }
+        // インデックスの追加・削除はテーブルを再構築せず、書き込みを止めずに実行できる
+        return new Change("ADD " + target.toDefinitionSql(), Algorithm.INPLACE, target.getName(), "add_index");
+    }
+
+    private boolean isVarcharWidening(String currentType, String targetType) {
+        Matcher current = VARCHAR_TYPE.matcher(currentType);
+        Matcher target = VARCHAR_TYPE.matcher(targetType);
+        return current.matches() && target.matches() && current.group(1) != null && target.group(1) != null
+                && Integer.parseInt(target.group(2)) >= Integer.parseInt(current.group(2));
+    }
+
+    /**
+     * 比較用に型を正規化（小文字化、整数型の表示幅の除去、別名の統一）
+     */
+    private String normalizeType(String type) {
+        if (type == null) {
+            return "";
+        }
+        String normalized = type.trim().toLowerCase().replaceAll("\\s+", " ").replaceAll("\\s*,\\s*", ",");
+        if (normalized.equals("integer")) {
+            return "int";
+        }
+        if (normalized.equals("bool") || normalized.equals("boolean")) {
+            return "tinyint(1)";
+        }
+        Matcher matcher = INTEGER_DISPLAY_WIDTH.matcher(normalized);
+        if (matcher.matches() && !normalized.startsWith("tinyint(1)")) {
+            return matcher.group(1) + matcher.group(2);
+        }
+        return normalized;
+    }
+
+    private boolean isUnsupportedAlgorithm(DataAccessException e, Algorithm algorithm) {
+        Throwable cause = e.getMostSpecificCause();
+        if (!(cause instanceof SQLException)) {
+            return false;
+        }
+        int code = ((SQLException) cause).getErrorCode();
+        // ALGORITHM=INSTANTを解釈できない古いMySQLでは構文エラーになる
+        return UNSUPPORTED_ALGORITHM_ERRORS.contains(code) || (algorithm == Algorithm.INSTANT && code == ER_PARSE_ERROR);
+    }
+
+    private void executeQuietly(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (Exception e) {
+            System.err.println("[OnlineSchemaMigrationService] ⚠️ 後処理に失敗: " + sql + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private boolean equalsIgnoreCase(List<String> a, List<String> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).equalsIgnoreCase(b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String quote(String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    /**
+     * カラム定義（SQLパーサーの解析結果・テーブルビルダーの入力の両方から作成）
+     */
+    public static class ColumnSpec {
+        private String name;
+        private String type;
+        private boolean nullable = true;
+        private boolean primaryKey = false;
+        private boolean autoIncrement = false;
+        private String defaultValue;
+        private String comment;
+
+        /**
+         * Mapから作成（primary/primaryKey、default/defaultValue、type + length のいずれの形式にも対応）
+         */
+        public static ColumnSpec fromMap(Map<String, Object> col) {
+            ColumnSpec spec = new ColumnSpec();
+            spec.name = (String) col.get("name");
+
+            String type = col.get("type") != null ? col.get("type").toString().trim() : "VARCHAR";
+            Object length = col.get("length");
+            if (length != null && !type.contains("(")) {
+                type = type + "(" + length + ")";
+            }
+            if (type.equalsIgnoreCase("VARCHAR")) {
+                type = "VARCHAR(255)";
+            }
+            spec.type = type;
+
+            spec.nullable = !Boolean.FALSE.equals(col.get("nullable"));
+            spec.primaryKey = Boolean.TRUE.equals(col.get("primaryKey")) || Boolean.TRUE.equals(col.get("primary"));
+            spec.autoIncrement = Boolean.TRUE.equals(col.get("autoIncrement"));
+            Object defaultValue = col.containsKey("defaultValue") ? col.get("defaultValue") : col.get("default");
+            spec.defaultValue = normalizeDefault(defaultValue);
+            Object comment = col.get("comment");
+            spec.comment = comment != null && !comment.toString().isEmpty() ? comment.toString() : null;
+            return spec;
+        }
+
+        /**
+         * プレフィックス長を指定せずにインデックスを作成できる型か
+         */
+        public boolean isIndexable() {
+            String normalized = type.trim().toLowerCase();
+            if (NON_INDEXABLE_TYPE.matcher(normalized).matches()) {
+                return false;
+            }
+            Matcher varchar = VARCHAR_TYPE.matcher(normalized);
+            return !varchar.matches() || Integer.parseInt(varchar.group(2)) <= MAX_INDEXABLE_VARCHAR;
+        }
+
+        /**
+         * デフォルト値を正規化（引用符の除去、DEFAULT以降の余分な句の除去）
+         */
+        private static String normalizeDefault(Object value) {
+            if (value == null) {
+                return null;
+            }
+            String text = value.toString().trim();
+            if (text.isEmpty() || text.equalsIgnoreCase("NULL")) {
+                return null;
+            }
+            if (text.startsWith("'")) {
+                int end = text.indexOf('\'', 1);
+                return end > 0 ? text.substring(1, end) : text.substring(1);
+            }
+            int space = text.indexOf(' ');
+            return space > 0 ? text.substring(0, space) : text;
+        }
+
+        /**
+         * カラム定義SQL（`name` TYPE NOT NULL AUTO_INCREMENT DEFAULT ... COMMENT '...'）
+         */
+        public String toDefinitionSql() {
+            StringBuilder sql = new StringBuilder();
+            sql.append("`").append(name.replace("`", "``")).append("` ").append(type);
+            sql.append(nullable && !primaryKey ? " NULL" : " NOT NULL");
+            if (autoIncrement) {
+                sql.append(" AUTO_INCREMENT");
+            } else if (defaultValue != null) {
+                sql.append(" DEFAULT ").append(toDefaultSql());
+            }
+            if (comment != null) {
+                sql.append(" COMMENT '").append(comment.replace("'", "''")).append("'");
+            }
+            return sql.toString();
+        }
+
+        String toDefaultSql() {
+            if (defaultValue.equalsIgnoreCase("CURRENT_TIMESTAMP") || defaultValue.matches("-?\\d+(\\.\\d+)?")) {
+                return defaultValue;
+            }
+            return "'" + defaultValue.replace("'", "''") + "'";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        public void setNullable(boolean nullable) {
+            this.nullable = nullable;
+        }
+
+        public boolean isPrimaryKey() {
+            return primaryKey;
+        }
+
+        public void setPrimaryKey(boolean primaryKey) {
+            this.primaryKey = primaryKey;
+        }
+
+        public boolean isAutoIncrement() {
+            return autoIncrement;
+        }
+
+        public void setAutoIncrement(boolean autoIncrement) {
+            this.autoIncrement = autoIncrement;
+        }
+
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        public void setDefaultValue(String defaultValue) {
+            this.defaultValue = normalizeDefault(defaultValue);
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment;
+        }
+    }
+
+    /**
+     * セカンダリインデックス定義（名前未指定の場合はカラム名から生成）
+     */
+    public static class IndexSpec {
+        private static final int MAX_NAME_LENGTH = 64;
+
+        private final String name;
+        private final List<String> columns;
+        private final boolean unique;
+
+        public IndexSpec(String name, List<String> columns, boolean unique) {
+            this.columns = new ArrayList<>(columns);
+            this.unique = unique;
+            String indexName = name != null && !name.isEmpty()
+                    ? name
+                    : (unique ? "uk_" : "idx_") + String.join("_", columns);
+            this.name = indexName.length() > MAX_NAME_LENGTH ? indexName.substring(0, MAX_NAME_LENGTH) : indexName;
+        }
+
+        public String toDefinitionSql() {
+            return (unique ? "UNIQUE KEY " : "KEY ") + quoteName(name) + " ("
+                    + columns.stream().map(IndexSpec::quoteName).collect(Collectors.joining(", ")) + ")";
+        }
+
+        private static String quoteName(String identifier) {
+            return "`" + identifier.replace("`", "``") + "`";
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+    }
+
+    /**
+     * 単一の変更（ALTER TABLEの句と想定される方式）
+     */
+    public static class Change {
+        private final String clause;
+        private final Algorithm algorithm;
+        private final String column;
+        private final String type;
+
+        public Change(String clause, Algorithm algorithm, String column, String type) {
+            this.clause = clause;
+            this.algorithm = algorithm;
+            this.column = column;
+            this.type = type;
+        }
+
+        public String getClause() {
+            return clause;
+        }
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+
+    /**
+     * テーブル単位の変更計画
+     */
+    public static class MigrationPlan {
+        private final String tableName;
+        private final List<Change> changes = new ArrayList<>();
+        private List<String> existingColumns = new ArrayList<>();
+        private List<String> primaryKey = new ArrayList<>();
+        private boolean primaryKeyChanged = false;
+        // 追加するNOT NULLカラムのうちデフォルト値のないもの（シャドウテーブル方式は使わない）
+        private final List<String> notNullWithoutDefault = new ArrayList<>();
+
+        MigrationPlan(String tableName) {
+            this.tableName = tableName;
+        }
+
+        void add(Change change) {
+            changes.add(change);
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * 全変更を1回のALTERで実行する場合に必要な方式（最も重いもの）
+         */
+        public Algorithm getAlgorithm() {
+            Algorithm result = Algorithm.INSTANT;
+            for (Change change : changes) {
+                if (change.getAlgorithm().ordinal() > result.ordinal()) {
+                    result = change.getAlgorithm();
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * スキーマ変更の進捗
+     */
+    private static class MigrationProgress {
+        private final String tableName;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String status = "pending";
+        private volatile String algorithm;
+        private volatile long rowsTotal;
+        private volatile long rowsCopied;
+        private volatile int chunkSize;
+        private volatile int chunks;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        MigrationProgress(String tableName) {
+            this.tableName = tableName;
+        }
+
+        void update(String status, String algorithm) {
+            this.status = status;
+            this.algorithm = algorithm;
+        }
+
+        void finish(String status, String message) {
+            this.status = status;
+            this.message = message;
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("tableName", tableName);
+            map.put("status", status);
+            map.put("algorithm", algorithm);
+            map.put("rowsTotal", rowsTotal);
+            map.put("rowsCopied", rowsCopied);
+            map.put("percent", rowsTotal > 0 ? Math.min(100, rowsCopied * 100 / rowsTotal) : null);
+            map.put("chunkSize", chunkSize);
+            map.put("chunks", chunks);
+            map.put("message", message);
+            map.put("startedAt", startedAt.toString());
+            map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            return map;
+        }
+    }
+}
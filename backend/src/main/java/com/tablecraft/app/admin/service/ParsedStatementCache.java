@@ -0,0 +1,154 @@
+package com.tablecraft.app.admin.service;
+
+import com.tablecraft.app.admin.entity.ParsedTableDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CREATE TABLE文ごとの解析結果のキャッシュ（文のハッシュ → テーブル定義、LRU）
+ * 同じダンプを再アップロードした場合、変更のあったテーブルの文だけを解析する
+ */
+@Component
+public class ParsedStatementCache {
+
+    @Value("${tablecraft.sql.parse.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tablecraft.sql.parse.cache.max-entries:20000}")
+    private int maxEntries;
+
+    private final Map<String, CachedDefinition> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedDefinition> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 文のハッシュ（トークン列から計算するため空白・コメントの違いは無視する）
+     * ダンプごとに変わるテーブルオプションの AUTO_INCREMENT=n は含めない
+     */
+    public static String hash(CreateTableStatement create) {
+        MessageDigest digest = newDigest();
+        List<SqlLexer.Token> tokens = create.getStatement().getTokens();
+        int optionsStart = create.getOptionsStart();
+        for (int i = 0; i < tokens.size(); i++) {
+            SqlLexer.Token token = tokens.get(i);
+            if (i >= optionsStart && token.is("AUTO_INCREMENT")) {
+                // AUTO_INCREMENT [=] n
+                if (i + 1 < tokens.size() && tokens.get(i + 1).isSymbol('=')) {
+                    i++;
+                }
+                i++;
+                continue;
+            }
+            String value = token.getType() == SqlLexer.TokenType.WORD ? token.getValue().toUpperCase() : token.getValue();
+            digest.update((byte) token.getType().ordinal());
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        byte[] bytes = digest.digest();
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * キャッシュ済みの解析結果から指定ファイル用のテーブル定義を作成（未キャッシュの場合はnull）
+     */
+    public ParsedTableDefinition get(String statementHash, Long sqlFileId) {
+        if (!enabled) {
+            return null;
+        }
+        CachedDefinition cached;
+        synchronized (entries) {
+            cached = entries.get(statementHash);
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.toDefinition(statementHash, sqlFileId);
+    }
+
+    public void put(String statementHash, ParsedTableDefinition definition) {
+        if (!enabled) {
+            return;
+        }
+        CachedDefinition cached = new CachedDefinition(definition);
+        synchronized (entries) {
+            entries.put(statementHash, cached);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * ファイルに依存しない解析結果（JSON文字列のまま保持する）
+     */
+    private static class CachedDefinition {
+        private final String schemaName;
+        private final String tableName;
+        private final String tableStructure;
+        private final String foreignKeys;
+        private final String indexes;
+
+        CachedDefinition(ParsedTableDefinition definition) {
+            this.schemaName = definition.getSchemaName();
+            this.tableName = definition.getTableName();
+            this.tableStructure = definition.getTableStructure();
+            this.foreignKeys = definition.getForeignKeys();
+            this.indexes = definition.getIndexes();
+        }
+
+        ParsedTableDefinition toDefinition(String statementHash, Long sqlFileId) {
+            ParsedTableDefinition definition = new ParsedTableDefinition();
+            definition.setSqlFileId(sqlFileId);
+            definition.setSchemaName(schemaName);
+            definition.setTableName(tableName);
+            definition.setTableStructure(tableStructure);
+            definition.setForeignKeys(foreignKeys);
+            definition.setIndexes(indexes);
+            definition.setStatementHash(statementHash);
+            definition.setReused(true);
+            return definition;
+        }
+    }
+}
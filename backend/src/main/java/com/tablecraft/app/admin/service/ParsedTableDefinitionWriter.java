@@ -0,0 +1,96 @@
+package com.tablecraft.app.admin.service;
+
+import com.tablecraft.app.admin.entity.ParsedTableDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 解析済みテーブル定義の一括保存
+ * IDENTITY採番のエンティティはHibernateではバッチINSERTにならないため、JDBCで複数行のINSERT文を発行する
+ * 1文の行数とパラメータの合計サイズ（max_allowed_packet対策）で分割する
+ */
+@Component
+public class ParsedTableDefinitionWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO parsed_table_definitions "
+            + "(sql_file_id, table_name, schema_name, table_structure, foreign_keys, indexes, statement_hash, created_at) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int COLUMN_COUNT = 8;
+
+    @Value("${tablecraft.sql.parse.insert.rows-per-statement:500}")
+    private int rowsPerStatement;
+
+    @Value("${tablecraft.sql.parse.insert.max-statement-bytes:4194304}")
+    private long maxStatementBytes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 複数行INSERTで保存（生成されたIDは設定しない）
+     *
+     * @return 発行したINSERT文の数
+     */
+    public int insertAll(List<ParsedTableDefinition> definitions) {
+        int statements = 0;
+        int from = 0;
+        while (from < definitions.size()) {
+            int to = from;
+            long bytes = 0;
+            while (to < definitions.size() && to - from < rowsPerStatement) {
+                long rowBytes = estimateBytes(definitions.get(to));
+                if (to > from && bytes + rowBytes > maxStatementBytes) {
+                    break;
+                }
+                bytes += rowBytes;
+                to++;
+            }
+            insertRows(definitions.subList(from, to));
+            statements++;
+            from = to;
+        }
+        return statements;
+    }
+
+    private void insertRows(List<ParsedTableDefinition> rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows.size() * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[rows.size() * COLUMN_COUNT];
+        int i = 0;
+        for (ParsedTableDefinition row : rows) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+            LocalDateTime createdAt = row.getCreatedAt() != null ? row.getCreatedAt() : LocalDateTime.now();
+            args[i++] = row.getSqlFileId();
+            args[i++] = row.getTableName();
+            args[i++] = row.getSchemaName();
+            args[i++] = row.getTableStructure();
+            args[i++] = row.getForeignKeys();
+            args[i++] = row.getIndexes();
+            args[i++] = row.getStatementHash();
+            args[i++] = Timestamp.valueOf(createdAt);
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * 1行分のパラメータのおおよそのサイズ（UTF-8で最大3バイト/文字として見積もる）
+     */
+    private static long estimateBytes(ParsedTableDefinition row) {
+        long chars = length(row.getTableName()) + length(row.getSchemaName()) + length(row.getTableStructure())
+                + length(row.getForeignKeys()) + length(row.getIndexes()) + length(row.getStatementHash());
+        return chars * 3 + 64;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
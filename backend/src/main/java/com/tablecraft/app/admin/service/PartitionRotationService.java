@@ -0,0 +1,257 @@
+package com.tablecraft.app.admin.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tablecraft.app.admin.entity.ParsedTableDefinition;
+import com.tablecraft.app.admin.repository.ParsedTableDefinitionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 日付RANGEパーティションのローテーション
+ * 先読み分の将来パーティションを追加し、保持期間を過ぎたパーティションをDROP PARTITIONで削除する（行単位のDELETEは行わない）
+ */
+@Service
+public class PartitionRotationService {
+
+    // 複数ノードで同時に実行しないためのMySQLのアドバイザリロック名（GET_LOCK / RELEASE_LOCK）
+    private static final String ROTATION_LOCK = "tablecraft.partition.rotation";
+
+    @Value("${tablecraft.partition.rotation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tablecraft.partition.rotation.premake:3}")
+    private int defaultPremake;
+
+    // 0の場合は削除しない（テーブル定義のretentionが優先）
+    @Value("${tablecraft.partition.rotation.retention:0}")
+    private int defaultRetention;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ParsedTableDefinitionRepository tableDefRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SchemaIntrospectionService schemaIntrospectionService;
+
+    /**
+     * 解析済みテーブル定義からパーティション定義を取得（未定義の場合はnull）
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionSpec getPartitionSpec(ParsedTableDefinition tableDef) {
+        if (tableDef.getTableStructure() == null || tableDef.getTableStructure().isEmpty()) {
+            return null;
+        }
+        try {
+            Map<String, Object> structure = objectMapper.readValue(
+                    tableDef.getTableStructure(),
+                    new TypeReference<Map<String, Object>>() {
+                    });
+            Object partition = structure.get("partition");
+            return partition instanceof Map ? PartitionSpec.fromMap((Map<String, Object>) partition) : null;
+        } catch (Exception e) {
+            System.err.println("[PartitionRotationService] ⚠️ パーティション定義の読み込みに失敗: "
+                    + tableDef.getTableName() + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * CREATE TABLE / ALTER TABLE に付けるパーティション句（今日を起点に先読み分を含める）
+     */
+    public String toPartitionClause(PartitionSpec spec) {
+        return spec.toClause(LocalDate.now(), defaultPremake);
+    }
+
+    @Scheduled(cron = "${tablecraft.partition.rotation.cron:0 15 0 * * *}")
+    public void scheduledRotate() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rotateAll();
+        } catch (RotationLockedException e) {
+            System.out.println("[PartitionRotationService] ⚠️ " + e.getMessage() + "（スキップ）");
+        } catch (Exception e) {
+            System.err.println("[PartitionRotationService] ❌ パーティションのローテーションに失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ローテーション対象の全テーブルについてパーティションを追加・削除
+     * 実行中はアドバイザリロックを保持し、他のノードで実行中の場合は RotationLockedException
+     */
+    public List<Map<String, Object>> rotateAll() {
+        // ロックは接続単位のため、ローテーションが終わるまで同じ接続を保持して解放する
+        return jdbcTemplate.execute((ConnectionCallback<List<Map<String, Object>>>) connection -> {
+            if (!lock(connection, "SELECT GET_LOCK(?, 0)")) {
+                throw new RotationLockedException("別のノードでパーティションのローテーションを実行中です");
+            }
+            try {
+                return rotateAllLocked();
+            } finally {
+                lock(connection, "SELECT RELEASE_LOCK(?)");
+            }
+        });
+    }
+
+    private boolean lock(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, ROTATION_LOCK);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private List<Map<String, Object>> rotateAllLocked() {
+        // 同じテーブル名の定義が複数ある場合は最新のものを使う
+        Map<String, PartitionSpec> specs = new LinkedHashMap<>();
+        List<ParsedTableDefinition> tableDefs = new ArrayList<>(tableDefRepo.findAll());
+        tableDefs.sort(Comparator.comparing(ParsedTableDefinition::getId));
+        for (ParsedTableDefinition tableDef : tableDefs) {
+            PartitionSpec spec = getPartitionSpec(tableDef);
+            if (spec != null && spec.isRotatable()) {
+                specs.put(tableDef.getTableName(), spec);
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (specs.isEmpty()) {
+            return results;
+        }
+
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(specs.keySet());
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<String, PartitionSpec> entry : specs.entrySet()) {
+            results.add(rotate(entry.getKey(), entry.getValue(), catalog, today));
+        }
+        return results;
+    }
+
+    /**
+     * 単一テーブルのローテーション
+     */
+    private Map<String, Object> rotate(String tableName, PartitionSpec spec, SchemaCatalog catalog, LocalDate today) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tableName", tableName);
+        List<String> statements = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+
+        try {
+            List<Map<String, Object>> partitions = catalog.getPartitions(tableName);
+            if (partitions.isEmpty() || !String.valueOf(partitions.get(0).get("PARTITION_METHOD")).startsWith("RANGE")) {
+                result.put("success", true);
+                result.put("action", "skipped");
+                result.put("message", "RANGEパーティションがありません");
+                return result;
+            }
+
+            String maxValuePartition = null;
+            LocalDate lastBoundary = null;
+            for (Map<String, Object> partition : partitions) {
+                String description = String.valueOf(partition.get("PARTITION_DESCRIPTION"));
+                LocalDate boundary = spec.parseBoundary(description);
+                if (boundary == null) {
+                    if (description.equalsIgnoreCase("MAXVALUE")) {
+                        maxValuePartition = String.valueOf(partition.get("PARTITION_NAME"));
+                    }
+                    continue;
+                }
+                if (lastBoundary == null || boundary.isAfter(lastBoundary)) {
+                    lastBoundary = boundary;
+                }
+            }
+
+            // 1. 先読み分の将来パーティションを追加
+            LocalDate coverUntil = spec.plus(spec.floor(today), spec.getPremake(defaultPremake) + 1);
+            LocalDate start = lastBoundary != null ? lastBoundary : spec.floor(today);
+            List<String> definitions = new ArrayList<>();
+            while (start.isBefore(coverUntil)) {
+                String name = spec.partitionName(start);
+                definitions.add("PARTITION `" + name + "` VALUES LESS THAN (" + spec.boundaryLiteral(spec.next(start)) + ")");
+                added.add(name);
+                start = spec.next(start);
+            }
+            if (!definitions.isEmpty()) {
+                String sql;
+                if (maxValuePartition != null) {
+                    // MAXVALUEパーティションを分割（通常は空のため即時に完了する）
+                    definitions.add("PARTITION `" + maxValuePartition + "` VALUES LESS THAN (MAXVALUE)");
+                    sql = "ALTER TABLE `" + tableName + "` REORGANIZE PARTITION `" + maxValuePartition + "` INTO ("
+                            + String.join(", ", definitions) + ")";
+                } else {
+                    sql = "ALTER TABLE `" + tableName + "` ADD PARTITION (" + String.join(", ", definitions) + ")";
+                }
+                jdbcTemplate.execute(sql);
+                statements.add(sql);
+            }
+
+            // 2. 保持期間を過ぎたパーティションを削除（最後の1つは残す）
+            Integer retention = spec.getRetention(defaultRetention);
+            if (retention != null) {
+                LocalDate cutoff = spec.minus(spec.floor(today), retention);
+                int remaining = partitions.size() + added.size();
+                for (Map<String, Object> partition : partitions) {
+                    LocalDate boundary = spec.parseBoundary(String.valueOf(partition.get("PARTITION_DESCRIPTION")));
+                    if (boundary != null && !boundary.isAfter(cutoff) && remaining > 1) {
+                        dropped.add(String.valueOf(partition.get("PARTITION_NAME")));
+                        remaining--;
+                    }
+                }
+                if (!dropped.isEmpty()) {
+                    String sql = "ALTER TABLE `" + tableName + "` DROP PARTITION "
+                            + dropped.stream().map(name -> "`" + name + "`").collect(Collectors.joining(", "));
+                    jdbcTemplate.execute(sql);
+                    statements.add(sql);
+                }
+            }
+
+            result.put("success", true);
+            result.put("action", statements.isEmpty() ? "unchanged" : "rotated");
+            if (!statements.isEmpty()) {
+                System.out.println("[PartitionRotationService] ✅ パーティションを更新: " + tableName
+                        + " (追加: " + added + ", 削除: " + dropped + ")");
+            }
+
+        } catch (Exception e) {
+            System.err.println("[PartitionRotationService] ❌ エラー: " + tableName + " - " + e.getMessage());
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+
+        result.put("added", added);
+        result.put("dropped", dropped);
+        result.put("statements", statements);
+        return result;
+    }
+
+    /**
+     * 他のノードでローテーションを実行中
+     */
+    public static class RotationLockedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        public RotationLockedException(String message) {
+            super(message);
+        }
+    }
+}
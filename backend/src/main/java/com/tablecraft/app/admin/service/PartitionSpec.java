@@ -0,0 +1,278 @@
+package com.tablecraft.app.admin.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * テーブルのパーティション定義（RANGE / HASH / KEY）
+ * SQLパーサーの解析結果（テーブル構造の「partition」）から作成する
+ * RANGEは日付カラム（RANGE COLUMNS(col) または RANGE(TO_DAYS(col))）で日・月単位の場合のみローテーション対象
+ */
+public class PartitionSpec {
+
+    public enum Method {
+        RANGE, HASH, KEY
+    }
+
+    public enum Interval {
+        DAY, MONTH
+    }
+
+    public static final String MAXVALUE_PARTITION = "pmax";
+
+    // TO_DAYS('1970-01-01')
+    private static final long TO_DAYS_EPOCH = 719528;
+    private static final Pattern DATE_LITERAL = Pattern.compile("'(\\d{4}-\\d{2}-\\d{2})");
+    private static final Pattern TO_DAYS_COLUMN = Pattern.compile("(?i)^TO_DAYS\\(\\s*`?(\\w+)`?\\s*\\)$");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private Method method;
+    private boolean linear;
+    private boolean columns;
+    private String expression;
+    private Integer count;
+    private final List<RangePartition> partitions = new ArrayList<>();
+    private Interval interval;
+    private Integer retention;
+    private Integer premake;
+
+    /**
+     * テーブル構造の「partition」から作成（未定義・非対応の方式はnull）
+     */
+    @SuppressWarnings("unchecked")
+    public static PartitionSpec fromMap(Map<String, Object> map) {
+        if (map == null || map.get("method") == null) {
+            return null;
+        }
+        PartitionSpec spec = new PartitionSpec();
+        try {
+            spec.method = Method.valueOf(map.get("method").toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        spec.linear = Boolean.TRUE.equals(map.get("linear"));
+        spec.columns = Boolean.TRUE.equals(map.get("columns"));
+        spec.expression = map.get("expression") != null ? map.get("expression").toString().trim() : "";
+        spec.count = toInteger(map.get("count"));
+        spec.retention = toInteger(map.get("retention"));
+        spec.premake = toInteger(map.get("premake"));
+
+        if (map.get("partitions") instanceof List) {
+            for (Map<String, Object> partition : (List<Map<String, Object>>) map.get("partitions")) {
+                spec.partitions.add(new RangePartition(
+                        String.valueOf(partition.get("name")), String.valueOf(partition.get("values"))));
+            }
+        }
+
+        if (map.get("interval") != null) {
+            spec.interval = Interval.valueOf(map.get("interval").toString().toUpperCase());
+        } else {
+            spec.interval = spec.inferInterval();
+        }
+        return spec;
+    }
+
+    /**
+     * CREATE TABLE / ALTER TABLE に付けるパーティション句
+     * RANGEでパーティションが定義されていない場合は、今日から先読み分の期間パーティションとpmaxを生成する
+     */
+    public String toClause(LocalDate today, int defaultPremake) {
+        String prefix = "PARTITION BY " + (linear ? "LINEAR " : "");
+        if (method != Method.RANGE) {
+            return prefix + method.name() + "(" + expression + ")" + (count != null ? " PARTITIONS " + count : "");
+        }
+
+        List<RangePartition> definitions = new ArrayList<>(partitions);
+        if (definitions.isEmpty()) {
+            if (!isRotatable()) {
+                throw new IllegalArgumentException("RANGEパーティションの定義がありません: " + expression);
+            }
+            LocalDate start = floor(today);
+            for (int i = 0; i <= getPremake(defaultPremake); i++) {
+                definitions.add(new RangePartition(partitionName(start), boundaryLiteral(next(start))));
+                start = next(start);
+            }
+            definitions.add(new RangePartition(MAXVALUE_PARTITION, "MAXVALUE"));
+        }
+
+        return "PARTITION BY RANGE" + (columns ? " COLUMNS" : "") + "(" + expression + ") (\n"
+                + definitions.stream().map(RangePartition::toSql).collect(Collectors.joining(",\n"))
+                + "\n)";
+    }
+
+    /**
+     * 日付カラムで日・月単位に分割されたRANGEか（パーティションの追加・削除を自動で行える）
+     */
+    public boolean isRotatable() {
+        return method == Method.RANGE && interval != null && getDateColumn() != null;
+    }
+
+    /**
+     * RANGEの基準となる日付カラム
+     */
+    public String getDateColumn() {
+        if (method != Method.RANGE) {
+            return null;
+        }
+        if (columns) {
+            return expression.contains(",") ? null : expression.replace("`", "").trim();
+        }
+        Matcher matcher = TO_DAYS_COLUMN.matcher(expression);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * パーティションの式・カラム一覧で参照しているカラム（tableColumnsに含まれる名前のみ、小文字）
+     * KEY() のようにカラムを指定しない場合は空
+     */
+    public Set<String> getReferencedColumns(Collection<String> tableColumns) {
+        Set<String> names = tableColumns.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        Set<String> referenced = new LinkedHashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(expression.replace("`", ""));
+        while (matcher.find()) {
+            String name = matcher.group().toLowerCase();
+            if (names.contains(name)) {
+                referenced.add(name);
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * 境界値（VALUES LESS THAN の中身）を日付に変換（MAXVALUE・日付以外はnull）
+     * information_schema.PARTITIONSのPARTITION_DESCRIPTION（TO_DAYSの場合は数値）にも対応する
+     */
+    public LocalDate parseBoundary(String values) {
+        if (values == null || values.trim().equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        Matcher matcher = DATE_LITERAL.matcher(values);
+        if (matcher.find()) {
+            return LocalDate.parse(matcher.group(1));
+        }
+        String trimmed = values.trim();
+        if (!columns && trimmed.matches("\\d+")) {
+            return LocalDate.ofEpochDay(Long.parseLong(trimmed) - TO_DAYS_EPOCH);
+        }
+        return null;
+    }
+
+    public String boundaryLiteral(LocalDate date) {
+        return columns ? "'" + date + "'" : "TO_DAYS('" + date + "')";
+    }
+
+    /**
+     * 期間の開始日から作るパーティション名（日単位: p20250101、月単位: p202501）
+     */
+    public String partitionName(LocalDate start) {
+        return "p" + start.format(interval == Interval.MONTH ? MONTH_NAME : DAY_NAME);
+    }
+
+    public LocalDate floor(LocalDate date) {
+        return interval == Interval.MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    public LocalDate next(LocalDate date) {
+        return interval == Interval.MONTH ? date.plusMonths(1) : date.plusDays(1);
+    }
+
+    public LocalDate minus(LocalDate date, int periods) {
+        return interval == Interval.MONTH ? date.minusMonths(periods) : date.minusDays(periods);
+    }
+
+    public LocalDate plus(LocalDate date, int periods) {
+        return interval == Interval.MONTH ? date.plusMonths(periods) : date.plusDays(periods);
+    }
+
+    /**
+     * 定義済みの境界値の間隔から日・月単位を推定
+     */
+    private Interval inferInterval() {
+        if (method != Method.RANGE || getDateColumn() == null) {
+            return null;
+        }
+        List<LocalDate> boundaries = partitions.stream()
+                .map(partition -> parseBoundary(partition.values))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (boundaries.size() < 2) {
+            return null;
+        }
+        LocalDate previous = boundaries.get(0);
+        LocalDate current = boundaries.get(1);
+        if (ChronoUnit.DAYS.between(previous, current) == 1) {
+            return Interval.DAY;
+        }
+        if (previous.getDayOfMonth() == 1 && previous.plusMonths(1).equals(current)) {
+            return Interval.MONTH;
+        }
+        return null;
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.valueOf(value.toString().trim());
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public Interval getInterval() {
+        return interval;
+    }
+
+    public List<RangePartition> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * 保持する期間数（nullの場合は削除しない）
+     */
+    public Integer getRetention(Integer defaultRetention) {
+        Integer value = retention != null ? retention : defaultRetention;
+        return value != null && value > 0 ? value : null;
+    }
+
+    /**
+     * 先に作成しておく将来の期間数
+     */
+    public int getPremake(int defaultPremake) {
+        return premake != null ? premake : defaultPremake;
+    }
+
+    /**
+     * RANGEパーティション1つ分の定義
+     */
+    public static class RangePartition {
+        private final String name;
+        private final String values;
+
+        public RangePartition(String name, String values) {
+            this.name = name;
+            this.values = values;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getValues() {
+            return values;
+        }
+
+        String toSql() {
+            String lessThan = values.equalsIgnoreCase("MAXVALUE") ? "MAXVALUE" : "(" + values + ")";
+            return "  PARTITION `" + name + "` VALUES LESS THAN " + lessThan;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.tablecraft.app.admin.service;
+
+import java.util.*;
+
+/**
+ * information_schemaから一括取得したテーブル・カラム・インデックス・パーティション情報のスナップショット
+ * テーブル名・カラム名は小文字で管理する
+ */
+public class SchemaCatalog {
+
+    private final Map<String, Map<String, Object>> tables = new HashMap<>();
+    private final Map<String, Map<String, Map<String, Object>>> columns = new HashMap<>();
+    private final Map<String, Map<String, IndexInfo>> indexes = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> partitions = new HashMap<>();
+
+    void putTable(Map<String, Object> row) {
+        tables.put(key(row.get("TABLE_NAME")), row);
+    }
+
+    void putColumn(Map<String, Object> row) {
+        columns.computeIfAbsent(key(row.get("TABLE_NAME")), t -> new LinkedHashMap<>())
+                .put(key(row.get("COLUMN_NAME")), row);
+    }
+
+    void putIndexColumn(Map<String, Object> row) {
+        String indexName = String.valueOf(row.get("INDEX_NAME"));
+        IndexInfo index = indexes.computeIfAbsent(key(row.get("TABLE_NAME")), t -> new LinkedHashMap<>())
+                .computeIfAbsent(indexName, name -> new IndexInfo(name, isTrue(row.get("NON_UNIQUE"))));
+        index.columns.add(String.valueOf(row.get("COLUMN_NAME")));
+    }
+
+    void putPartition(Map<String, Object> row) {
+        partitions.computeIfAbsent(key(row.get("TABLE_NAME")), t -> new ArrayList<>()).add(row);
+    }
+
+    /**
+     * テーブルが存在するか
+     */
+    public boolean hasTable(String tableName) {
+        return tables.containsKey(key(tableName));
+    }
+
+    /**
+     * テーブル情報（TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH）
+     */
+    public Map<String, Object> getTable(String tableName) {
+        return tables.get(key(tableName));
+    }
+
+    /**
+     * カラム情報（小文字のカラム名 → information_schema.COLUMNSの行、定義順）
+     */
+    public Map<String, Map<String, Object>> getColumns(String tableName) {
+        return columns.getOrDefault(key(tableName), Collections.emptyMap());
+    }
+
+    /**
+     * インデックス情報（インデックス名 → 構成カラム、定義順）
+     */
+    public Map<String, IndexInfo> getIndexes(String tableName) {
+        return indexes.getOrDefault(key(tableName), Collections.emptyMap());
+    }
+
+    /**
+     * パーティション情報（information_schema.PARTITIONSの行、定義順、パーティションなしの場合は空）
+     */
+    public List<Map<String, Object>> getPartitions(String tableName) {
+        return partitions.getOrDefault(key(tableName), Collections.emptyList());
+    }
+
+    public int getTableCount() {
+        return tables.size();
+    }
+
+    private static String key(Object name) {
+        return String.valueOf(name).toLowerCase();
+    }
+
+    private static boolean isTrue(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return Boolean.parseBoolean(String.valueOf(value)) || "1".equals(String.valueOf(value));
+    }
+
+    /**
+     * インデックス（STATISTICSの行をインデックス単位にまとめたもの）
+     */
+    public static class IndexInfo {
+        private final String name;
+        private final boolean nonUnique;
+        private final List<String> columns = new ArrayList<>();
+
+        IndexInfo(String name, boolean nonUnique) {
+            this.name = name;
+            this.nonUnique = nonUnique;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isNonUnique() {
+            return nonUnique;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.tablecraft.app.admin.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * DBスキーマ情報の一括取得サービス
+ * 対象テーブルのTABLES・COLUMNS・STATISTICSをそれぞれ1回のクエリで取得し、SchemaCatalogにまとめる
+ */
+@Service
+public class SchemaIntrospectionService {
+
+    // IN句に渡すテーブル名の上限（超える場合は分割して取得）
+    private static final int MAX_IN_LIST = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 指定テーブルのスキーマ情報を取得
+     */
+    public SchemaCatalog loadCatalog(Collection<String> tableNames) {
+        SchemaCatalog catalog = new SchemaCatalog();
+        List<String> names = tableNames.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (names.isEmpty()) {
+            return catalog;
+        }
+
+        long start = System.currentTimeMillis();
+        int queries = 0;
+        for (int from = 0; from < names.size(); from += MAX_IN_LIST) {
+            List<String> chunk = names.subList(from, Math.min(names.size(), from + MAX_IN_LIST));
+            String in = chunk.stream().map(n -> "?").collect(Collectors.joining(", "));
+            Object[] params = chunk.toArray();
+
+            jdbcTemplate.queryForList("SELECT TABLE_NAME, TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH "
+                    + "FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + in + ")",
+                    params).forEach(catalog::putTable);
+
+            jdbcTemplate.queryForList("SELECT TABLE_NAME, COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, "
+                    + "COLUMN_KEY, EXTRA, COLUMN_COMMENT FROM information_schema.COLUMNS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + in + ") "
+                    + "ORDER BY TABLE_NAME, ORDINAL_POSITION", params).forEach(catalog::putColumn);
+
+            jdbcTemplate.queryForList("SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, SEQ_IN_INDEX, COLUMN_NAME "
+                    + "FROM information_schema.STATISTICS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + in + ") "
+                    + "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX", params).forEach(catalog::putIndexColumn);
+
+            jdbcTemplate.queryForList("SELECT TABLE_NAME, PARTITION_NAME, PARTITION_METHOD, PARTITION_EXPRESSION, "
+                    + "PARTITION_DESCRIPTION, TABLE_ROWS FROM information_schema.PARTITIONS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME IN (" + in + ") AND PARTITION_NAME IS NOT NULL "
+                    + "ORDER BY TABLE_NAME, PARTITION_ORDINAL_POSITION", params).forEach(catalog::putPartition);
+            queries += 4;
+        }
+
+        System.out.println("[SchemaIntrospectionService] スキーマ情報を取得: " + names.size() + " テーブル中 "
+                + catalog.getTableCount() + " 件存在 (" + queries + " クエリ, "
+                + (System.currentTimeMillis() - start) + "ms)");
+        return catalog;
+    }
+
+    /**
+     * 単一テーブルのスキーマ情報を取得
+     */
+    public SchemaCatalog loadCatalog(String tableName) {
+        return loadCatalog(Collections.singletonList(tableName));
+    }
+}
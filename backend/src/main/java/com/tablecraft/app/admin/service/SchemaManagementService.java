@@ -4,12 +4,30 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tablecraft.app.admin.entity.ParsedTableDefinition;
 import com.tablecraft.app.admin.repository.ParsedTableDefinitionRepository;
+import com.tablecraft.app.model.ColumnDefinition;
+import com.tablecraft.app.model.SortDefinition;
+import com.tablecraft.app.model.TableConfig;
+import com.tablecraft.app.model.TableDefinition;
+import com.tablecraft.app.service.ExternalConfigService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -28,25 +46,89 @@ public class SchemaManagementService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OnlineSchemaMigrationService onlineSchemaMigrationService;
+
+    @Autowired
+    private SchemaIntrospectionService schemaIntrospectionService;
+
+    @Autowired
+    private ExternalConfigService externalConfigService;
+
+    @Autowired
+    private PartitionRotationService partitionRotationService;
+
+    @Value("${tablecraft.schema.index.auto:true}")
+    private boolean autoIndexEnabled;
+
+    @Value("${tablecraft.schema.index.max-per-table:10}")
+    private int maxAutoIndexesPerTable;
+
+    @Value("${tablecraft.schema.apply.parallelism:4}")
+    private int applyParallelism;
+
+    // 進捗を返しながら実行する一括適用（apply-stream）の同時実行数
+    @Value("${tablecraft.schema.apply.max-concurrent-runs:2}")
+    private int maxConcurrentRuns;
+
+    // 一括適用のワーカースレッド（同時に実行するDDLの数を制限する）
+    private ExecutorService applyExecutor;
+
+    // 一括適用全体を実行するスレッド（上限を超える要求は待たせずに拒否する）
+    private ThreadPoolExecutor runExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        applyExecutor = Executors.newFixedThreadPool(Math.max(1, applyParallelism), runnable -> {
+            Thread thread = new Thread(runnable, "schema-apply-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger runCount = new AtomicInteger();
+        int runs = Math.max(1, maxConcurrentRuns);
+        runExecutor = new ThreadPoolExecutor(runs, runs, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "schema-apply-run-" + runCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        runExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        applyExecutor.shutdownNow();
+    }
+
     /**
      * テーブル構造をDBに適用
+     * 既存テーブルはデータを保持したままオンラインでカラム構造を変更する
      * 
      * @param tableId ParsedTableDefinitionのID
      * @return 適用結果メッセージ
      */
-    @Transactional
     public Map<String, Object> applyTableSchema(Long tableId) {
+        Optional<ParsedTableDefinition> tableDef = tableDefRepo.findById(tableId);
+        if (tableDef.isEmpty()) {
+            return notFoundResult(tableId);
+        }
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(tableDef.get().getTableName());
+        return applyTableSchema(tableDef.get(), catalog);
+    }
+
+    /**
+     * テーブル構造をDBに適用（既存スキーマは取得済みのカタログと比較）
+     */
+    private Map<String, Object> applyTableSchema(ParsedTableDefinition tableDef, SchemaCatalog catalog) {
         Map<String, Object> result = new HashMap<>();
 
         try {
-            ParsedTableDefinition tableDef = tableDefRepo.findById(tableId)
-                    .orElseThrow(() -> new IllegalArgumentException("Table definition not found: " + tableId));
-
             String tableName = tableDef.getTableName();
             System.out.println("[SchemaManagementService] テーブルスキーマ適用開始: " + tableName);
 
             // 1. テーブル存在チェック
-            boolean exists = checkTableExists(tableName);
+            boolean exists = catalog.hasTable(tableName);
 
             if (!exists) {
                 // 2. 新規テーブル作成
@@ -57,28 +139,24 @@ public class SchemaManagementService {
                 result.put("action", "created");
                 result.put("message", "テーブルを作成しました: " + tableName);
             } else {
-                // 3. 既存テーブルが存在する場合はデータをクリアしてから更新
+                // 3. 既存テーブルは差分のみオンラインで適用（削除されたカラムは安全のため残す）
                 System.out.println("[SchemaManagementService] 既存テーブル検出: " + tableName);
 
-                // 3-1. データクリア
-                String truncateSql = "TRUNCATE TABLE `" + tableName + "`";
-                System.out.println("[SchemaManagementService] データクリア実行:\n" + truncateSql);
-                jdbcTemplate.execute(truncateSql);
+                List<OnlineSchemaMigrationService.ColumnSpec> columnSpecs = getColumnSpecs(tableDef);
+                Map<String, Object> migration = onlineSchemaMigrationService.migrate(
+                        tableName, columnSpecs, getIndexSpecs(tableDef, columnSpecs),
+                        getPartitionClause(tableDef, columnSpecs), false, catalog);
+                int changes = (Integer) migration.get("changes");
 
-                // 3-2. テーブル差分適用
-                List<String> alterSqls = generateAlterTableSqls(tableDef);
-
-                if (alterSqls.isEmpty()) {
-                    result.put("action", "data_cleared");
-                    result.put("message", "既存データをクリアしました（スキーマ変更なし）: " + tableName);
+                if (changes == 0) {
+                    result.put("action", "unchanged");
+                    result.put("message", "スキーマ変更はありません: " + tableName);
                 } else {
-                    for (String sql : alterSqls) {
-                        System.out.println("[SchemaManagementService] ALTER TABLE実行:\n" + sql);
-                        jdbcTemplate.execute(sql);
-                    }
-                    result.put("action", "updated_and_cleared");
-                    result.put("message", "既存データをクリアし、テーブルを更新しました: " + tableName);
-                    result.put("alterCount", alterSqls.size());
+                    result.put("action", "updated");
+                    result.put("message", "テーブルを更新しました（データは保持されます）: " + tableName);
+                    result.put("alterCount", changes);
+                    result.put("algorithm", migration.get("algorithm"));
+                    result.put("rowsCopied", migration.get("rowsCopied"));
                 }
             }
 
@@ -98,16 +176,49 @@ public class SchemaManagementService {
 
     /**
      * 複数テーブルを一括適用
+     * 外部キーの参照先テーブルを先に適用し、互いに依存しないテーブルは並列に適用する
+     * DDLは暗黙コミットされるため、全体をトランザクションでは囲まない
      */
-    @Transactional
     public Map<String, Object> applyMultipleSchemas(List<Long> tableIds) {
-        Map<String, Object> result = new HashMap<>();
+        return applyMultipleSchemas(tableIds, null);
+    }
+
+    /**
+     * 複数テーブルの一括適用を別スレッドで開始（テーブルごとの結果を完了した順にlistenerへ通知）
+     *
+     * @throws RejectedExecutionException 同時に実行できる一括適用の数を超えた場合
+     */
+    public CompletableFuture<Map<String, Object>> applyMultipleSchemasAsync(List<Long> tableIds,
+                                                                           Consumer<Map<String, Object>> listener) {
+        return CompletableFuture.supplyAsync(() -> applyMultipleSchemas(tableIds, listener), runExecutor);
+    }
+
+    /**
+     * 複数テーブルを一括適用（テーブルごとの結果を完了した順にlistenerへ通知）
+     * 戻り値のresultsはリクエストされたID順
+     */
+    public Map<String, Object> applyMultipleSchemas(List<Long> tableIds, Consumer<Map<String, Object>> listener) {
+        Map<Long, ParsedTableDefinition> tableDefs = new LinkedHashMap<>();
+        for (ParsedTableDefinition tableDef : tableDefRepo.findAllById(tableIds)) {
+            tableDefs.put(tableDef.getId(), tableDef);
+        }
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(tableDefs.values().stream()
+                .map(ParsedTableDefinition::getTableName)
+                .collect(Collectors.toList()));
+
+        SchemaApplyRun run = new SchemaApplyRun(tableDefs, catalog, listener);
+        for (Long tableId : new LinkedHashSet<>(tableIds)) {
+            if (!tableDefs.containsKey(tableId)) {
+                run.complete(tableId, notFoundResult(tableId));
+            }
+        }
+        run.start();
+
         List<Map<String, Object>> results = new ArrayList<>();
         int successCount = 0;
         int failureCount = 0;
-
         for (Long tableId : tableIds) {
-            Map<String, Object> tableResult = applyTableSchema(tableId);
+            Map<String, Object> tableResult = run.results.get(tableId);
             results.add(tableResult);
 
             if ((Boolean) tableResult.getOrDefault("success", false)) {
@@ -117,6 +228,7 @@ public class SchemaManagementService {
             }
         }
 
+        Map<String, Object> result = new HashMap<>();
         result.put("success", failureCount == 0);
         result.put("totalCount", tableIds.size());
         result.put("successCount", successCount);
@@ -127,257 +239,639 @@ public class SchemaManagementService {
     }
 
     /**
-     * テーブルの存在チェック
-     */
-    private boolean checkTableExists(String tableName) {
-        String sql = "SELECT COUNT(*) FROM information_schema.TABLES " +
-                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, tableName);
-        return count != null && count > 0;
-    }
-
-    /**
-     * CREATE TABLE文を生成
+     * 一括適用1回分の実行状態
+     * 参照先テーブルの適用が完了したテーブルから順にワーカースレッドへ投入する
      */
-    private String generateCreateTableSql(ParsedTableDefinition tableDef) throws Exception {
-        String tableName = tableDef.getTableName();
-
-        // tableStructureをJSONから読み込み
-        @SuppressWarnings("unchecked")
-        Map<String, Object> structure = objectMapper.readValue(
-                tableDef.getTableStructure(),
-                new TypeReference<Map<String, Object>>() {
-                });
-
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> columns = (List<Map<String, Object>>) structure.get("columns");
+    private class SchemaApplyRun {
+        private final Map<Long, ParsedTableDefinition> tableDefs;
+        private final SchemaCatalog catalog;
+        private final Consumer<Map<String, Object>> listener;
+        private final Map<Long, Map<String, Object>> results = new ConcurrentHashMap<>();
+        // テーブルID → 未完了の参照先テーブルID / 参照元テーブルID
+        private final Map<Long, Set<Long>> waitingOn = new HashMap<>();
+        private final Map<Long, List<Long>> dependents = new HashMap<>();
+        private final CountDownLatch done;
+
+        SchemaApplyRun(Map<Long, ParsedTableDefinition> tableDefs, SchemaCatalog catalog,
+                       Consumer<Map<String, Object>> listener) {
+            this.tableDefs = tableDefs;
+            this.catalog = catalog;
+            this.listener = listener;
+            this.done = new CountDownLatch(tableDefs.size());
+            buildDependencies();
+        }
 
-        if (columns == null || columns.isEmpty()) {
-            throw new IllegalArgumentException("カラム定義が見つかりません: " + tableName);
+        private void buildDependencies() {
+            Map<String, Long> idsByName = new HashMap<>();
+            for (ParsedTableDefinition tableDef : tableDefs.values()) {
+                idsByName.put(tableDef.getTableName().toLowerCase(), tableDef.getId());
+            }
+            for (ParsedTableDefinition tableDef : tableDefs.values()) {
+                Set<Long> parents = new LinkedHashSet<>();
+                for (String referencedTable : getReferencedTables(tableDef)) {
+                    Long parentId = idsByName.get(referencedTable.toLowerCase());
+                    // 一括適用の対象外のテーブルや自己参照は順序付けしない
+                    if (parentId != null && !parentId.equals(tableDef.getId())) {
+                        parents.add(parentId);
+                    }
+                }
+                waitingOn.put(tableDef.getId(), parents);
+                for (Long parentId : parents) {
+                    dependents.computeIfAbsent(parentId, k -> new ArrayList<>()).add(tableDef.getId());
+                }
+            }
+            breakCycles();
         }
 
-        StringBuilder sql = new StringBuilder();
-        sql.append("CREATE TABLE `").append(tableName).append("` (\n");
+        /**
+         * 循環参照しているテーブル同士の依存を外す（外部キーはCREATE TABLEに含めないため順序は任意でよい）
+         */
+        private void breakCycles() {
+            Map<Long, Integer> remaining = new HashMap<>();
+            Deque<Long> ready = new ArrayDeque<>();
+            for (Map.Entry<Long, Set<Long>> entry : waitingOn.entrySet()) {
+                remaining.put(entry.getKey(), entry.getValue().size());
+                if (entry.getValue().isEmpty()) {
+                    ready.add(entry.getKey());
+                }
+            }
+            while (!ready.isEmpty()) {
+                Long tableId = ready.poll();
+                remaining.remove(tableId);
+                for (Long child : dependents.getOrDefault(tableId, Collections.emptyList())) {
+                    if (remaining.merge(child, -1, Integer::sum) == 0) {
+                        ready.add(child);
+                    }
+                }
+            }
+            if (remaining.isEmpty()) {
+                return;
+            }
 
-        // カラム定義
-        List<String> columnDefs = new ArrayList<>();
-        String primaryKey = null;
+            Set<Long> cyclic = remaining.keySet();
+            System.out.println("[SchemaManagementService] ⚠️ 外部キーの循環参照を検出: "
+                    + cyclic.stream().map(id -> tableDefs.get(id).getTableName()).collect(Collectors.toList()));
+            for (Long tableId : cyclic) {
+                waitingOn.get(tableId).removeAll(cyclic);
+                List<Long> children = dependents.get(tableId);
+                if (children != null) {
+                    children.removeAll(cyclic);
+                }
+            }
+        }
 
-        for (Map<String, Object> col : columns) {
-            String colName = (String) col.get("name");
-            String colType = (String) col.get("type");
-            Boolean nullable = (Boolean) col.getOrDefault("nullable", true);
-            Boolean isPrimary = (Boolean) col.getOrDefault("primary", false);
-            Object defaultValue = col.get("default");
-            Boolean autoIncrement = (Boolean) col.getOrDefault("autoIncrement", false);
+        void start() {
+            List<Long> ready = new ArrayList<>();
+            synchronized (this) {
+                for (Map.Entry<Long, Set<Long>> entry : waitingOn.entrySet()) {
+                    if (entry.getValue().isEmpty()) {
+                        ready.add(entry.getKey());
+                    }
+                }
+            }
+            ready.forEach(this::submit);
 
-            StringBuilder colDef = new StringBuilder();
-            colDef.append("  `").append(colName).append("` ").append(colType);
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("スキーマ適用の待機中に中断されました", e);
+            }
+        }
 
-            if (!nullable) {
-                colDef.append(" NOT NULL");
+        private void submit(Long tableId) {
+            try {
+                applyExecutor.execute(() -> run(tableId));
+            } catch (RejectedExecutionException e) {
+                // 停止中等で実行できない場合もテーブルを完了扱いにし、待機中の start() を終了させる
+                finish(tableId, errorResult("スキーマ適用を開始できません（実行プールが受け付けません）"));
             }
+        }
 
-            if (autoIncrement) {
-                colDef.append(" AUTO_INCREMENT");
+        private void run(Long tableId) {
+            Map<String, Object> tableResult = null;
+            try {
+                tableResult = applyTableSchema(tableDefs.get(tableId), catalog);
+            } catch (RuntimeException e) {
+                tableResult = errorResult(e.getMessage());
+            } finally {
+                finish(tableId, tableResult != null ? tableResult
+                        : errorResult("スキーマ適用中に予期しないエラーが発生しました"));
             }
+        }
 
-            if (defaultValue != null && !autoIncrement) {
-                if ("CURRENT_TIMESTAMP".equalsIgnoreCase(defaultValue.toString())) {
-                    colDef.append(" DEFAULT CURRENT_TIMESTAMP");
-                } else if (defaultValue instanceof String) {
-                    colDef.append(" DEFAULT '").append(defaultValue).append("'");
-                } else {
-                    colDef.append(" DEFAULT ").append(defaultValue);
+        /**
+         * テーブルの完了を記録し、依存するテーブルを開始（テーブルごとに必ず1回だけカウントダウンする）
+         */
+        private void finish(Long tableId, Map<String, Object> tableResult) {
+            try {
+                complete(tableId, tableResult);
+
+                List<Long> ready = new ArrayList<>();
+                synchronized (this) {
+                    for (Long child : dependents.getOrDefault(tableId, Collections.emptyList())) {
+                        Set<Long> parents = waitingOn.get(child);
+                        if (parents.remove(tableId) && parents.isEmpty()) {
+                            ready.add(child);
+                        }
+                    }
                 }
+                ready.forEach(this::submit);
+            } finally {
+                done.countDown();
             }
+        }
 
-            columnDefs.add(colDef.toString());
+        private Map<String, Object> errorResult(String error) {
+            Map<String, Object> tableResult = new HashMap<>();
+            tableResult.put("success", false);
+            tableResult.put("error", error);
+            return tableResult;
+        }
 
-            if (isPrimary) {
-                primaryKey = colName;
+        void complete(Long tableId, Map<String, Object> tableResult) {
+            tableResult.put("tableId", tableId);
+            results.put(tableId, tableResult);
+            if (listener != null) {
+                try {
+                    listener.accept(tableResult);
+                } catch (Exception e) {
+                    System.err.println("[SchemaManagementService] ⚠️ 結果の通知に失敗: " + e.getMessage());
+                }
             }
         }
+    }
 
-        sql.append(String.join(",\n", columnDefs));
+    /**
+     * 解析済みの外部キー定義から参照先テーブル名を取得
+     */
+    private List<String> getReferencedTables(ParsedTableDefinition tableDef) {
+        List<String> referencedTables = new ArrayList<>();
+        if (tableDef.getForeignKeys() == null || tableDef.getForeignKeys().isEmpty()) {
+            return referencedTables;
+        }
+        try {
+            List<Map<String, Object>> foreignKeys = objectMapper.readValue(
+                    tableDef.getForeignKeys(),
+                    new TypeReference<List<Map<String, Object>>>() {
+                    });
+            for (Map<String, Object> foreignKey : foreignKeys) {
+                Object referencedTable = foreignKey.get("referencedTable");
+                if (referencedTable != null) {
+                    referencedTables.add(referencedTable.toString());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[SchemaManagementService] ⚠️ 外部キー定義の読み込みに失敗: "
+                    + tableDef.getTableName() + " - " + e.getMessage());
+        }
+        return referencedTables;
+    }
 
-        // PRIMARY KEY
-        if (primaryKey != null) {
-            sql.append(",\n  PRIMARY KEY (`").append(primaryKey).append("`)");
+    /**
+     * 既存テーブルにセカンダリインデックスを追加（インデックス提案の適用用）
+     */
+    public Map<String, Object> applyIndexes(String tableName, List<OnlineSchemaMigrationService.IndexSpec> indexes) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("tableName", tableName);
+
+        try {
+            SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(tableName);
+            Map<String, Object> migration = onlineSchemaMigrationService.addIndexes(tableName, indexes, catalog);
+            result.put("success", true);
+            result.put("action", (Integer) migration.get("changes") == 0 ? "unchanged" : "updated");
+            result.put("algorithm", migration.get("algorithm"));
+            result.put("statements", migration.get("statements"));
+            System.out.println("[SchemaManagementService] ✅ インデックス追加: " + tableName + " " + migration.get("statements"));
+
+        } catch (Exception e) {
+            System.err.println("[SchemaManagementService] ❌ インデックス追加エラー: " + tableName + " - " + e.getMessage());
+            result.put("success", false);
+            result.put("error", e.getMessage());
         }
+        return result;
+    }
 
-        sql.append("\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
+    /**
+     * スキーマ適用の事前確認（DBは変更しない）
+     * テーブルごとに実行されるDDLと各変更の方式（INSTANT/INPLACE/COPY）、
+     * information_schemaの行数・データサイズを返し、重い変更を業務時間外に回す判断に使う
+     */
+    public Map<String, Object> planSchemas(List<Long> tableIds) {
+        Map<Long, ParsedTableDefinition> tableDefs = new HashMap<>();
+        for (ParsedTableDefinition tableDef : tableDefRepo.findAllById(tableIds)) {
+            tableDefs.put(tableDef.getId(), tableDef);
+        }
+        SchemaCatalog catalog = schemaIntrospectionService.loadCatalog(tableDefs.values().stream()
+                .map(ParsedTableDefinition::getTableName)
+                .collect(Collectors.toList()));
+
+        List<Map<String, Object>> plans = new ArrayList<>();
+        Map<String, Integer> actionCounts = new LinkedHashMap<>();
+        Map<String, Integer> algorithmCounts = new LinkedHashMap<>();
+        for (OnlineSchemaMigrationService.Algorithm algorithm : OnlineSchemaMigrationService.Algorithm.values()) {
+            algorithmCounts.put(algorithm.name(), 0);
+        }
+        long copyRows = 0;
+        long copyDataLength = 0;
 
-        return sql.toString();
+        for (Long tableId : tableIds) {
+            ParsedTableDefinition tableDef = tableDefs.get(tableId);
+            Map<String, Object> tablePlan = tableDef != null
+                    ? planTableSchema(tableDef, catalog)
+                    : notFoundResult(tableId);
+            plans.add(tablePlan);
+
+            if (!(Boolean) tablePlan.getOrDefault("success", false)) {
+                actionCounts.merge("error", 1, Integer::sum);
+                continue;
+            }
+            actionCounts.merge((String) tablePlan.get("action"), 1, Integer::sum);
+            Object algorithm = tablePlan.get("algorithm");
+            if (algorithm != null) {
+                algorithmCounts.merge(algorithm.toString(), 1, Integer::sum);
+            }
+            if (OnlineSchemaMigrationService.Algorithm.COPY.name().equals(algorithm)) {
+                copyRows += (Long) tablePlan.get("estimatedRows");
+                copyDataLength += (Long) tablePlan.get("dataLength");
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalCount", tableIds.size());
+        result.put("actions", actionCounts);
+        result.put("algorithms", algorithmCounts);
+        result.put("copyRows", copyRows);
+        result.put("copyDataLength", copyDataLength);
+        result.put("plans", plans);
+        return result;
     }
 
     /**
-     * ALTER TABLE文を生成（既存テーブルとの差分）
+     * テーブル単位の適用計画
      */
-    private List<String> generateAlterTableSqls(ParsedTableDefinition tableDef) throws Exception {
-        List<String> alterSqls = new ArrayList<>();
+    private Map<String, Object> planTableSchema(ParsedTableDefinition tableDef, SchemaCatalog catalog) {
+        Map<String, Object> result = new LinkedHashMap<>();
         String tableName = tableDef.getTableName();
+        result.put("tableId", tableDef.getId());
+        result.put("tableName", tableName);
 
-        // 既存カラム情報を取得
-        Map<String, Map<String, Object>> existingColumns = getExistingColumns(tableName);
+        try {
+            if (!catalog.hasTable(tableName)) {
+                result.put("action", "create");
+                result.put("algorithm", null);
+                result.put("estimatedRows", 0L);
+                result.put("dataLength", 0L);
+                result.put("indexLength", 0L);
+                result.put("changes", Collections.emptyList());
+                result.put("statements", Collections.singletonList(generateCreateTableSql(tableDef)));
+                result.put("success", true);
+                return result;
+            }
 
-        // 新しいカラム定義を取得
-        @SuppressWarnings("unchecked")
-        Map<String, Object> structure = objectMapper.readValue(
-                tableDef.getTableStructure(),
-                new TypeReference<Map<String, Object>>() {
-                });
+            List<OnlineSchemaMigrationService.ColumnSpec> columnSpecs = getColumnSpecs(tableDef);
+            OnlineSchemaMigrationService.MigrationPlan plan = onlineSchemaMigrationService.plan(
+                    tableName, columnSpecs, getIndexSpecs(tableDef, columnSpecs),
+                    getPartitionClause(tableDef, columnSpecs), false, catalog);
+            Map<String, Object> table = catalog.getTable(tableName);
+
+            List<Map<String, Object>> changes = new ArrayList<>();
+            for (OnlineSchemaMigrationService.Change change : plan.getChanges()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("type", change.getType());
+                entry.put("target", change.getColumn());
+                entry.put("algorithm", change.getAlgorithm().name());
+                entry.put("sql", onlineSchemaMigrationService.toAlterSql(
+                        tableName, Collections.singletonList(change), change.getAlgorithm()));
+                changes.add(entry);
+            }
 
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> newColumns = (List<Map<String, Object>>) structure.get("columns");
+            boolean unchanged = plan.getChanges().isEmpty();
+            result.put("action", unchanged ? "unchanged" : "alter");
+            result.put("algorithm", unchanged ? null : plan.getAlgorithm().name());
+            result.put("estimatedRows", toLong(table.get("TABLE_ROWS")));
+            result.put("dataLength", toLong(table.get("DATA_LENGTH")));
+            result.put("indexLength", toLong(table.get("INDEX_LENGTH")));
+            result.put("changes", changes);
+            // information_schema.STATISTICSと定義・設定から求めたインデックスの差分
+            result.put("indexDrift", changes.stream()
+                    .filter(change -> change.get("type").toString().endsWith("_index"))
+                    .collect(Collectors.toList()));
+            // 適用時は全変更を1回のALTERで実行する（最も重い方式が全体に適用される）
+            result.put("statements", unchanged
+                    ? Collections.emptyList()
+                    : Collections.singletonList(onlineSchemaMigrationService.toAlterSql(
+                            tableName, plan.getChanges(), plan.getAlgorithm())));
+            result.put("success", true);
 
-        if (newColumns == null) {
-            return alterSqls;
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("error", e.getMessage());
         }
+        return result;
+    }
 
-        // 新しいカラムのマップを作成
-        Map<String, Map<String, Object>> newColumnsMap = newColumns.stream()
-                .collect(Collectors.toMap(
-                        col -> (String) col.get("name"),
-                        col -> col));
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
 
-        // 1. 新規カラムの追加
-        for (Map<String, Object> newCol : newColumns) {
-            String colName = (String) newCol.get("name");
-            if (!existingColumns.containsKey(colName)) {
-                String alterSql = generateAddColumnSql(tableName, newCol);
-                alterSqls.add(alterSql);
-            }
+    private Map<String, Object> notFoundResult(Long tableId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("error", "Table definition not found: " + tableId);
+        return result;
+    }
+
+    /**
+     * CREATE TABLE文を生成
+     */
+    private String generateCreateTableSql(ParsedTableDefinition tableDef) throws Exception {
+        String tableName = tableDef.getTableName();
+        List<OnlineSchemaMigrationService.ColumnSpec> columns = getColumnSpecs(tableDef);
+
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("カラム定義が見つかりません: " + tableName);
         }
 
-        // 2. カラム変更の検出（型変更、NULL制約変更など）
-        for (String colName : existingColumns.keySet()) {
-            if (newColumnsMap.containsKey(colName)) {
-                Map<String, Object> existingCol = existingColumns.get(colName);
-                Map<String, Object> newCol = newColumnsMap.get(colName);
+        StringBuilder sql = new StringBuilder();
+        sql.append("CREATE TABLE `").append(tableName).append("` (\n");
+
+        // カラム定義
+        List<String> columnDefs = new ArrayList<>();
+        List<String> primaryKeys = new ArrayList<>();
 
-                if (isColumnChanged(existingCol, newCol)) {
-                    String alterSql = generateModifyColumnSql(tableName, newCol);
-                    alterSqls.add(alterSql);
-                }
+        for (OnlineSchemaMigrationService.ColumnSpec col : columns) {
+            columnDefs.add("  " + col.toDefinitionSql());
+
+            if (col.isPrimaryKey()) {
+                primaryKeys.add("`" + col.getName() + "`");
             }
         }
 
-        // 3. 削除されたカラム（注意: データ損失の可能性）
-        // for (String existingColName : existingColumns.keySet()) {
-        // if (!newColumnsMap.containsKey(existingColName)) {
-        // String alterSql = "ALTER TABLE `" + tableName + "` DROP COLUMN `" +
-        // existingColName + "`;";
-        // alterSqls.add(alterSql);
-        // }
-        // }
-        // ↑ 安全のため削除は手動で行う想定（コメントアウト）
+        sql.append(String.join(",\n", columnDefs));
+
+        // PRIMARY KEY
+        if (!primaryKeys.isEmpty()) {
+            sql.append(",\n  PRIMARY KEY (").append(String.join(", ", primaryKeys)).append(")");
+        }
+
+        // セカンダリインデックス
+        for (OnlineSchemaMigrationService.IndexSpec index : getIndexSpecs(tableDef, columns)) {
+            sql.append(",\n  ").append(index.toDefinitionSql());
+        }
+
+        sql.append("\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+
+        // パーティション（RANGE / HASH / KEY）
+        String partitionClause = getPartitionClause(tableDef, columns);
+        if (partitionClause != null) {
+            sql.append("\n").append(partitionClause);
+        }
+        sql.append(";");
 
-        return alterSqls;
+        return sql.toString();
     }
 
     /**
-     * 既存カラム情報を取得
+     * 解析済みテーブル定義のパーティション句（未定義の場合はnull）
      */
-    private Map<String, Map<String, Object>> getExistingColumns(String tableName) {
-        String sql = "SELECT COLUMN_NAME, COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT, EXTRA " +
-                "FROM information_schema.COLUMNS " +
-                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
-
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tableName);
+    private String getPartitionClause(ParsedTableDefinition tableDef,
+            List<OnlineSchemaMigrationService.ColumnSpec> columns) throws Exception {
+        PartitionSpec spec = partitionRotationService.getPartitionSpec(tableDef);
+        if (spec == null) {
+            return null;
+        }
+        validatePartitionKeys(tableDef, spec, columns);
+        return partitionRotationService.toPartitionClause(spec);
+    }
 
-        Map<String, Map<String, Object>> columns = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            String colName = (String) row.get("COLUMN_NAME");
-            columns.put(colName, row);
+    /**
+     * パーティションのカラムが主キーとすべてのUNIQUEキーに含まれているか確認
+     * （MySQLの制約で、含まれない場合はCREATE TABLE / ALTER TABLEが失敗する）
+     */
+    private void validatePartitionKeys(ParsedTableDefinition tableDef, PartitionSpec spec,
+            List<OnlineSchemaMigrationService.ColumnSpec> columns) throws Exception {
+        Set<String> partitionColumns = spec.getReferencedColumns(columns.stream()
+                .map(OnlineSchemaMigrationService.ColumnSpec::getName)
+                .collect(Collectors.toList()));
+        if (partitionColumns.isEmpty()) {
+            return;
         }
 
-        return columns;
+        Set<String> primaryKey = columns.stream()
+                .filter(OnlineSchemaMigrationService.ColumnSpec::isPrimaryKey)
+                .map(column -> column.getName().toLowerCase())
+                .collect(Collectors.toSet());
+        if (!primaryKey.isEmpty() && !primaryKey.containsAll(partitionColumns)) {
+            throw new IllegalArgumentException("パーティションのカラム " + partitionColumns + " が主キーに含まれていません: "
+                    + tableDef.getTableName());
+        }
+        for (OnlineSchemaMigrationService.IndexSpec index : getDefinedIndexSpecs(tableDef)) {
+            Set<String> indexColumns = index.getColumns().stream().map(String::toLowerCase).collect(Collectors.toSet());
+            if (index.isUnique() && !indexColumns.containsAll(partitionColumns)) {
+                throw new IllegalArgumentException("パーティションのカラム " + partitionColumns + " がUNIQUEキー "
+                        + index.getName() + " に含まれていません: " + tableDef.getTableName());
+            }
+        }
     }
 
     /**
-     * カラム変更の検出
+     * 解析済みテーブル定義からカラム定義を取得
+     * テーブル制約として定義された PRIMARY KEY (...) もカラムの主キー指定として反映する
      */
-    private boolean isColumnChanged(Map<String, Object> existingCol, Map<String, Object> newCol) {
-        String existingType = ((String) existingCol.get("COLUMN_TYPE")).toUpperCase();
-        String newType = ((String) newCol.get("type")).toUpperCase();
+    private List<OnlineSchemaMigrationService.ColumnSpec> getColumnSpecs(ParsedTableDefinition tableDef) throws Exception {
+        Map<String, Object> structure = objectMapper.readValue(
+                tableDef.getTableStructure(),
+                new TypeReference<Map<String, Object>>() {
+                });
 
-        String existingNullable = (String) existingCol.get("IS_NULLABLE");
-        Boolean newNullable = (Boolean) newCol.getOrDefault("nullable", true);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> columns = (List<Map<String, Object>>) structure.get("columns");
+        if (columns == null) {
+            return new ArrayList<>();
+        }
 
-        // 型の比較（簡易版）
-        if (!existingType.startsWith(newType.split("\\(")[0])) {
-            return true;
+        Set<String> tablePrimaryKeys = new HashSet<>();
+        if (tableDef.getIndexes() != null && !tableDef.getIndexes().isEmpty()) {
+            List<Map<String, Object>> indexes = objectMapper.readValue(
+                    tableDef.getIndexes(),
+                    new TypeReference<List<Map<String, Object>>>() {
+                    });
+            for (Map<String, Object> index : indexes) {
+                if ("PRIMARY_KEY".equals(index.get("type")) && index.get("columns") instanceof List) {
+                    for (Object column : (List<?>) index.get("columns")) {
+                        tablePrimaryKeys.add(column.toString().toLowerCase());
+                    }
+                }
+            }
         }
 
-        // NULL制約の比較
-        boolean existingIsNullable = "YES".equalsIgnoreCase(existingNullable);
-        if (existingIsNullable != newNullable) {
-            return true;
+        List<OnlineSchemaMigrationService.ColumnSpec> specs = new ArrayList<>();
+        for (Map<String, Object> col : columns) {
+            OnlineSchemaMigrationService.ColumnSpec spec = OnlineSchemaMigrationService.ColumnSpec.fromMap(col);
+            if (tablePrimaryKeys.contains(spec.getName().toLowerCase())) {
+                spec.setPrimaryKey(true);
+            }
+            specs.add(spec);
         }
+        return specs;
+    }
 
-        return false;
+    /**
+     * 作成・維持するセカンダリインデックス（SQL定義のUNIQUE・INDEXと、設定から自動作成するインデックス）
+     */
+    private List<OnlineSchemaMigrationService.IndexSpec> getIndexSpecs(ParsedTableDefinition tableDef,
+            List<OnlineSchemaMigrationService.ColumnSpec> columns) throws Exception {
+        List<OnlineSchemaMigrationService.IndexSpec> specs = getDefinedIndexSpecs(tableDef);
+        if (autoIndexEnabled) {
+            specs.addAll(getConfiguredIndexSpecs(tableDef.getTableName(), columns, specs));
+        }
+        return specs;
     }
 
     /**
-     * ADD COLUMN文の生成
+     * table-config.jsonのソート・絞り込み設定から自動作成するインデックスを求める
+     * - defaultSort: ソートカラム + 主キーの複合インデックス（tc_sort_*）
+     * - sortable/filterable: 単一カラムのインデックス（tc_idx_*、既存インデックスの先頭カラム・インデックス化できない型は除く）
      */
-    private String generateAddColumnSql(String tableName, Map<String, Object> col) {
-        String colName = (String) col.get("name");
-        String colType = (String) col.get("type");
-        Boolean nullable = (Boolean) col.getOrDefault("nullable", true);
-        Object defaultValue = col.get("default");
+    private List<OnlineSchemaMigrationService.IndexSpec> getConfiguredIndexSpecs(String tableName,
+            List<OnlineSchemaMigrationService.ColumnSpec> columns,
+            List<OnlineSchemaMigrationService.IndexSpec> definedIndexes) {
+        List<OnlineSchemaMigrationService.IndexSpec> specs = new ArrayList<>();
+        TableDefinition config = findTableConfig(tableName);
+        if (config == null || config.getColumns() == null) {
+            return specs;
+        }
 
-        StringBuilder sql = new StringBuilder();
-        sql.append("ALTER TABLE `").append(tableName).append("` ADD COLUMN `")
-                .append(colName).append("` ").append(colType);
+        Map<String, OnlineSchemaMigrationService.ColumnSpec> indexable = new LinkedHashMap<>();
+        List<String> primaryKey = new ArrayList<>();
+        for (OnlineSchemaMigrationService.ColumnSpec column : columns) {
+            if (column.isIndexable()) {
+                indexable.put(column.getName().toLowerCase(), column);
+            }
+            if (column.isPrimaryKey()) {
+                primaryKey.add(column.getName());
+            }
+        }
 
-        if (!nullable) {
-            sql.append(" NOT NULL");
+        // 1. デフォルトソート（ORDER BY sort..., 主キー をインデックス順に読めるようにする）
+        if (config.getDefaultSort() != null && !config.getDefaultSort().isEmpty()) {
+            List<String> sortColumns = new ArrayList<>();
+            for (SortDefinition sort : config.getDefaultSort()) {
+                OnlineSchemaMigrationService.ColumnSpec column = sort.getColumn() != null
+                        ? indexable.get(sort.getColumn().toLowerCase())
+                        : null;
+                if (column == null) {
+                    break;
+                }
+                sortColumns.add(column.getName());
+            }
+            if (!sortColumns.isEmpty() && !startsWithIgnoreCase(primaryKey, sortColumns)) {
+                List<String> indexColumns = new ArrayList<>(sortColumns);
+                for (String pkColumn : primaryKey) {
+                    if (indexColumns.stream().noneMatch(pkColumn::equalsIgnoreCase)) {
+                        indexColumns.add(pkColumn);
+                    }
+                }
+                specs.add(new OnlineSchemaMigrationService.IndexSpec(
+                        OnlineSchemaMigrationService.MANAGED_INDEX_PREFIX + "sort_" + String.join("_", sortColumns),
+                        indexColumns, false));
+            }
         }
 
-        if (defaultValue != null) {
-            if ("CURRENT_TIMESTAMP".equalsIgnoreCase(defaultValue.toString())) {
-                sql.append(" DEFAULT CURRENT_TIMESTAMP");
-            } else if (defaultValue instanceof String) {
-                sql.append(" DEFAULT '").append(defaultValue).append("'");
-            } else {
-                sql.append(" DEFAULT ").append(defaultValue);
+        // 2. ソート・絞り込み対象のカラム（他のインデックスの先頭カラムであれば不要）
+        Set<String> leadingColumns = new HashSet<>();
+        if (!primaryKey.isEmpty()) {
+            leadingColumns.add(primaryKey.get(0).toLowerCase());
+        }
+        for (OnlineSchemaMigrationService.IndexSpec index : definedIndexes) {
+            leadingColumns.add(index.getColumns().get(0).toLowerCase());
+        }
+        for (OnlineSchemaMigrationService.IndexSpec index : specs) {
+            leadingColumns.add(index.getColumns().get(0).toLowerCase());
+        }
+        for (ColumnDefinition configColumn : config.getColumns()) {
+            if (configColumn.getName() == null || !configColumn.isSortOrFilterTarget()) {
+                continue;
+            }
+            OnlineSchemaMigrationService.ColumnSpec column = indexable.get(configColumn.getName().toLowerCase());
+            if (column == null || !leadingColumns.add(column.getName().toLowerCase())) {
+                continue;
             }
+            specs.add(new OnlineSchemaMigrationService.IndexSpec(
+                    OnlineSchemaMigrationService.MANAGED_INDEX_PREFIX + "idx_" + column.getName(),
+                    Collections.singletonList(column.getName()), false));
         }
 
-        sql.append(";");
-        return sql.toString();
+        // インデックスが多すぎると書き込みが遅くなるため上限を設ける（デフォルトソートを優先）
+        if (specs.size() > maxAutoIndexesPerTable) {
+            System.out.println("[SchemaManagementService] ⚠️ 自動インデックスを上限で制限: " + tableName
+                    + " (" + specs.size() + " → " + maxAutoIndexesPerTable + ")");
+            return new ArrayList<>(specs.subList(0, Math.max(0, maxAutoIndexesPerTable)));
+        }
+        return specs;
     }
 
     /**
-     * MODIFY COLUMN文の生成
+     * table-config.jsonからテーブル設定を取得（IDまたはテーブル名で一致、大文字小文字は区別しない）
      */
-    private String generateModifyColumnSql(String tableName, Map<String, Object> col) {
-        String colName = (String) col.get("name");
-        String colType = (String) col.get("type");
-        Boolean nullable = (Boolean) col.getOrDefault("nullable", true);
-        Object defaultValue = col.get("default");
+    private TableDefinition findTableConfig(String tableName) {
+        TableConfig tableConfig = externalConfigService.getTableConfig();
+        if (tableConfig == null || tableConfig.getTables() == null) {
+            return null;
+        }
+        TableDefinition exact = tableConfig.getTables().get(tableName);
+        if (exact != null) {
+            return exact;
+        }
+        for (Map.Entry<String, TableDefinition> entry : tableConfig.getTables().entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(tableName)
+                    || (entry.getValue() != null && tableName.equalsIgnoreCase(entry.getValue().getName()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
 
-        StringBuilder sql = new StringBuilder();
-        sql.append("ALTER TABLE `").append(tableName).append("` MODIFY COLUMN `")
-                .append(colName).append("` ").append(colType);
+    private boolean startsWithIgnoreCase(List<String> columns, List<String> prefix) {
+        if (prefix.size() > columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!columns.get(i).equalsIgnoreCase(prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        if (!nullable) {
-            sql.append(" NOT NULL");
+    /**
+     * 解析済みテーブル定義からセカンダリインデックス（UNIQUE・INDEX）を取得
+     * 同名のインデックスはUNIQUEを優先する
+     */
+    private List<OnlineSchemaMigrationService.IndexSpec> getDefinedIndexSpecs(ParsedTableDefinition tableDef) throws Exception {
+        Map<String, OnlineSchemaMigrationService.IndexSpec> specs = new LinkedHashMap<>();
+        if (tableDef.getIndexes() == null || tableDef.getIndexes().isEmpty()) {
+            return new ArrayList<>();
         }
 
-        if (defaultValue != null) {
-            if ("CURRENT_TIMESTAMP".equalsIgnoreCase(defaultValue.toString())) {
-                sql.append(" DEFAULT CURRENT_TIMESTAMP");
-            } else if (defaultValue instanceof String) {
-                sql.append(" DEFAULT '").append(defaultValue).append("'");
-            } else {
-                sql.append(" DEFAULT ").append(defaultValue);
+        List<Map<String, Object>> indexes = objectMapper.readValue(
+                tableDef.getIndexes(),
+                new TypeReference<List<Map<String, Object>>>() {
+                });
+        for (Map<String, Object> index : indexes) {
+            Object type = index.get("type");
+            if (!("UNIQUE".equals(type) || "INDEX".equals(type)) || !(index.get("columns") instanceof List)) {
+                continue;
+            }
+            List<String> columns = new ArrayList<>();
+            for (Object column : (List<?>) index.get("columns")) {
+                columns.add(column.toString());
             }
+            OnlineSchemaMigrationService.IndexSpec spec = new OnlineSchemaMigrationService.IndexSpec(
+                    (String) index.get("name"), columns, "UNIQUE".equals(type));
+            specs.merge(spec.getName().toLowerCase(), spec, (current, added) -> current.isUnique() ? current : added);
         }
-
-        sql.append(";");
-        return sql.toString();
+        return new ArrayList<>(specs.values());
     }
 }
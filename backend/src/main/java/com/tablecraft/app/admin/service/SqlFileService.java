@@ -4,17 +4,31 @@ import com.tablecraft.app.admin.entity.ParsedTableDefinition;
 import com.tablecraft.app.admin.entity.UploadedSqlFile;
 import com.tablecraft.app.admin.repository.ParsedTableDefinitionRepository;
 import com.tablecraft.app.admin.repository.UploadedSqlFileRepository;
+import com.tablecraft.app.admin.repository.UploadedSqlFileSummary;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.persistence.EntityManager;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * SQLファイル管理サービス
@@ -29,25 +43,47 @@ public class SqlFileService {
     private ParsedTableDefinitionRepository tableDefinitionRepository;
 
     @Autowired
-    private SqlParserService sqlParserService;
+    private EntityManager entityManager;
 
     @Autowired
-    private EntityManager entityManager;
+    private SqlFileStore sqlFileStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 参照する行のない保存ファイルの削除対象とする経過時間
+    @Value("${tablecraft.sql.store.orphan-grace-ms:3600000}")
+    private long orphanGraceMs;
 
     /**
      * SQLファイルをアップロードして保存
+     * 内容はファイルストアへストリームで圧縮保存し、テーブルにはハッシュとメタデータのみを保存する
+     * 保存ファイルはコミットまで削除対象外とし、ロールバック時は参照する行がなければ削除する
      */
     @Transactional
     public UploadedSqlFile uploadSqlFile(MultipartFile file, String sqlType, String dbmsType, String uploadedBy)
             throws IOException {
-        // ファイル内容を読み込み
-        String sqlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
+        SqlFileStore.StoredContent stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = sqlFileStore.store(input);
+        }
+        String contentHash = stored.getHash();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                sqlFileStore.release(contentHash);
+                if (status != STATUS_COMMITTED) {
+                    deleteContentIfUnreferenced(contentHash);
+                }
+            }
+        });
 
         // エンティティ作成
         UploadedSqlFile sqlFile = new UploadedSqlFile();
         sqlFile.setFileName(file.getOriginalFilename());
-        sqlFile.setFileSize(file.getSize());
-        sqlFile.setSqlContent(sqlContent);
+        sqlFile.setFileSize(stored.getSize());
+        sqlFile.setContentHash(stored.getHash());
+        sqlFile.setStoredSize(stored.getStoredSize());
         sqlFile.setSqlType(sqlType);
         sqlFile.setDbmsType(dbmsType);
         sqlFile.setParseStatus("pending");
@@ -58,51 +94,64 @@ public class SqlFileService {
     }
 
     /**
-     * SQLファイルを解析してテーブル定義を抽出
+     * 同じ内容（ハッシュ）でアップロード済みの別ファイルのID
      */
-    @Transactional
-    public UploadedSqlFile parseSqlFile(Long sqlFileId) {
-        Optional<UploadedSqlFile> optionalFile = sqlFileRepository.findById(sqlFileId);
-        if (optionalFile.isEmpty()) {
-            throw new IllegalArgumentException("SQL file not found: " + sqlFileId);
+    public List<Long> findDuplicateIds(UploadedSqlFile sqlFile) {
+        if (sqlFile.getContentHash() == null) {
+            return Collections.emptyList();
         }
+        return sqlFileRepository.findByContentHashOrderByIdAsc(sqlFile.getContentHash()).stream()
+                .map(UploadedSqlFile::getId)
+                .filter(id -> !id.equals(sqlFile.getId()))
+                .collect(Collectors.toList());
+    }
 
-        UploadedSqlFile sqlFile = optionalFile.get();
-
-        try {
-            // SQL解析
-            List<ParsedTableDefinition> definitions = sqlParserService.parseAllTables(
-                    sqlFile.getSqlContent(),
-                    sqlFileId);
-
-            // 既存の解析結果を削除
-            List<ParsedTableDefinition> existing = tableDefinitionRepository.findBySqlFileId(sqlFileId);
-            if (!existing.isEmpty()) {
-                tableDefinitionRepository.deleteAll(existing);
-            }
-
-            // 新しい解析結果を保存
-            tableDefinitionRepository.saveAll(definitions);
-
-            // ステータス更新
-            sqlFile.setParseStatus("parsed");
-            sqlFile.setParseResult("{\"tableCount\": " + definitions.size() + "}");
-            sqlFile.setErrorMessage(null);
+    /**
+     * SQLファイルの内容を読み込むReader（旧形式の行はsql_contentから読む）
+     */
+    public Reader openContentReader(UploadedSqlFile sqlFile) throws IOException {
+        if (sqlFile.getContentHash() != null) {
+            return new BufferedReader(sqlFileStore.openReader(sqlFile.getContentHash()));
+        }
+        return new StringReader(sqlFile.getSqlContent() != null ? sqlFile.getSqlContent() : "");
+    }
 
-        } catch (Exception e) {
-            // エラーハンドリング
-            sqlFile.setParseStatus("error");
-            sqlFile.setErrorMessage(e.getMessage());
+    /**
+     * 画面表示用にSQLファイルの先頭から指定文字数までを取得
+     */
+    public String getContentPreview(UploadedSqlFile sqlFile, int maxChars) throws IOException {
+        if (sqlFile.getContentHash() != null) {
+            return sqlFileStore.readPreview(sqlFile.getContentHash(), maxChars);
         }
+        String content = sqlFile.getSqlContent() != null ? sqlFile.getSqlContent() : "";
+        return content.length() > maxChars ? content.substring(0, maxChars) : content;
+    }
 
-        return sqlFileRepository.save(sqlFile);
+    /**
+     * アップロード済みSQLファイル一覧をページ単位で取得（メタデータのみ）
+     *
+     * @param cursor 前ページの最後の行のカーソル（nullの場合は先頭ページ）
+     * @param limit  取得件数（hasMore判定のため1件多く取得する）
+     */
+    public List<UploadedSqlFileSummary> listSqlFileSummaries(String cursor, int limit) {
+        PageRequest page = PageRequest.of(0, limit + 1);
+        if (cursor == null || cursor.isEmpty()) {
+            return sqlFileRepository.findSummaries(page);
+        }
+        int separator = cursor.lastIndexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        LocalDateTime uploadedAt = LocalDateTime.parse(cursor.substring(0, separator));
+        Long id = Long.valueOf(cursor.substring(separator + 1));
+        return sqlFileRepository.findSummariesAfter(uploadedAt, id, page);
     }
 
     /**
-     * アップロード済みSQLファイル一覧を取得
+     * 一覧の次ページを取得するためのカーソル（アップロード日時|ID）
      */
-    public List<UploadedSqlFile> listAllSqlFiles() {
-        return sqlFileRepository.findAllByOrderByUploadedAtDesc();
+    public String toCursor(UploadedSqlFileSummary summary) {
+        return summary.getUploadedAt() + "|" + summary.getId();
     }
 
     /**
@@ -132,13 +181,55 @@ public class SqlFileService {
     @Transactional
     public void deleteSqlFile(Long sqlFileId) {
         // 関連テーブル定義を削除
-        List<ParsedTableDefinition> definitions = tableDefinitionRepository.findBySqlFileId(sqlFileId);
-        if (!definitions.isEmpty()) {
-            tableDefinitionRepository.deleteAll(definitions);
-        }
+        tableDefinitionRepository.deleteAllBySqlFileId(sqlFileId);
 
-        // SQLファイルを削除
+        // SQLファイルを削除（コミット後、同じ内容を参照する行も登録中のアップロードもない場合は保存ファイルも削除）
+        Optional<UploadedSqlFile> sqlFile = sqlFileRepository.findById(sqlFileId);
         sqlFileRepository.deleteById(sqlFileId);
+        String contentHash = sqlFile.map(UploadedSqlFile::getContentHash).orElse(null);
+        if (contentHash != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteContentIfUnreferenced(contentHash);
+                }
+            });
+        }
+    }
+
+    /**
+     * 参照する行のない保存ファイルを定期的に削除（アップロードの異常終了等で残ったファイル）
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.sql.store.sweep-interval-ms:3600000}",
+            initialDelayString = "${tablecraft.sql.store.sweep-interval-ms:3600000}")
+    public void sweepOrphanedContent() {
+        try {
+            int deleted = sqlFileStore.sweep(this::countReferences, orphanGraceMs);
+            if (deleted > 0) {
+                System.out.println("[SqlFileService] ✅ 参照されていない保存ファイルを削除: " + deleted + "件");
+            }
+        } catch (Exception e) {
+            System.err.println("[SqlFileService] ⚠️ 保存ファイルの整理に失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 内容を参照する行の数（コミット後の処理からも呼ぶため、別のトランザクションで問い合わせる）
+     */
+    private long countReferences(String contentHash) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        Long count = template.execute(status -> sqlFileRepository.countByContentHash(contentHash));
+        return count != null ? count : 0;
+    }
+
+    private void deleteContentIfUnreferenced(String contentHash) {
+        try {
+            sqlFileStore.deleteIfUnreferenced(contentHash, () -> countReferences(contentHash));
+        } catch (Exception e) {
+            System.err.println("[SqlFileService] ⚠️ 保存ファイルの削除に失敗: " + contentHash + " - " + e.getMessage());
+        }
     }
 
     /**
@@ -163,5 +254,11 @@ public class SqlFileService {
         // 外部キー制約を考慮して、まずテーブル定義を削除
         entityManager.createNativeQuery("DELETE FROM parsed_table_definitions").executeUpdate();
         entityManager.createNativeQuery("DELETE FROM uploaded_sql_files").executeUpdate();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sqlFileStore.deleteAll();
+            }
+        });
     }
 }
@@ -0,0 +1,270 @@
+package com.tablecraft.app.admin.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * アップロードされたSQLファイルの保存先（内容のSHA-256をファイル名にしたgzipファイル）
+ * 書き込み・読み込みともにストリームで行い、ファイル全体をメモリに載せない
+ * 同じ内容のファイルは1つだけ保存される
+ * 登録中（行のコミット前）のハッシュは保留として記録し、保留中または参照する行があるファイルは削除しない
+ */
+@Component
+public class SqlFileStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SUFFIX = ".sql.gz";
+
+    @Value("${tablecraft.sql.store.path:data/sql-store}")
+    private String storePath;
+
+    // 登録中のハッシュ → 件数（保存と削除の判定はこのロックの中で行う）
+    private final Map<String, Integer> pending = new HashMap<>();
+
+    /**
+     * 内容をハッシュ計算しながら圧縮して保存
+     * 保存したハッシュは保留として記録するため、呼び出し側は行の登録の完了後に release() を呼ぶ
+     */
+    public StoredContent store(InputStream input) throws IOException {
+        Path root = getRoot();
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+
+        MessageDigest digest = newDigest();
+        long size = 0;
+        try {
+            try (InputStream in = new DigestInputStream(input, digest);
+                 OutputStream out = new GZIPOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), BUFFER_SIZE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String hash = toHex(digest.digest());
+            Path target = resolve(hash);
+            Files.createDirectories(target.getParent());
+            boolean existing;
+            long storedSize;
+            synchronized (pending) {
+                existing = Files.exists(target);
+                if (existing) {
+                    // 同じ内容は保存済み
+                    Files.delete(temp);
+                } else {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                storedSize = Files.size(target);
+                pending.merge(hash, 1, Integer::sum);
+            }
+            return new StoredContent(hash, size, storedSize, existing);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 保存済みの内容をUTF-8で読み込むReader（呼び出し側でcloseする）
+     */
+    public Reader openReader(String hash) throws IOException {
+        Path file = resolve(hash);
+        if (!Files.exists(file)) {
+            throw new FileNotFoundException("SQL file content not found: " + hash);
+        }
+        return new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 先頭から指定文字数までを読み込む（画面表示用）
+     */
+    public String readPreview(String hash, int maxChars) throws IOException {
+        StringBuilder preview = new StringBuilder();
+        try (Reader reader = openReader(hash)) {
+            char[] buffer = new char[Math.min(BUFFER_SIZE, Math.max(1, maxChars))];
+            int read;
+            while (preview.length() < maxChars
+                    && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - preview.length()))) >= 0) {
+                preview.append(buffer, 0, read);
+            }
+        }
+        return preview.toString();
+    }
+
+    public boolean exists(String hash) {
+        return hash != null && Files.exists(resolve(hash));
+    }
+
+    /**
+     * 登録の完了（コミット・ロールバック）時に保留を解除
+     */
+    public void release(String hash) {
+        synchronized (pending) {
+            pending.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * 登録中でなく、参照する行もない場合のみファイルを削除
+     *
+     * @param referenceCount 参照する行の数（コミット済みの状態を問い合わせる）
+     * @return 削除した場合true
+     */
+    public boolean deleteIfUnreferenced(String hash, LongSupplier referenceCount) {
+        synchronized (pending) {
+            if (pending.containsKey(hash) || referenceCount.getAsLong() > 0) {
+                return false;
+            }
+            try {
+                return Files.deleteIfExists(resolve(hash));
+            } catch (IOException e) {
+                System.err.println("[SqlFileStore] ⚠️ ファイルの削除に失敗: " + hash + " - " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 参照する行のないファイルを削除（登録の失敗・異常終了で残ったファイル）
+     *
+     * @param minAgeMs これより新しいファイルは対象外（登録中の可能性があるため）
+     * @return 削除したファイル数
+     */
+    public int sweep(ToLongFunction<String> referenceCount, long minAgeMs) {
+        Path root = getRoot();
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        long threshold = System.currentTimeMillis() - minAgeMs;
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root)) {
+            List<Path> paths = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .collect(Collectors.toList());
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                String hash = fileName.substring(0, fileName.length() - SUFFIX.length());
+                if (!hash.matches("[0-9a-f]{64}") || Files.getLastModifiedTime(path).toMillis() > threshold) {
+                    continue;
+                }
+                if (deleteIfUnreferenced(hash, () -> referenceCount.applyAsLong(hash))) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[SqlFileStore] ⚠️ 保存先の走査に失敗: " + e.getMessage());
+        }
+        return deleted;
+    }
+
+    /**
+     * 保存済みのファイルをすべて削除（登録中のファイルを除く）
+     */
+    public void deleteAll() {
+        Path root = getRoot();
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).forEach(path -> {
+                String fileName = path.getFileName().toString();
+                synchronized (pending) {
+                    if (pending.containsKey(fileName.substring(0, fileName.length() - SUFFIX.length()))) {
+                        return;
+                    }
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        System.err.println("[SqlFileStore] ⚠️ ファイルの削除に失敗: " + path + " - " + e.getMessage());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("[SqlFileStore] ⚠️ 保存先の走査に失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * ハッシュの先頭2文字でディレクトリを分ける
+     */
+    private Path resolve(String hash) {
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Invalid content hash: " + hash);
+        }
+        return getRoot().resolve(hash.substring(0, 2)).resolve(hash + SUFFIX);
+    }
+
+    private Path getRoot() {
+        return Paths.get(storePath).toAbsolutePath();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 保存結果（ハッシュ、元のサイズ、圧縮後のサイズ）
+     */
+    public static class StoredContent {
+        private final String hash;
+        private final long size;
+        private final long storedSize;
+        private final boolean existing;
+
+        StoredContent(String hash, long size, long storedSize, boolean existing) {
+            this.hash = hash;
+            this.size = size;
+            this.storedSize = storedSize;
+            this.existing = existing;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getStoredSize() {
+            return storedSize;
+        }
+
+        /**
+         * 同じ内容が保存済みだったか（新しいファイルは作成していない）
+         */
+        public boolean isExisting() {
+            return existing;
+        }
+    }
+}
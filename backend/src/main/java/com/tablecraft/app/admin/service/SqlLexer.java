@@ -0,0 +1,452 @@
+package com.tablecraft.app.admin.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * SQLの字句解析・文分割（1パス）
+ * コメント（-- / # / ブロック）、文字列、引用符付き識別子を考慮して「;」で文を区切り、文ごとにトークン列を返す
+ * MySQLの条件付きコメント（／*!50100 ... *／）の中身は通常のSQLとして扱う
+ * Readerから逐次読み込むため、保持するのは処理中の1文分のみ
+ */
+public class SqlLexer implements Closeable {
+
+    public enum TokenType {
+        WORD, QUOTED_IDENTIFIER, STRING, NUMBER, SYMBOL
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // 先頭キーワードによる絞り込み（nullの場合はすべての文を返す）
+    private final Set<String> leadingKeywords;
+
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder value = new StringBuilder();
+    private List<Token> tokens = new ArrayList<>();
+    private boolean skipping;
+    private boolean inConditionalComment;
+    private int line = 1;
+    private int statementLine;
+    private int statementIndex;
+    private int skippedCount;
+
+    public SqlLexer(Reader reader) {
+        this(reader, (String[]) null);
+    }
+
+    /**
+     * @param leadingKeywords 返す文の先頭キーワード（例: CREATE）。それ以外の文（大量のINSERT等）はトークンを保持せず読み飛ばす
+     */
+    public SqlLexer(Reader reader, String... leadingKeywords) {
+        this.reader = reader;
+        if (leadingKeywords == null || leadingKeywords.length == 0) {
+            this.leadingKeywords = null;
+        } else {
+            this.leadingKeywords = new HashSet<>();
+            for (String keyword : leadingKeywords) {
+                this.leadingKeywords.add(keyword.toUpperCase());
+            }
+        }
+    }
+
+    /**
+     * 文字列をすべての文に分割
+     */
+    public static List<Statement> split(String sql) {
+        List<Statement> statements = new ArrayList<>();
+        try (SqlLexer lexer = new SqlLexer(new StringReader(sql))) {
+            Statement statement;
+            while ((statement = lexer.nextStatement()) != null) {
+                statements.add(statement);
+            }
+        } catch (IOException e) {
+            // StringReaderでは発生しない
+            throw new IllegalStateException(e);
+        }
+        return statements;
+    }
+
+    /**
+     * 次の文（末尾に達した場合はnull）
+     */
+    public Statement nextStatement() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                if (tokens.isEmpty() || skipping) {
+                    resetStatement();
+                    return null;
+                }
+                return emit();
+            }
+            char ch = (char) c;
+
+            if (ch == ';') {
+                if (skipping) {
+                    skippedCount++;
+                    resetStatement();
+                } else if (!tokens.isEmpty()) {
+                    return emit();
+                }
+                continue;
+            }
+            if (Character.isWhitespace(ch)) {
+                continue;
+            }
+            if (ch == '#' || (ch == '-' && peek() == '-')) {
+                skipLine();
+                continue;
+            }
+            if (ch == '/' && peek() == '*') {
+                read();
+                if (peek() == '!') {
+                    // 条件付きコメントはバージョン番号を読み飛ばして中身を解析する
+                    read();
+                    while (isDigit(peek())) {
+                        read();
+                    }
+                    inConditionalComment = true;
+                } else {
+                    skipBlockComment();
+                }
+                continue;
+            }
+            if (ch == '*' && inConditionalComment && peek() == '/') {
+                read();
+                inConditionalComment = false;
+                continue;
+            }
+
+            int start = beginToken();
+            if (ch == '\'') {
+                readQuoted('\'', true);
+                addToken(TokenType.STRING, start);
+            } else if (ch == '`' || ch == '"') {
+                readQuoted(ch, false);
+                addToken(TokenType.QUOTED_IDENTIFIER, start);
+            } else if (ch == '[') {
+                readBracketed();
+                addToken(TokenType.QUOTED_IDENTIFIER, start);
+            } else if (isDigit(ch)) {
+                while (isWordPart(peek()) || peek() == '.') {
+                    read();
+                }
+                addToken(TokenType.NUMBER, start);
+            } else if (isWordStart(ch)) {
+                while (isWordPart(peek())) {
+                    read();
+                }
+                addToken(TokenType.WORD, start);
+            } else {
+                addToken(TokenType.SYMBOL, start);
+            }
+        }
+    }
+
+    /**
+     * 読み飛ばした文の数（先頭キーワードで絞り込んだ場合）
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int beginToken() {
+        if (tokens.isEmpty() && !skipping) {
+            // 文の前のコメント・空白は保持しない
+            String first = text.length() > 0 ? text.substring(text.length() - 1) : "";
+            text.setLength(0);
+            text.append(first);
+            statementLine = line;
+        }
+        return text.length() - 1;
+    }
+
+    private void addToken(TokenType type, int start) {
+        if (skipping) {
+            return;
+        }
+        String tokenValue;
+        if (type == TokenType.STRING || type == TokenType.QUOTED_IDENTIFIER) {
+            tokenValue = value.toString();
+        } else {
+            tokenValue = text.substring(start);
+        }
+        tokens.add(new Token(type, tokenValue, start, text.length()));
+
+        if (tokens.size() == 1 && leadingKeywords != null
+                && !(type == TokenType.WORD && leadingKeywords.contains(tokenValue.toUpperCase()))) {
+            skipping = true;
+            tokens.clear();
+            text.setLength(0);
+        }
+    }
+
+    private Statement emit() {
+        Token last = tokens.get(tokens.size() - 1);
+        Statement statement = new Statement(statementIndex++, statementLine, text.substring(0, last.end), tokens);
+        tokens = new ArrayList<>();
+        resetStatement();
+        return statement;
+    }
+
+    private void resetStatement() {
+        text.setLength(0);
+        tokens.clear();
+        skipping = false;
+    }
+
+    /**
+     * 引用符で囲まれた文字列・識別子（引用符の二重化とバックスラッシュのエスケープに対応）
+     */
+    private void readQuoted(char quote, boolean backslashEscape) throws IOException {
+        value.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return;
+            }
+            char ch = (char) c;
+            if (backslashEscape && ch == '\\') {
+                int escaped = read();
+                if (escaped >= 0) {
+                    appendValue(unescape((char) escaped));
+                }
+            } else if (ch == quote) {
+                if (peek() != quote) {
+                    return;
+                }
+                read();
+                appendValue(quote);
+            } else {
+                appendValue(ch);
+            }
+        }
+    }
+
+    private void readBracketed() throws IOException {
+        value.setLength(0);
+        int c;
+        while ((c = read()) >= 0 && c != ']') {
+            appendValue((char) c);
+        }
+    }
+
+    private void appendValue(char ch) {
+        if (!skipping) {
+            value.append(ch);
+        }
+    }
+
+    private static char unescape(char ch) {
+        switch (ch) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case '0':
+                return '\0';
+            default:
+                return ch;
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && c != '\n') {
+            read();
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '*' && peek() == '/') {
+                read();
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        char ch = buffer[position++];
+        if (ch == '\n') {
+            line++;
+        }
+        if (!skipping) {
+            text.append(ch);
+        }
+        return ch;
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, BUFFER_SIZE);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isWordPart(int c) {
+        return c >= 0 && (Character.isLetterOrDigit(c) || c == '_' || c == '$');
+    }
+
+    /**
+     * トークン（文字列・引用符付き識別子のvalueは引用符を除いた値）
+     */
+    public static class Token {
+        private final TokenType type;
+        private final String value;
+        private final int start;
+        private final int end;
+
+        Token(TokenType type, String value, int start, int end) {
+            this.type = type;
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        public TokenType getType() {
+            return type;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * 文のテキスト内の開始位置
+         */
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * 指定したキーワードか（大文字小文字を区別しない）
+         */
+        public boolean is(String keyword) {
+            return type == TokenType.WORD && value.equalsIgnoreCase(keyword);
+        }
+
+        public boolean isSymbol(char symbol) {
+            return type == TokenType.SYMBOL && value.length() == 1 && value.charAt(0) == symbol;
+        }
+
+        public boolean isIdentifier() {
+            return type == TokenType.WORD || type == TokenType.QUOTED_IDENTIFIER;
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + value;
+        }
+    }
+
+    /**
+     * 1文分のテキストとトークン列
+     */
+    public static class Statement {
+        private final int index;
+        private final int line;
+        private final String text;
+        private final List<Token> tokens;
+
+        Statement(int index, int line, String text, List<Token> tokens) {
+            this.index = index;
+            this.line = line;
+            this.text = text;
+            this.tokens = Collections.unmodifiableList(tokens);
+        }
+
+        /**
+         * 入力内での文の順番（0始まり、読み飛ばした文は含まない）
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * 文の開始行
+         */
+        public int getLine() {
+            return line;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<Token> getTokens() {
+            return tokens;
+        }
+
+        public Token getToken(int index) {
+            return index < tokens.size() ? tokens.get(index) : null;
+        }
+
+        /**
+         * トークン範囲の元のテキスト（toは含まない）
+         */
+        public String getSource(int from, int to) {
+            if (from >= to) {
+                return "";
+            }
+            return text.substring(tokens.get(from).start, tokens.get(to - 1).end);
+        }
+
+        /**
+         * 開き括弧に対応する閉じ括弧のトークン位置（見つからない場合は-1）
+         */
+        public int findClosingParen(int openIndex) {
+            int depth = 0;
+            for (int i = openIndex; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.isSymbol('(')) {
+                    depth++;
+                } else if (token.isSymbol(')') && --depth == 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
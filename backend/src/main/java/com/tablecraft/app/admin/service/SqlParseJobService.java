@@ -0,0 +1,440 @@
+package com.tablecraft.app.admin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tablecraft.app.admin.entity.ParsedTableDefinition;
+import com.tablecraft.app.admin.entity.UploadedSqlFile;
+import com.tablecraft.app.admin.repository.ParsedTableDefinitionRepository;
+import com.tablecraft.app.admin.repository.UploadedSqlFileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * SQLファイルの解析ジョブ
+ * 解析はHTTPリクエストとは別の専用スレッドで実行し、解析できたテーブル定義は一定件数ごとに保存する
+ * 進捗（CREATE TABLE文の処理済み件数/総数）はジョブIDで取得、またはリスナーで受け取る
+ */
+@Service
+public class SqlParseJobService {
+
+    @Value("${tablecraft.sql.parse.job.threads:2}")
+    private int jobThreads;
+
+    @Value("${tablecraft.sql.parse.job.batch-size:1000}")
+    private int batchSize;
+
+    // 保持する完了済みジョブの数
+    @Value("${tablecraft.sql.parse.job.retain:50}")
+    private int retainJobs;
+
+    @Autowired
+    private UploadedSqlFileRepository sqlFileRepository;
+
+    @Autowired
+    private ParsedTableDefinitionRepository tableDefinitionRepository;
+
+    @Autowired
+    private ParsedTableDefinitionWriter tableDefinitionWriter;
+
+    @Autowired
+    private SqlFileService sqlFileService;
+
+    @Autowired
+    private SqlParserService sqlParserService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExecutorService jobExecutor;
+
+    private final Map<String, ParseJob> jobs = new ConcurrentHashMap<>();
+
+    // 実行中のジョブ（同じファイルの解析は同時に1つまで）
+    private final Map<Long, ParseJob> activeJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        jobExecutor = Executors.newFixedThreadPool(Math.max(1, jobThreads), runnable -> {
+            Thread thread = new Thread(runnable, "sql-parse-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * 解析ジョブを登録（同じファイルを解析中の場合はそのジョブを返す）
+     */
+    public ParseJob submit(Long sqlFileId) {
+        if (!sqlFileRepository.existsById(sqlFileId)) {
+            throw new IllegalArgumentException("SQL file not found: " + sqlFileId);
+        }
+
+        ParseJob[] created = new ParseJob[1];
+        ParseJob job = activeJobs.computeIfAbsent(sqlFileId, id -> {
+            created[0] = new ParseJob(UUID.randomUUID().toString(), id);
+            return created[0];
+        });
+        if (created[0] == null) {
+            return job;
+        }
+
+        jobs.put(job.jobId, job);
+        evictFinishedJobs();
+        updateParseStatus(job, "queued", null);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(sqlFileId, job);
+            job.finish("failed", "解析ジョブを開始できません");
+            updateParseStatus(job, "error", job.message);
+        }
+        return job;
+    }
+
+    public Optional<ParseJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * ファイルの直近のジョブ（再起動後などジョブが残っていない場合は空）
+     */
+    public Optional<ParseJob> findLatestJob(Long sqlFileId) {
+        return jobs.values().stream()
+                .filter(job -> job.sqlFileId.equals(sqlFileId))
+                .max(Comparator.comparing(job -> job.startedAt));
+    }
+
+    private void run(ParseJob job) {
+        long startTime = System.currentTimeMillis();
+        job.update("parsing");
+        updateParseStatus(job, "parsing", null);
+        System.out.println("[SqlParseJobService] 解析開始: sqlFileId=" + job.sqlFileId + " (job " + job.jobId + ")");
+
+        List<Map<String, Object>> errors = new ArrayList<>();
+        try {
+            UploadedSqlFile sqlFile = sqlFileRepository.findById(job.sqlFileId)
+                    .orElseThrow(() -> new IllegalArgumentException("SQL file not found: " + job.sqlFileId));
+
+            // 既存の解析結果を削除
+            tableDefinitionRepository.deleteAllBySqlFileId(job.sqlFileId);
+
+            List<ParsedTableDefinition> batch = new ArrayList<>(batchSize);
+            UploadedSqlFile sameContent = findParsedSameContent(sqlFile);
+            if (sameContent != null) {
+                // 同じ内容のファイルが解析済みの場合は解析せずに結果をコピーする
+                job.reusedFrom = sameContent.getId();
+                copyDefinitions(job, sameContent.getId(), batch);
+            } else {
+                try (Reader reader = sqlFileService.openContentReader(sqlFile)) {
+                    sqlParserService.parseAllTables(reader, job.sqlFileId, new SqlParserService.ParseListener() {
+                        @Override
+                        public void onStatementFound(int found) {
+                            job.total = found;
+                        }
+
+                        @Override
+                        public void onScanCompleted(int total) {
+                            job.total = total;
+                            job.totalKnown = true;
+                            job.notifyListeners();
+                        }
+
+                        @Override
+                        public void onParsed(ParsedTableDefinition definition) {
+                            batch.add(definition);
+                            job.done++;
+                            if (definition.isReused()) {
+                                job.reusedCount++;
+                            }
+                            if (batch.size() >= batchSize) {
+                                saveBatch(job, batch);
+                            }
+                        }
+
+                        @Override
+                        public void onError(Map<String, Object> error) {
+                            errors.add(error);
+                            job.done++;
+                            job.errorCount++;
+                        }
+                    });
+                }
+            }
+            saveBatch(job, batch);
+
+            // ステータス更新（解析できなかった文はエラーとして記録し、残りは保存済み）
+            String message = errors.isEmpty() ? null : errors.size() + "件の文を解析できませんでした";
+            Map<String, Object> parseResult = new LinkedHashMap<>();
+            parseResult.put("jobId", job.jobId);
+            parseResult.put("tableCount", job.saved);
+            parseResult.put("reusedCount", job.reusedCount);
+            if (job.reusedFrom != null) {
+                parseResult.put("reusedFrom", job.reusedFrom);
+            }
+            parseResult.put("elapsedMs", System.currentTimeMillis() - startTime);
+            if (!errors.isEmpty()) {
+                parseResult.put("errorCount", errors.size());
+                parseResult.put("errors", errors);
+            }
+            sqlFileRepository.updateParseStatus(job.sqlFileId, "parsed", toJson(parseResult), message);
+            job.errors = errors;
+            job.finish("completed", message);
+            System.out.println("[SqlParseJobService] ✅ 解析完了: sqlFileId=" + job.sqlFileId + " ("
+                    + job.saved + " テーブル, 再利用 " + job.reusedCount + " 件, エラー " + errors.size() + " 件, "
+                    + (System.currentTimeMillis() - startTime) + "ms)");
+
+        } catch (Exception e) {
+            // エラーハンドリング
+            System.err.println("[SqlParseJobService] ❌ 解析失敗: sqlFileId=" + job.sqlFileId + " - " + e.getMessage());
+            deletePartialResults(job);
+            updateParseStatus(job, "error", e.getMessage());
+            job.errors = errors;
+            job.finish("failed", e.getMessage());
+        } finally {
+            activeJobs.remove(job.sqlFileId, job);
+        }
+    }
+
+    /**
+     * 同じ内容（ハッシュ）で解析済みの別ファイル（なければnull）
+     */
+    private UploadedSqlFile findParsedSameContent(UploadedSqlFile sqlFile) {
+        if (sqlFile.getContentHash() == null) {
+            return null;
+        }
+        return sqlFileRepository.findByContentHashOrderByIdAsc(sqlFile.getContentHash()).stream()
+                .filter(other -> !other.getId().equals(sqlFile.getId()) && "parsed".equals(other.getParseStatus()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * 別ファイルの解析結果を一定件数ごとにコピーして保存
+     */
+    private void copyDefinitions(ParseJob job, Long sourceFileId, List<ParsedTableDefinition> batch) {
+        List<ParsedTableDefinition> source = tableDefinitionRepository.findBySqlFileId(sourceFileId);
+        job.total = source.size();
+        job.totalKnown = true;
+        for (ParsedTableDefinition original : source) {
+            ParsedTableDefinition copy = new ParsedTableDefinition();
+            copy.setSqlFileId(job.sqlFileId);
+            copy.setSchemaName(original.getSchemaName());
+            copy.setTableName(original.getTableName());
+            copy.setTableStructure(original.getTableStructure());
+            copy.setForeignKeys(original.getForeignKeys());
+            copy.setIndexes(original.getIndexes());
+            copy.setStatementHash(original.getStatementHash());
+            batch.add(copy);
+            job.done++;
+            job.reusedCount++;
+            if (batch.size() >= batchSize) {
+                saveBatch(job, batch);
+            }
+        }
+    }
+
+    private void saveBatch(ParseJob job, List<ParsedTableDefinition> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        tableDefinitionWriter.insertAll(batch);
+        job.saved += batch.size();
+        batch.clear();
+        updateParseStatus(job, "parsing", null);
+        job.notifyListeners();
+    }
+
+    /**
+     * 途中まで保存した解析結果を削除（失敗したファイルの結果が一部だけ残らないようにする）
+     */
+    private void deletePartialResults(ParseJob job) {
+        try {
+            int deleted = tableDefinitionRepository.deleteAllBySqlFileId(job.sqlFileId);
+            job.saved = 0;
+            if (deleted > 0) {
+                System.out.println("[SqlParseJobService] 途中まで保存した解析結果を削除: sqlFileId=" + job.sqlFileId
+                        + " (" + deleted + " 件)");
+            }
+        } catch (Exception e) {
+            System.err.println("[SqlParseJobService] ⚠️ 途中まで保存した解析結果の削除に失敗: sqlFileId=" + job.sqlFileId
+                    + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * uploaded_sql_filesの解析ステータスと進捗を更新（SQLファイルの内容は読み込まない）
+     */
+    private void updateParseStatus(ParseJob job, String parseStatus, String errorMessage) {
+        try {
+            sqlFileRepository.updateParseStatus(job.sqlFileId, parseStatus, toJson(job.toProgressMap()), errorMessage);
+        } catch (Exception e) {
+            System.err.println("[SqlParseJobService] ⚠️ ステータスの更新に失敗: sqlFileId=" + job.sqlFileId
+                    + " - " + e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() <= retainJobs) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ParseJob::isFinished)
+                .sorted(Comparator.comparing(job -> job.finishedAt))
+                .limit(jobs.size() - retainJobs)
+                .forEach(job -> jobs.remove(job.jobId));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            return "{}";
+        }
+    }
+
+    /**
+     * 解析ジョブの状態
+     */
+    public static class ParseJob {
+        private final String jobId;
+        private final Long sqlFileId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final List<Consumer<ParseJob>> listeners = new CopyOnWriteArrayList<>();
+        private volatile String status = "queued";
+        private volatile int total;
+        private volatile boolean totalKnown;
+        private volatile int done;
+        private volatile int saved;
+        private volatile int errorCount;
+        private volatile int reusedCount;
+        private volatile Long reusedFrom;
+        private volatile List<Map<String, Object>> errors = Collections.emptyList();
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        ParseJob(String jobId, Long sqlFileId) {
+            this.jobId = jobId;
+            this.sqlFileId = sqlFileId;
+        }
+
+        void update(String status) {
+            this.status = status;
+            notifyListeners();
+        }
+
+        void finish(String status, String message) {
+            synchronized (this) {
+                this.status = status;
+                this.message = message;
+                this.finishedAt = LocalDateTime.now();
+            }
+            finished.countDown();
+            notifyListeners();
+            listeners.clear();
+        }
+
+        /**
+         * 進捗が更新されるたびに通知を受け取る（完了済みの場合は即時に1回だけ通知）
+         * 通知中に例外を投げたリスナーは解除する
+         */
+        public void subscribe(Consumer<ParseJob> listener) {
+            synchronized (this) {
+                if (!isFinished()) {
+                    listeners.add(listener);
+                    return;
+                }
+            }
+            listener.accept(this);
+        }
+
+        void notifyListeners() {
+            for (Consumer<ParseJob> listener : listeners) {
+                try {
+                    listener.accept(this);
+                } catch (Exception e) {
+                    listeners.remove(listener);
+                }
+            }
+        }
+
+        /**
+         * 完了まで待つ（タイムアウトした場合はfalse）
+         */
+        public boolean await(long timeoutMs) throws InterruptedException {
+            return finished.await(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        public boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public Long getSqlFileId() {
+            return sqlFileId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * uploaded_sql_files.parse_result に保存する進捗
+         */
+        Map<String, Object> toProgressMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", jobId);
+            map.put("done", done);
+            map.put("total", total);
+            map.put("totalKnown", totalKnown);
+            map.put("tableCount", saved);
+            map.put("errorCount", errorCount);
+            map.put("reusedCount", reusedCount);
+            return map;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", jobId);
+            map.put("sqlFileId", sqlFileId);
+            map.put("status", status);
+            map.put("done", done);
+            map.put("total", total);
+            map.put("totalKnown", totalKnown);
+            map.put("percent", totalKnown && total > 0 ? Math.min(100, done * 100 / total) : null);
+            map.put("tableCount", saved);
+            map.put("errorCount", errorCount);
+            map.put("reusedCount", reusedCount);
+            map.put("reusedFrom", reusedFrom);
+            if (isFinished() && !errors.isEmpty()) {
+                map.put("errors", errors);
+            }
+            map.put("message", message);
+            map.put("startedAt", startedAt.toString());
+            map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+            return map;
+        }
+    }
+}
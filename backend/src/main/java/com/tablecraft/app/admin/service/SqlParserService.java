@@ -2,68 +2,229 @@ package com.tablecraft.app.admin.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tablecraft.app.admin.entity.ParsedTableDefinition;
+import com.tablecraft.app.admin.service.SqlLexer.Token;
+import com.tablecraft.app.admin.service.SqlLexer.TokenType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * SQLパーサーサービス
  * CREATE TABLE文を解析してテーブル定義を抽出
+ * SqlLexerで1パスで文に分割し、CREATE TABLE文の構文木（CreateTableStatement）から各定義を作成する
+ * 文ごとの解析は独立しているため、ForkJoinPoolで並列に実行する（tablecraft.sql.parse.parallelism）
  */
 @Service
 public class SqlParserService {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${tablecraft.sql.parse.parallelism:0}")
+    private int parseParallelism;
+
+    // 解析待ちとして保持する文の数の上限（並列数あたり、超えた分は先頭から完了を待つ）
+    @Value("${tablecraft.sql.parse.window-per-thread:64}")
+    private int windowPerThread;
+
+    @Autowired
+    private ParsedStatementCache parsedStatementCache;
+
+    // CREATE TABLE文ごとの解析を行うワーカー（0の場合はCPUコア数）
+    private ForkJoinPool parsePool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = parseParallelism > 0 ? parseParallelism : Runtime.getRuntime().availableProcessors();
+        parsePool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("sql-parse-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdownNow();
+    }
+
     /**
      * SQL文からCREATE TABLE定義をすべて解析
      */
     public List<ParsedTableDefinition> parseAllTables(String sqlContent, Long sqlFileId) {
-        List<ParsedTableDefinition> definitions = new ArrayList<>();
+        try {
+            return parseAllTables(new StringReader(sqlContent), sqlFileId, (List<Map<String, Object>>) null);
+        } catch (IOException e) {
+            // StringReaderでは発生しない
+            throw new IllegalStateException(e);
+        }
+    }
 
-        // CREATE TABLE文を抽出（複数対応）
-        Pattern createTablePattern = Pattern.compile(
-                "CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?([`\"\\[]?\\w+[`\"\\]]?(?:\\.[`\"\\[]?\\w+[`\"\\]]?)?)",
-                Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    /**
+     * SQLを先頭から1パスで文に分割し、CREATE TABLE文を並列に解析
+     * CREATE以外の文（INSERT等）はトークンを保持せずに読み飛ばす
+     * 結果は入力の順序どおりに返し、解析に失敗した文はerrorsに追加して続行する
+     *
+     * @param errors 文ごとのエラー（line、tableName、error）の追加先（nullの場合は記録しない）
+     */
+    public List<ParsedTableDefinition> parseAllTables(Reader sqlReader, Long sqlFileId,
+                                                      List<Map<String, Object>> errors) throws IOException {
+        List<ParsedTableDefinition> definitions = new ArrayList<>();
+        parseAllTables(sqlReader, sqlFileId, new ParseListener() {
+            @Override
+            public void onParsed(ParsedTableDefinition definition) {
+                definitions.add(definition);
+            }
 
-        Matcher matcher = createTablePattern.matcher(sqlContent);
-        int lastEnd = 0;
+            @Override
+            public void onError(Map<String, Object> error) {
+                if (errors != null) {
+                    errors.add(error);
+                }
+            }
+        });
+        return definitions;
+    }
 
-        while (matcher.find(lastEnd)) {
-            int start = matcher.start();
-            String tableName = matcher.group(1);
+    /**
+     * SQLを解析し、結果を入力の順序どおりにlistenerへ渡す（listenerは呼び出し元のスレッドで呼ばれる）
+     */
+    public void parseAllTables(Reader sqlReader, Long sqlFileId, ParseListener listener) throws IOException {
+        Deque<ParseTask> pending = new ArrayDeque<>();
+        int window = Math.max(1, parsePool.getParallelism() * Math.max(1, windowPerThread));
+        int found = 0;
 
-            // テーブル定義の終端を検索（次のCREATE TABLEまたは末尾）
-            Matcher nextMatcher = createTablePattern.matcher(sqlContent);
-            int end = sqlContent.length();
-            if (nextMatcher.find(matcher.end())) {
-                end = nextMatcher.start();
+        try {
+            SqlLexer lexer = new SqlLexer(sqlReader, "CREATE");
+            SqlLexer.Statement statement;
+            while ((statement = lexer.nextStatement()) != null) {
+                if (!CreateTableStatement.isCreateTable(statement)) {
+                    continue;
+                }
+                SqlLexer.Statement target = statement;
+                pending.add(new ParseTask(target, parsePool.submit(() -> parseCached(target, sqlFileId))));
+                listener.onStatementFound(++found);
+                // 字句解析が先行しすぎないよう、保持する文の数を制限する
+                while (pending.size() > window) {
+                    collect(pending.poll(), listener);
+                }
+            }
+            listener.onScanCompleted(found);
+            while (!pending.isEmpty()) {
+                collect(pending.poll(), listener);
             }
+        } finally {
+            // 途中で失敗した場合は残りの解析を取り消す
+            pending.forEach(task -> task.result.cancel(true));
+        }
+    }
 
-            String tableDefinition = sqlContent.substring(start, end).trim();
+    /**
+     * 同じ文の解析結果がキャッシュにあれば再利用し、なければ解析してキャッシュに追加
+     */
+    private ParsedTableDefinition parseCached(SqlLexer.Statement statement, Long sqlFileId) {
+        CreateTableStatement create = CreateTableStatement.parse(statement);
+        String statementHash = ParsedStatementCache.hash(create);
+        ParsedTableDefinition cached = parsedStatementCache.get(statementHash, sqlFileId);
+        if (cached != null) {
+            return cached;
+        }
+        ParsedTableDefinition definition = parseTableDefinition(create, sqlFileId);
+        definition.setStatementHash(statementHash);
+        parsedStatementCache.put(statementHash, definition);
+        return definition;
+    }
 
-            try {
-                ParsedTableDefinition definition = parseTableDefinition(tableDefinition, tableName, sqlFileId);
-                definitions.add(definition);
-            } catch (Exception e) {
-                // パースエラーは無視して次へ
-                System.err.println("Failed to parse table: " + tableName + ", error: " + e.getMessage());
-            }
+    private void collect(ParseTask task, ParseListener listener) {
+        ParsedTableDefinition definition;
+        try {
+            definition = task.result.join();
+        } catch (Exception e) {
+            // パースエラーは記録して次へ
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            String tableName = guessTableName(task.statement);
+            System.err.println("[SqlParserService] ⚠️ テーブル定義の解析に失敗: " + tableName
+                    + " (" + task.statement.getLine() + "行目) - " + cause.getMessage());
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("statementIndex", task.statement.getIndex());
+            error.put("line", task.statement.getLine());
+            error.put("tableName", tableName);
+            error.put("error", String.valueOf(cause.getMessage()));
+            listener.onError(error);
+            return;
+        }
+        listener.onParsed(definition);
+    }
+
+    /**
+     * 解析の進捗の通知先（onParsed / onError は入力の順序どおりに呼ばれる）
+     */
+    public interface ParseListener {
 
-            lastEnd = end;
+        /**
+         * CREATE TABLE文を見つけた（foundはここまでの件数）
+         */
+        default void onStatementFound(int found) {
         }
 
-        return definitions;
+        /**
+         * 入力の末尾まで読み終えた（totalはCREATE TABLE文の総数）
+         */
+        default void onScanCompleted(int total) {
+        }
+
+        void onParsed(ParsedTableDefinition definition);
+
+        default void onError(Map<String, Object> error) {
+        }
+    }
+
+    /**
+     * エラー表示用のテーブル名（IF NOT EXISTS の後の最初の識別子）
+     */
+    private String guessTableName(SqlLexer.Statement statement) {
+        for (Token token : statement.getTokens()) {
+            if (token.isIdentifier() && !token.is("CREATE") && !token.is("TEMPORARY") && !token.is("TABLE")
+                    && !token.is("IF") && !token.is("NOT") && !token.is("EXISTS")) {
+                return token.getValue();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 解析中の文と結果
+     */
+    private static class ParseTask {
+        private final SqlLexer.Statement statement;
+        private final ForkJoinTask<ParsedTableDefinition> result;
+
+        ParseTask(SqlLexer.Statement statement, ForkJoinTask<ParsedTableDefinition> result) {
+            this.statement = statement;
+            this.result = result;
+        }
     }
 
     /**
      * 単一テーブルのCREATE TABLE文を解析
      */
     public ParsedTableDefinition parseTableDefinition(String sql, String fullTableName, Long sqlFileId) {
-        ParsedTableDefinition definition = new ParsedTableDefinition();
-        definition.setSqlFileId(sqlFileId);
+        CreateTableStatement create = SqlLexer.split(sql).stream()
+                .map(CreateTableStatement::parse)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("CREATE TABLE文がありません: " + fullTableName));
+        ParsedTableDefinition definition = parseTableDefinition(create, sqlFileId);
 
         // スキーマ名とテーブル名を分離
         String[] parts = fullTableName.replaceAll("[`\"\\[\\]]", "").split("\\.");
@@ -71,19 +232,35 @@ public class SqlParserService {
             definition.setSchemaName(parts[0]);
             definition.setTableName(parts[1]);
         } else {
+            definition.setSchemaName(null);
             definition.setTableName(parts[0]);
         }
+        return definition;
+    }
+
+    /**
+     * 構文木からテーブル定義を作成
+     */
+    public ParsedTableDefinition parseTableDefinition(CreateTableStatement create, Long sqlFileId) {
+        ParsedTableDefinition definition = new ParsedTableDefinition();
+        definition.setSqlFileId(sqlFileId);
+        definition.setSchemaName(create.getSchemaName());
+        definition.setTableName(create.getTableName());
 
         // テーブル構造を解析
-        Map<String, Object> tableStructure = parseTableStructure(sql);
+        Map<String, Object> tableStructure = parseTableStructure(create);
+        Map<String, Object> partition = parsePartition(create);
+        if (partition != null) {
+            tableStructure.put("partition", partition);
+        }
         definition.setTableStructure(convertToJson(tableStructure));
 
         // 外部キーを解析
-        List<Map<String, String>> foreignKeys = parseForeignKeys(sql);
+        List<Map<String, String>> foreignKeys = parseForeignKeys(create);
         definition.setForeignKeys(convertToJson(foreignKeys));
 
         // インデックスを解析
-        List<Map<String, Object>> indexes = parseIndexes(sql);
+        List<Map<String, Object>> indexes = parseIndexes(create);
         definition.setIndexes(convertToJson(indexes));
 
         return definition;
@@ -92,32 +269,17 @@ public class SqlParserService {
     /**
      * テーブル構造を解析（カラム定義）
      */
-    private Map<String, Object> parseTableStructure(String sql) {
+    private Map<String, Object> parseTableStructure(CreateTableStatement create) {
         Map<String, Object> structure = new HashMap<>();
         List<Map<String, Object>> columns = new ArrayList<>();
 
-        // CREATE TABLE ... ( の中身を抽出
-        Pattern bodyPattern = Pattern.compile("\\(([^)]+(?:\\([^)]*\\)[^)]*)*)\\)", Pattern.DOTALL);
-        Matcher bodyMatcher = bodyPattern.matcher(sql);
-
-        if (bodyMatcher.find()) {
-            String body = bodyMatcher.group(1);
-
-            // カラム定義を行ごとに分割
-            String[] lines = body.split(",(?![^()]*\\))");
-
-            for (String line : lines) {
-                line = line.trim();
-
-                // CONSTRAINTやKEYで始まる行はスキップ
-                if (line.matches("(?i)^(CONSTRAINT|PRIMARY\\s+KEY|FOREIGN\\s+KEY|KEY|INDEX|UNIQUE).*")) {
-                    continue;
-                }
-
-                Map<String, Object> column = parseColumnDefinition(line);
-                if (!column.isEmpty()) {
-                    columns.add(column);
-                }
+        for (CreateTableStatement.Element element : create.getElements()) {
+            if (element.getKind() != CreateTableStatement.ElementKind.COLUMN) {
+                continue;
+            }
+            Map<String, Object> column = parseColumnDefinition(element);
+            if (!column.isEmpty()) {
+                columns.add(column);
             }
         }
 
@@ -127,82 +289,192 @@ public class SqlParserService {
 
     /**
      * 単一カラムの定義を解析
+     * 制約のキーワードは括弧の外（CHECK式やDEFAULT式の中を除く）のみを対象にする
      */
-    private Map<String, Object> parseColumnDefinition(String line) {
+    private Map<String, Object> parseColumnDefinition(CreateTableStatement.Element element) {
         Map<String, Object> column = new HashMap<>();
+        List<Token> tokens = element.getTokens();
 
-        // カラム名を抽出（バッククォート・ダブルクォート対応）
-        Pattern columnPattern = Pattern.compile("^([`\"\\[]?\\w+[`\"\\]]?)\\s+([^,]+)");
-        Matcher matcher = columnPattern.matcher(line);
-
-        if (!matcher.find()) {
+        if (tokens.size() < 2 || !tokens.get(0).isIdentifier() || tokens.get(1).getType() != TokenType.WORD) {
             return column;
         }
 
-        String columnName = matcher.group(1).replaceAll("[`\"\\[\\]]", "");
-        String definition = matcher.group(2).trim();
-
-        column.put("name", columnName);
+        column.put("name", tokens.get(0).getValue());
 
-        // データ型を解析
-        Pattern typePattern = Pattern.compile("^(\\w+)(?:\\((\\d+(?:,\\s*\\d+)?)\\))?");
-        Matcher typeMatcher = typePattern.matcher(definition);
-
-        if (typeMatcher.find()) {
-            column.put("type", typeMatcher.group(1).toUpperCase());
-            if (typeMatcher.group(2) != null) {
-                column.put("length", typeMatcher.group(2));
+        // データ型を解析（長さ・精度は数値の場合のみ）
+        column.put("type", tokens.get(1).getValue().toUpperCase());
+        int i = 2;
+        if (i < tokens.size() && tokens.get(i).isSymbol('(')) {
+            int close = element.findClosingParen(i);
+            if (close < 0) {
+                return new HashMap<>();
+            }
+            String length = numericArguments(tokens.subList(i + 1, close));
+            if (length != null) {
+                column.put("length", length);
             }
+            i = close + 1;
         }
 
         // 制約を解析
-        column.put("nullable", !line.matches("(?i).*NOT\\s+NULL.*"));
-        column.put("primaryKey", line.matches("(?i).*PRIMARY\\s+KEY.*"));
-        column.put("autoIncrement", line.matches("(?i).*(AUTO_INCREMENT|IDENTITY).*"));
-        column.put("unique", line.matches("(?i).*UNIQUE.*"));
-
-        // DEFAULT値を解析
-        Pattern defaultPattern = Pattern.compile("(?i)DEFAULT\\s+([^,\\s]+(?:\\s+[^,\\s]+)*)");
-        Matcher defaultMatcher = defaultPattern.matcher(line);
-        if (defaultMatcher.find()) {
-            column.put("defaultValue", defaultMatcher.group(1).trim());
+        boolean nullable = true;
+        boolean primaryKey = false;
+        boolean autoIncrement = false;
+        boolean unique = false;
+        while (i < tokens.size()) {
+            Token token = tokens.get(i);
+            Token next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+
+            if (token.isSymbol('(')) {
+                int close = element.findClosingParen(i);
+                i = close >= 0 ? close + 1 : tokens.size();
+                continue;
+            }
+            if (token.is("NOT") && next != null && next.is("NULL")) {
+                nullable = false;
+                i += 2;
+                continue;
+            }
+            if (token.is("PRIMARY") && next != null && next.is("KEY")) {
+                primaryKey = true;
+                i += 2;
+                continue;
+            }
+            if (token.is("AUTO_INCREMENT") || token.is("AUTOINCREMENT") || token.is("IDENTITY")) {
+                autoIncrement = true;
+            } else if (token.is("UNIQUE")) {
+                unique = true;
+            } else if (token.is("DEFAULT") && next != null) {
+                // DEFAULT値を解析（関数呼び出し・括弧式・符号付き数値を含む1項）
+                int end = defaultValueEnd(element, i + 1);
+                column.put("defaultValue", element.getSource(i + 1, end));
+                i = end;
+                continue;
+            } else if (token.is("COMMENT") && next != null && next.getType() == TokenType.STRING) {
+                // COMMENT を解析
+                column.put("comment", next.getValue());
+                i += 2;
+                continue;
+            }
+            i++;
         }
 
-        // COMMENT を解析
-        Pattern commentPattern = Pattern.compile("(?i)COMMENT\\s+'([^']*)'");
-        Matcher commentMatcher = commentPattern.matcher(line);
-        if (commentMatcher.find()) {
-            column.put("comment", commentMatcher.group(1));
-        }
+        column.put("nullable", nullable);
+        column.put("primaryKey", primaryKey);
+        column.put("autoIncrement", autoIncrement);
+        column.put("unique", unique);
 
         return column;
     }
 
+    /**
+     * DEFAULTの値となる1項の終端（要素内の位置、含まない）
+     */
+    private int defaultValueEnd(CreateTableStatement.Element element, int start) {
+        List<Token> tokens = element.getTokens();
+        int i = start;
+        if ((tokens.get(i).isSymbol('-') || tokens.get(i).isSymbol('+')) && i + 1 < tokens.size()) {
+            i++;
+        }
+        if (tokens.get(i).isSymbol('(')) {
+            int close = element.findClosingParen(i);
+            return close >= 0 ? close + 1 : tokens.size();
+        }
+        if (i + 1 < tokens.size() && tokens.get(i + 1).isSymbol('(') && tokens.get(i).getType() == TokenType.WORD) {
+            int close = element.findClosingParen(i + 1);
+            return close >= 0 ? close + 1 : tokens.size();
+        }
+        return i + 1;
+    }
+
+    /**
+     * 型の引数が数値のみの場合に「10」「10,2」の形式で返す（ENUMの値等はnull）
+     */
+    private String numericArguments(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        StringBuilder length = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            boolean expected = i % 2 == 0 ? token.getType() == TokenType.NUMBER : token.isSymbol(',');
+            if (!expected) {
+                return null;
+            }
+            length.append(token.getValue());
+        }
+        return length.toString();
+    }
+
     /**
      * 外部キー制約を解析
+     * [CONSTRAINT name] FOREIGN KEY [name] (cols) REFERENCES table (cols) [ON DELETE ...] [ON UPDATE ...]
      */
-    private List<Map<String, String>> parseForeignKeys(String sql) {
+    private List<Map<String, String>> parseForeignKeys(CreateTableStatement create) {
         List<Map<String, String>> foreignKeys = new ArrayList<>();
 
-        Pattern fkPattern = Pattern.compile(
-                "(?i)(?:CONSTRAINT\\s+([`\"\\[]?\\w+[`\"\\]]?)\\s+)?FOREIGN\\s+KEY\\s*\\(([^)]+)\\)\\s*REFERENCES\\s+([`\"\\[]?\\w+[`\"\\]]?)\\s*\\(([^)]+)\\)(?:\\s+ON\\s+DELETE\\s+(CASCADE|SET\\s+NULL|NO\\s+ACTION|RESTRICT))?(?:\\s+ON\\s+UPDATE\\s+(CASCADE|SET\\s+NULL|NO\\s+ACTION|RESTRICT))?",
-                Pattern.DOTALL);
+        for (CreateTableStatement.Element element : create.getElements()) {
+            if (element.getKind() != CreateTableStatement.ElementKind.FOREIGN_KEY) {
+                continue;
+            }
+            List<Token> tokens = element.getTokens();
+            Map<String, String> fk = new HashMap<>();
 
-        Matcher matcher = fkPattern.matcher(sql);
+            int i = 0;
+            if (tokens.get(i).is("CONSTRAINT")) {
+                if (!tokens.get(i + 1).is("FOREIGN")) {
+                    fk.put("constraintName", tokens.get(i + 1).getValue());
+                    i++;
+                }
+                i++;
+            }
+            // FOREIGN KEY [index_name]
+            i += 2;
+            if (i < tokens.size() && tokens.get(i).isIdentifier()) {
+                i++;
+            }
+            if (i >= tokens.size() || !tokens.get(i).isSymbol('(')) {
+                continue;
+            }
+            int close = element.findClosingParen(i);
+            if (close < 0) {
+                continue;
+            }
+            fk.put("columns", String.join(",", keyColumns(element, i, close)));
+            i = close + 1;
 
-        while (matcher.find()) {
-            Map<String, String> fk = new HashMap<>();
-            if (matcher.group(1) != null) {
-                fk.put("constraintName", matcher.group(1).replaceAll("[`\"\\[\\]]", ""));
+            if (i + 1 >= tokens.size() || !tokens.get(i).is("REFERENCES")) {
+                continue;
+            }
+            i++;
+            String referencedTable = tokens.get(i++).getValue();
+            if (i + 1 < tokens.size() && tokens.get(i).isSymbol('.')) {
+                referencedTable = tokens.get(i + 1).getValue();
+                i += 2;
             }
-            fk.put("columns", matcher.group(2).replaceAll("[`\"\\[\\]\\s]", ""));
-            fk.put("referencedTable", matcher.group(3).replaceAll("[`\"\\[\\]]", ""));
-            fk.put("referencedColumns", matcher.group(4).replaceAll("[`\"\\[\\]\\s]", ""));
-            if (matcher.group(5) != null) {
-                fk.put("onDelete", matcher.group(5));
+            fk.put("referencedTable", referencedTable);
+            if (i >= tokens.size() || !tokens.get(i).isSymbol('(')) {
+                continue;
             }
-            if (matcher.group(6) != null) {
-                fk.put("onUpdate", matcher.group(6));
+            close = element.findClosingParen(i);
+            if (close < 0) {
+                continue;
+            }
+            fk.put("referencedColumns", String.join(",", keyColumns(element, i, close)));
+            i = close + 1;
+
+            while (i + 2 < tokens.size()) {
+                if (tokens.get(i).is("ON") && (tokens.get(i + 1).is("DELETE") || tokens.get(i + 1).is("UPDATE"))) {
+                    String key = tokens.get(i + 1).is("DELETE") ? "onDelete" : "onUpdate";
+                    Token action = tokens.get(i + 2);
+                    boolean twoWords = (action.is("SET") || action.is("NO")) && i + 3 < tokens.size();
+                    fk.put(key, twoWords
+                            ? action.getValue().toUpperCase() + " " + tokens.get(i + 3).getValue().toUpperCase()
+                            : action.getValue().toUpperCase());
+                    i += twoWords ? 4 : 3;
+                } else {
+                    i++;
+                }
             }
             foreignKeys.add(fk);
         }
@@ -212,48 +484,212 @@ public class SqlParserService {
 
     /**
      * インデックスを解析
+     * カラム直後の PRIMARY KEY はテーブル側の PRIMARY KEY 定義がない場合にのみ主キーとして扱う
      */
-    private List<Map<String, Object>> parseIndexes(String sql) {
+    private List<Map<String, Object>> parseIndexes(CreateTableStatement create) {
         List<Map<String, Object>> indexes = new ArrayList<>();
+        List<String> inlinePrimaryKey = new ArrayList<>();
+        boolean hasPrimaryKey = false;
+
+        for (CreateTableStatement.Element element : create.getElements()) {
+            List<Token> tokens = element.getTokens();
+            switch (element.getKind()) {
+                case COLUMN:
+                    if (isInlinePrimaryKey(element)) {
+                        inlinePrimaryKey.add(tokens.get(0).getValue());
+                    }
+                    break;
+                case PRIMARY_KEY:
+                case UNIQUE:
+                case INDEX: {
+                    int i = 0;
+                    String name = null;
+                    if (tokens.get(i).is("CONSTRAINT")) {
+                        if (tokens.get(i + 1).isIdentifier() && !tokens.get(i + 1).is("PRIMARY")
+                                && !tokens.get(i + 1).is("UNIQUE")) {
+                            name = tokens.get(i + 1).getValue();
+                            i++;
+                        }
+                        i++;
+                    }
+                    // PRIMARY KEY / UNIQUE [KEY|INDEX] / KEY / INDEX
+                    i++;
+                    if (i < tokens.size() && (tokens.get(i).is("KEY") || tokens.get(i).is("INDEX"))) {
+                        i++;
+                    }
+                    if (i < tokens.size() && tokens.get(i).isIdentifier() && !tokens.get(i).is("USING")) {
+                        name = tokens.get(i).getValue();
+                        i++;
+                    }
+                    while (i < tokens.size() && !tokens.get(i).isSymbol('(')) {
+                        i++;
+                    }
+                    int close = i < tokens.size() ? element.findClosingParen(i) : -1;
+                    if (close < 0) {
+                        break;
+                    }
+
+                    Map<String, Object> index = new HashMap<>();
+                    if (element.getKind() == CreateTableStatement.ElementKind.PRIMARY_KEY) {
+                        index.put("name", "PRIMARY");
+                        index.put("type", "PRIMARY_KEY");
+                        hasPrimaryKey = true;
+                    } else {
+                        if (name != null) {
+                            index.put("name", name);
+                        }
+                        index.put("type", element.getKind() == CreateTableStatement.ElementKind.UNIQUE ? "UNIQUE" : "INDEX");
+                    }
+                    index.put("columns", keyColumns(element, i, close));
+                    indexes.add(index);
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
 
-        // PRIMARY KEY
-        Pattern pkPattern = Pattern.compile("(?i)PRIMARY\\s+KEY\\s*\\(([^)]+)\\)");
-        Matcher pkMatcher = pkPattern.matcher(sql);
-        if (pkMatcher.find()) {
+        if (!hasPrimaryKey && !inlinePrimaryKey.isEmpty()) {
             Map<String, Object> pk = new HashMap<>();
             pk.put("name", "PRIMARY");
             pk.put("type", "PRIMARY_KEY");
-            pk.put("columns", Arrays.asList(pkMatcher.group(1).replaceAll("[`\"\\[\\]\\s]", "").split(",")));
-            indexes.add(pk);
-        }
-
-        // UNIQUE KEY
-        Pattern uniquePattern = Pattern.compile(
-                "(?i)(?:CONSTRAINT\\s+([`\"\\[]?\\w+[`\"\\]]?)\\s+)?UNIQUE(?:\\s+KEY)?\\s*(?:([`\"\\[]?\\w+[`\"\\]]?)\\s*)?\\(([^)]+)\\)");
-        Matcher uniqueMatcher = uniquePattern.matcher(sql);
-        while (uniqueMatcher.find()) {
-            Map<String, Object> unique = new HashMap<>();
-            String name = uniqueMatcher.group(1) != null ? uniqueMatcher.group(1) : uniqueMatcher.group(2);
-            if (name != null) {
-                unique.put("name", name.replaceAll("[`\"\\[\\]]", ""));
+            pk.put("columns", inlinePrimaryKey);
+            indexes.add(0, pk);
+        }
+
+        return indexes;
+    }
+
+    private boolean isInlinePrimaryKey(CreateTableStatement.Element element) {
+        List<Token> tokens = element.getTokens();
+        for (int i = 2; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).isSymbol('(')) {
+                int close = element.findClosingParen(i);
+                if (close < 0) {
+                    return false;
+                }
+                i = close;
+            } else if (tokens.get(i).is("PRIMARY") && tokens.get(i + 1).is("KEY")) {
+                return true;
             }
-            unique.put("type", "UNIQUE");
-            unique.put("columns", Arrays.asList(uniqueMatcher.group(3).replaceAll("[`\"\\[\\]\\s]", "").split(",")));
-            indexes.add(unique);
         }
+        return false;
+    }
 
-        // INDEX/KEY
-        Pattern indexPattern = Pattern.compile("(?i)(?:INDEX|KEY)\\s+([`\"\\[]?\\w+[`\"\\]]?)\\s*\\(([^)]+)\\)");
-        Matcher indexMatcher = indexPattern.matcher(sql);
-        while (indexMatcher.find()) {
-            Map<String, Object> index = new HashMap<>();
-            index.put("name", indexMatcher.group(1).replaceAll("[`\"\\[\\]]", ""));
-            index.put("type", "INDEX");
-            index.put("columns", Arrays.asList(indexMatcher.group(2).replaceAll("[`\"\\[\\]\\s]", "").split(",")));
-            indexes.add(index);
+    /**
+     * キー定義の括弧内のカラム名（プレフィックス長・ASC/DESCは除く、関数インデックスの式は対象外）
+     */
+    private List<String> keyColumns(CreateTableStatement.Element element, int open, int close) {
+        List<String> columns = new ArrayList<>();
+        List<Token> tokens = element.getTokens();
+        boolean partStart = true;
+        for (int i = open + 1; i < close; i++) {
+            Token token = tokens.get(i);
+            if (token.isSymbol('(')) {
+                int end = element.findClosingParen(i);
+                i = end >= 0 ? end : close;
+                partStart = false;
+            } else if (token.isSymbol(',')) {
+                partStart = true;
+            } else {
+                if (partStart && token.isIdentifier()) {
+                    columns.add(token.getValue());
+                }
+                partStart = false;
+            }
         }
+        return columns;
+    }
 
-        return indexes;
+    /**
+     * パーティション定義（PARTITION BY RANGE / HASH / KEY）を解析
+     * RANGEは各パーティションの名前と VALUES LESS THAN の値も取得する
+     */
+    private Map<String, Object> parsePartition(CreateTableStatement create) {
+        SqlLexer.Statement statement = create.getStatement();
+        List<Token> tokens = statement.getTokens();
+
+        int i = create.getOptionsStart();
+        while (i + 1 < tokens.size() && !(tokens.get(i).is("PARTITION") && tokens.get(i + 1).is("BY"))) {
+            i++;
+        }
+        if (i + 1 >= tokens.size()) {
+            return null;
+        }
+        i += 2;
+
+        Map<String, Object> partition = new LinkedHashMap<>();
+        boolean linear = i < tokens.size() && tokens.get(i).is("LINEAR");
+        if (linear) {
+            i++;
+        }
+        if (i >= tokens.size() || !(tokens.get(i).is("RANGE") || tokens.get(i).is("HASH") || tokens.get(i).is("KEY"))) {
+            return null;
+        }
+        partition.put("method", tokens.get(i++).getValue().toUpperCase());
+        partition.put("linear", linear);
+        boolean columns = i < tokens.size() && tokens.get(i).is("COLUMNS");
+        if (columns) {
+            i++;
+        }
+        partition.put("columns", columns);
+
+        if (i >= tokens.size() || !tokens.get(i).isSymbol('(')) {
+            return null;
+        }
+        int expressionEnd = statement.findClosingParen(i);
+        if (expressionEnd < 0) {
+            return null;
+        }
+        partition.put("expression", statement.getSource(i + 1, expressionEnd).trim());
+        i = expressionEnd + 1;
+
+        if (i + 1 < tokens.size() && tokens.get(i).is("PARTITIONS") && tokens.get(i + 1).getType() == TokenType.NUMBER) {
+            partition.put("count", Integer.parseInt(tokens.get(i + 1).getValue()));
+            i += 2;
+        }
+
+        // サブパーティション等を読み飛ばしてパーティション定義の括弧へ
+        while (i < tokens.size() && !tokens.get(i).isSymbol('(')) {
+            i++;
+        }
+        int definitionsEnd = i < tokens.size() ? statement.findClosingParen(i) : -1;
+
+        List<Map<String, Object>> partitions = new ArrayList<>();
+        for (int j = i + 1; definitionsEnd > 0 && j + 4 < definitionsEnd; j++) {
+            // PARTITION name VALUES LESS THAN (MAXVALUE | (...))
+            if (!(tokens.get(j).is("PARTITION") && tokens.get(j + 2).is("VALUES")
+                    && tokens.get(j + 3).is("LESS") && tokens.get(j + 4).is("THAN"))) {
+                continue;
+            }
+            String name = tokens.get(j + 1).getValue();
+            int valuesStart = j + 5;
+            if (valuesStart >= definitionsEnd) {
+                break;
+            }
+            String values;
+            if (tokens.get(valuesStart).is("MAXVALUE")) {
+                values = "MAXVALUE";
+                j = valuesStart;
+            } else if (tokens.get(valuesStart).isSymbol('(')) {
+                int valuesEnd = statement.findClosingParen(valuesStart);
+                if (valuesEnd < 0) {
+                    break;
+                }
+                values = statement.getSource(valuesStart + 1, valuesEnd).trim();
+                j = valuesEnd;
+            } else {
+                continue;
+            }
+            Map<String, Object> definition = new LinkedHashMap<>();
+            definition.put("name", name);
+            definition.put("values", values);
+            partitions.add(definition);
+        }
+        if (!partitions.isEmpty()) {
+            partition.put("partitions", partitions);
+        }
+        return partition;
     }
 
     /**
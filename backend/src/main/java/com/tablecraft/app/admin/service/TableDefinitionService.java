@@ -30,6 +30,9 @@ public class TableDefinitionService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private OnlineSchemaMigrationService onlineSchemaMigrationService;
+
     /**
      * 手動作成したテーブル定義を保存
      */
@@ -75,9 +78,9 @@ public class TableDefinitionService {
             // 定義は保存されたので、エラーは警告のみ
         }
 
-        // table-config.jsonを再生成
+        // table-config.jsonに追加したテーブルのエントリのみ反映
         try {
-            regenerateTableConfig();
+            updateTableConfigEntry(saved);
         } catch (Exception e) {
             System.err.println("[TableDefinitionService] ⚠️ table-config.json生成失敗: " + e.getMessage());
         }
@@ -123,21 +126,21 @@ public class TableDefinitionService {
         if (structureChanged) {
             System.out.println("[TableDefinitionService] カラム構造が変更されました。");
             
-            // 1. データをクリア
-            System.out.println("[TableDefinitionService] データをクリアします。");
-            truncateTable(updated.getTableName());
-            
-            // 2. テーブルを削除して再作成
-            System.out.println("[TableDefinitionService] テーブルを再作成します。");
-            dropTable(updated.getTableName());
-            createActualTable(request);
+            // 1. 既存テーブルはデータを保持したままオンラインで変更（未作成の場合は作成）
+            if (tableExists(updated.getTableName())) {
+                System.out.println("[TableDefinitionService] テーブル構造をオンラインで変更します。");
+                onlineSchemaMigrationService.migrate(updated.getTableName(), toColumnSpecs(request.getColumns()), true);
+            } else {
+                System.out.println("[TableDefinitionService] テーブルを作成します。");
+                createActualTable(request);
+            }
             
-            // 3. table-config.jsonを再生成
-            System.out.println("[TableDefinitionService] table-config.jsonを再生成します。");
-            regenerateTableConfig();
+            // 2. table-config.jsonの該当テーブルを更新
+            System.out.println("[TableDefinitionService] table-config.jsonを更新します。");
+            updateTableConfigEntry(updated);
         } else {
             // 構造変更がない場合でもtable-config.jsonは更新（表示名などの変更）
-            regenerateTableConfig();
+            updateTableConfigEntry(updated);
         }
         
         System.out.println("[TableDefinitionService] ✅ 更新完了: " + updated.getTableName());
@@ -163,8 +166,8 @@ public class TableDefinitionService {
         // 2. テーブル定義を削除
         repository.deleteById(tableId);
         
-        // 3. table-config.jsonを再生成
-        regenerateTableConfig();
+        // 3. table-config.jsonから該当テーブルを削除
+        configGeneratorService.patchTableConfig(tableName.toLowerCase(), null);
         
         System.out.println("[TableDefinitionService] ✅ 削除完了: " + tableName);
     }
@@ -407,18 +410,31 @@ public class TableDefinitionService {
     }
 
     /**
-     * テーブルのデータをクリア（TRUNCATE）
+     * DBテーブルの存在チェック
      */
-    private void truncateTable(String tableName) {
-        try {
-            System.out.println("[TableDefinitionService] TRUNCATE TABLE: " + tableName);
-            jdbcTemplate.execute("TRUNCATE TABLE " + tableName);
-            System.out.println("[TableDefinitionService] ✅ データクリア完了: " + tableName);
-        } catch (Exception e) {
-            System.err.println("[TableDefinitionService] ⚠️ データクリア失敗: " + tableName);
-            System.err.println("エラー: " + e.getMessage());
-            // テーブルが存在しない場合などはエラーを無視（作成前の場合があるため）
-        }
+    private boolean tableExists(String tableName) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?", Integer.class, tableName);
+        return count != null && count > 0;
+    }
+
+    /**
+     * カラム定義リクエストをスキーマ変更用の定義に変換
+     */
+    private List<OnlineSchemaMigrationService.ColumnSpec> toColumnSpecs(List<ColumnRequest> columns) {
+        List<OnlineSchemaMigrationService.ColumnSpec> specs = new ArrayList<>();
+        for (ColumnRequest col : columns) {
+            OnlineSchemaMigrationService.ColumnSpec spec = new OnlineSchemaMigrationService.ColumnSpec();
+            spec.setName(col.getName());
+            spec.setType(normalizeColumnType(col.getType()));
+            spec.setNullable(col.isNullable());
+            spec.setPrimaryKey(col.isPrimary());
+            spec.setAutoIncrement(col.isAutoIncrement());
+            spec.setDefaultValue(col.getDefaultValue());
+            spec.setComment(col.getComment() != null && !col.getComment().isEmpty() ? col.getComment() : null);
+            specs.add(spec);
+        }
+        return specs;
     }
 
     /**
@@ -459,78 +475,75 @@ public class TableDefinitionService {
     }
 
     /**
-     * table-config.jsonを再生成
+     * table-config.jsonの該当テーブルのエントリのみ再生成して反映
      */
-    private void regenerateTableConfig() throws Exception {
-        System.out.println("[TableDefinitionService] table-config.json再生成開始");
-        
-        List<ManualTableDefinition> allTables = repository.findAll();
-        Map<String, Object> config = new LinkedHashMap<>();
-        Map<String, Object> tablesMap = new LinkedHashMap<>();  // 配列からMapに変更
-        
-        for (ManualTableDefinition tableDef : allTables) {
-            Map<String, Object> tableConfig = new LinkedHashMap<>();
-            String tableId = tableDef.getTableName().toLowerCase();
-            
-            tableConfig.put("id", tableId);
-            tableConfig.put("name", tableDef.getTableName());
-            tableConfig.put("label", tableDef.getDisplayName() != null ? tableDef.getDisplayName() : tableDef.getTableName());
-            tableConfig.put("icon", "Table");
-            
-            // カラム定義を解析
-            List<Map<String, Object>> columns = objectMapper.readValue(tableDef.getColumns(), List.class);
-            List<Map<String, Object>> configColumns = new ArrayList<>();
-            List<String> listColumns = new ArrayList<>();
-            
-            for (Map<String, Object> col : columns) {
-                Map<String, Object> columnConfig = new LinkedHashMap<>();
-                String colName = (String) col.get("name");
-                String colType = (String) col.get("type");
-                String colComment = col.get("comment") != null ? (String) col.get("comment") : colName;
-                Boolean colVisible = col.get("visible") != null ? (Boolean) col.get("visible") : true;
-                Boolean colSortable = col.get("sortable") != null ? (Boolean) col.get("sortable") : true;
-                Boolean colFilterable = col.get("filterable") != null ? (Boolean) col.get("filterable") : true;
-                
-                // 多言語対応のラベル
-                Map<String, String> labelMap = new LinkedHashMap<>();
-                labelMap.put("ja", colComment);
-                labelMap.put("en", colComment);
-                
-                columnConfig.put("name", colName);
-                columnConfig.put("label", labelMap);
-                columnConfig.put("type", mapToFieldType(colType));
-                columnConfig.put("required", !Boolean.TRUE.equals(col.get("nullable")));
-                columnConfig.put("visible", colVisible);
-                columnConfig.put("sortable", colSortable);
-                columnConfig.put("filterable", colFilterable);
-                
-                configColumns.add(columnConfig);
-                
-                // visibleなカラムのみリスト表示用に追加（最初の5カラム）
-                if (colVisible && listColumns.size() < 5) {
-                    listColumns.add(colName);
-                }
+    private void updateTableConfigEntry(ManualTableDefinition tableDef) throws Exception {
+        String tableId = tableDef.getTableName().toLowerCase();
+        System.out.println("[TableDefinitionService] table-configエントリ再生成: " + tableId);
+
+        configGeneratorService.patchTableConfig(tableId, buildTableConfigEntry(tableDef));
+        System.out.println("[TableDefinitionService] ✅ table-configエントリ反映完了: " + tableId);
+    }
+
+    /**
+     * 単一テーブルのtable-config.jsonエントリを生成
+     */
+    private Map<String, Object> buildTableConfigEntry(ManualTableDefinition tableDef) throws Exception {
+        Map<String, Object> tableConfig = new LinkedHashMap<>();
+        String tableId = tableDef.getTableName().toLowerCase();
+
+        tableConfig.put("id", tableId);
+        tableConfig.put("name", tableDef.getTableName());
+        tableConfig.put("label", tableDef.getDisplayName() != null ? tableDef.getDisplayName() : tableDef.getTableName());
+        tableConfig.put("icon", "Table");
+
+        // カラム定義を解析
+        List<Map<String, Object>> columns = objectMapper.readValue(tableDef.getColumns(), List.class);
+        List<Map<String, Object>> configColumns = new ArrayList<>();
+        List<String> listColumns = new ArrayList<>();
+
+        for (Map<String, Object> col : columns) {
+            Map<String, Object> columnConfig = new LinkedHashMap<>();
+            String colName = (String) col.get("name");
+            String colType = (String) col.get("type");
+            String colComment = col.get("comment") != null ? (String) col.get("comment") : colName;
+            Boolean colVisible = col.get("visible") != null ? (Boolean) col.get("visible") : true;
+            Boolean colSortable = col.get("sortable") != null ? (Boolean) col.get("sortable") : true;
+            Boolean colFilterable = col.get("filterable") != null ? (Boolean) col.get("filterable") : true;
+
+            // 多言語対応のラベル
+            Map<String, String> labelMap = new LinkedHashMap<>();
+            labelMap.put("ja", colComment);
+            labelMap.put("en", colComment);
+
+            columnConfig.put("name", colName);
+            columnConfig.put("label", labelMap);
+            columnConfig.put("type", mapToFieldType(colType));
+            columnConfig.put("required", !Boolean.TRUE.equals(col.get("nullable")));
+            columnConfig.put("visible", colVisible);
+            columnConfig.put("sortable", colSortable);
+            columnConfig.put("filterable", colFilterable);
+
+            configColumns.add(columnConfig);
+
+            // visibleなカラムのみリスト表示用に追加（最初の5カラム）
+            if (colVisible && listColumns.size() < 5) {
+                listColumns.add(colName);
             }
-            
-            tableConfig.put("columns", configColumns);
-            tableConfig.put("listColumns", listColumns);
-            tableConfig.put("enableSearch", tableDef.getEnableSearch() != null ? tableDef.getEnableSearch() : true);
-            tableConfig.put("enableSort", tableDef.getEnableSort() != null ? tableDef.getEnableSort() : true);
-            tableConfig.put("enablePagination", tableDef.getEnablePagination() != null ? tableDef.getEnablePagination() : true);
-            tableConfig.put("pageSize", tableDef.getPageSize() != null ? tableDef.getPageSize() : 20);
-            tableConfig.put("allowCreate", tableDef.getAllowCreate() != null ? tableDef.getAllowCreate() : true);
-            tableConfig.put("allowEdit", tableDef.getAllowEdit() != null ? tableDef.getAllowEdit() : true);
-            tableConfig.put("allowDelete", tableDef.getAllowDelete() != null ? tableDef.getAllowDelete() : true);
-            tableConfig.put("allowBulk", tableDef.getAllowBulk() != null ? tableDef.getAllowBulk() : false);
-            
-            tablesMap.put(tableId, tableConfig);  // MapにtableIdをキーとして格納
         }
-        
-        config.put("tables", tablesMap);  // Map形式で格納
-        
-        // ファイルに保存
-        configGeneratorService.saveTableConfig(config);
-        System.out.println("[TableDefinitionService] ✅ table-config.json再生成完了");
+
+        tableConfig.put("columns", configColumns);
+        tableConfig.put("listColumns", listColumns);
+        tableConfig.put("enableSearch", tableDef.getEnableSearch() != null ? tableDef.getEnableSearch() : true);
+        tableConfig.put("enableSort", tableDef.getEnableSort() != null ? tableDef.getEnableSort() : true);
+        tableConfig.put("enablePagination", tableDef.getEnablePagination() != null ? tableDef.getEnablePagination() : true);
+        tableConfig.put("pageSize", tableDef.getPageSize() != null ? tableDef.getPageSize() : 20);
+        tableConfig.put("allowCreate", tableDef.getAllowCreate() != null ? tableDef.getAllowCreate() : true);
+        tableConfig.put("allowEdit", tableDef.getAllowEdit() != null ? tableDef.getAllowEdit() : true);
+        tableConfig.put("allowDelete", tableDef.getAllowDelete() != null ? tableDef.getAllowDelete() : true);
+        tableConfig.put("allowBulk", tableDef.getAllowBulk() != null ? tableDef.getAllowBulk() : false);
+
+        return tableConfig;
     }
     
     /**
@@ -1,13 +1,20 @@
 package com.tablecraft.app.dynamic;
 
 import com.tablecraft.app.model.TableDefinition;
+import com.tablecraft.app.service.BatchValidationService;
 import com.tablecraft.app.service.ConfigBasedTableService;
+import com.tablecraft.app.service.ConfigEventBroadcaster;
 import com.tablecraft.app.service.ExternalConfigService;
+import com.tablecraft.app.service.ScriptRuntimeService;
+import com.tablecraft.app.service.TableValidator;
+import com.tablecraft.app.service.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
@@ -24,12 +31,23 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class ConfigBasedController {
 
+    private static final int DEFAULT_MAX_VALIDATION_ERRORS = 1000;
+
     @Autowired
     private ConfigBasedTableService configBasedTableService;
 
+    @Autowired
+    private BatchValidationService batchValidationService;
+
     @Autowired
     private ExternalConfigService externalConfigService;
 
+    @Autowired
+    private ConfigEventBroadcaster configEventBroadcaster;
+
+    @Autowired
+    private ScriptRuntimeService scriptRuntimeService;
+
     /**
      * 利用可能なテーブル一覧を取得
      */
@@ -121,6 +139,8 @@ public class ConfigBasedController {
             response.put("data", data);
 
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return validationErrorResponse(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -262,6 +282,8 @@ public class ConfigBasedController {
             }
 
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return validationErrorResponse(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -316,6 +338,49 @@ public class ConfigBasedController {
         }
     }
 
+    /**
+     * 複数行の一括バリデーション（書き込みは行わない）
+     * リクエスト: tableName, rows（行の配列）, mode（insert / update、省略時はinsert）, maxErrors（返すエラー行数の上限、省略時1000）
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<Map<String, Object>> validateRows(@RequestBody Map<String, Object> request) {
+        try {
+            String tableName = (String) request.get("tableName");
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> rows = (List<Map<String, Object>>) request.get("rows");
+
+            if (tableName == null || tableName.isEmpty()) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("error", "tableName is required");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            if (rows == null) {
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("error", "rows is required");
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+
+            TableValidator.Mode mode = "update".equalsIgnoreCase(String.valueOf(request.get("mode")))
+                    ? TableValidator.Mode.UPDATE : TableValidator.Mode.INSERT;
+            int maxErrors = request.get("maxErrors") != null
+                    ? Integer.parseInt(request.get("maxErrors").toString()) : DEFAULT_MAX_VALIDATION_ERRORS;
+
+            BatchValidationService.BatchResult result = batchValidationService.validate(tableName, rows, mode);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", result.toMap(maxErrors));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
     /**
      * 設定ファイルの再読み込み
      */
@@ -340,19 +405,45 @@ public class ConfigBasedController {
         }
     }
 
+    /**
+     * 設定変更通知の購読（Server-Sent Events）
+     * 接続時に「connected」、設定変更時に「config-changed」（version, changedTables）を送信
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeConfigEvents() {
+        return configEventBroadcaster.subscribe(externalConfigService.getConfigVersion());
+    }
+
     /**
      * テーブル設定ファイルの内容を取得（listColumnsを展開）
+     * リクエストにtableIdsを指定した場合は該当テーブルのみ返す
      */
     @PostMapping("/table-config")
     public ResponseEntity<String> getTableConfig(@RequestBody(required = false) Map<String, Object> request) {
         try {
-            // JSONファイルを読み込んでlistColumnsを展開
-            String configContent = readResourceFile("config/table-config.json");
+            List<String> tableIds = null;
+            if (request != null && request.get("tableIds") instanceof List) {
+                tableIds = new ArrayList<>();
+                for (Object tableId : (List<?>) request.get("tableIds")) {
+                    if (tableId instanceof String) {
+                        tableIds.add((String) tableId);
+                    }
+                }
+            }
+
+            // JSONファイルを読み込んでlistColumnsを展開（分割レイアウトの場合はテーブル単位のファイルから組み立て）
+            String configContent = externalConfigService.isShardedLayout()
+                    ? externalConfigService.readShardedTableConfigJson(tableIds)
+                    : readResourceFile("config/table-config.json");
             com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
             Map<String, Object> config = mapper.readValue(configContent, Map.class);
+            config.put("configVersion", externalConfigService.getConfigVersion());
 
             // 各テーブルのlistColumnsを文字列配列からオブジェクト配列に展開
             Map<String, Object> tables = (Map<String, Object>) config.get("tables");
+            if (tables != null && tableIds != null) {
+                tables.keySet().retainAll(tableIds);
+            }
             if (tables != null) {
                 for (Object tableObj : tables.values()) {
                     Map<String, Object> table = (Map<String, Object>) tableObj;
@@ -487,6 +578,7 @@ public class ConfigBasedController {
             status.put("configInfo", configBasedTableService.getConfigInfo());
             status.put("availableTables", configBasedTableService.getAllTableNames());
             status.put("tableCount", configBasedTableService.getAllTableNames().size());
+            status.put("scripts", scriptRuntimeService.getStats());
             status.put("timestamp", new Date());
 
             return ResponseEntity.ok(status);
@@ -526,6 +618,17 @@ public class ConfigBasedController {
         return messages;
     }
 
+    /**
+     * 検証エラーのレスポンス（項目ごとのエラーをvalidationErrorsに含める）
+     */
+    private ResponseEntity<Map<String, Object>> validationErrorResponse(ValidationException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("error", e.getMessage());
+        errorResponse.put("validationErrors", e.getErrorMaps());
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     private String readResourceFile(String fileName) throws Exception {
         // 1. 外部設定ファイルを優先的に読み込み（本番環境）
         java.nio.file.Path externalFilePath = java.nio.file.Paths.get("./config/" + fileName);
@@ -709,6 +812,8 @@ public class ConfigBasedController {
             response.put("success", true);
             response.put("data", Map.of("affectedRows", affectedRows));
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return validationErrorResponse(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -731,6 +836,8 @@ public class ConfigBasedController {
             response.put("success", true);
             response.put("data", Map.of("affectedRows", affectedRows));
             return ResponseEntity.ok(response);
+        } catch (ValidationException e) {
+            return validationErrorResponse(e);
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
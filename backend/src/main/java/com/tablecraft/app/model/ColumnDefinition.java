@@ -16,6 +16,8 @@ public class ColumnDefinition {
     private String defaultValue;
     private boolean autoIncrement;
     private String comment;
+    private Boolean sortable;
+    private Boolean filterable;
 
     public ColumnDefinition() {
     }
@@ -99,6 +101,29 @@ public class ColumnDefinition {
         this.comment = comment;
     }
 
+    public Boolean getSortable() {
+        return sortable;
+    }
+
+    public void setSortable(Boolean sortable) {
+        this.sortable = sortable;
+    }
+
+    public Boolean getFilterable() {
+        return filterable;
+    }
+
+    public void setFilterable(Boolean filterable) {
+        this.filterable = filterable;
+    }
+
+    /**
+     * 一覧でソート・絞り込みに使われるカラムかどうか（インデックス作成の対象）
+     */
+    public boolean isSortOrFilterTarget() {
+        return Boolean.TRUE.equals(sortable) || Boolean.TRUE.equals(filterable);
+    }
+
     @Override
     public String toString() {
         return "ColumnDefinition{" +
@@ -111,6 +136,8 @@ public class ColumnDefinition {
                 ", defaultValue='" + defaultValue + '\'' +
                 ", autoIncrement=" + autoIncrement +
                 ", comment='" + comment + '\'' +
+                ", sortable=" + sortable +
+                ", filterable=" + filterable +
                 '}';
     }
 }
\ No newline at end of file
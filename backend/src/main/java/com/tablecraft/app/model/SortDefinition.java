@@ -0,0 +1,46 @@
+package com.tablecraft.app.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * 一覧のデフォルトソート（カラムと昇順・降順）を表すモデルクラス
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SortDefinition {
+    private String column;
+    private String direction; // "asc" または "desc"
+
+    public SortDefinition() {
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public void setColumn(String column) {
+        this.column = column;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * 降順かどうかを判定
+     */
+    public boolean isDescending() {
+        return "desc".equalsIgnoreCase(direction);
+    }
+
+    @Override
+    public String toString() {
+        return "SortDefinition{" +
+                "column='" + column + '\'' +
+                ", direction='" + direction + '\'' +
+                '}';
+    }
+}
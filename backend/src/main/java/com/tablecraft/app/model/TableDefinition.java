@@ -17,6 +17,7 @@ public class TableDefinition {
     private PrimaryKeyDefinition primaryKey;
     private List<ColumnDefinition> columns;
     private List<ForeignKeyDefinition> foreignKeys;
+    private List<SortDefinition> defaultSort;
 
     public TableDefinition() {
     }
@@ -88,6 +89,14 @@ public class TableDefinition {
         this.foreignKeys = foreignKeys;
     }
 
+    public List<SortDefinition> getDefaultSort() {
+        return defaultSort;
+    }
+
+    public void setDefaultSort(List<SortDefinition> defaultSort) {
+        this.defaultSort = defaultSort;
+    }
+
     @Override
     public String toString() {
         return "TableDefinition{" +
@@ -98,6 +107,7 @@ public class TableDefinition {
                 ", primaryKey=" + primaryKey +
                 ", columns=" + columns +
                 ", foreignKeys=" + foreignKeys +
+                ", defaultSort=" + defaultSort +
                 '}';
     }
 }
\ No newline at end of file
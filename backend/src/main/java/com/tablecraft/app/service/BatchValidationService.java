@@ -0,0 +1,436 @@
+package com.tablecraft.app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 大量行の一括バリデーション（書き込み前の事前チェック用）
+ * 行の配列を分割してForkJoinPoolで並列に検証し、エラーのある行のみを行番号順に返す
+ * unique は一括内の重複と、登録時はDBの既存値を、外部キーは参照先の存在を、それぞれ値をまとめて確認する
+ */
+@Service
+public class BatchValidationService {
+
+    private static final Set<String> NUMERIC_TYPES = new HashSet<>(Arrays.asList(
+            "tinyint", "smallint", "mediumint", "int", "integer", "bigint", "decimal", "numeric", "float", "double"));
+    private static final Set<String> TEMPORAL_TYPES = new HashSet<>(Arrays.asList(
+            "date", "datetime", "timestamp", "time"));
+
+    @Value("${tablecraft.validation.batch.parallelism:0}")
+    private int batchParallelism;
+
+    // 1タスクで検証する行数（これより多い場合は分割する）
+    @Value("${tablecraft.validation.batch.chunk-size:2048}")
+    private int chunkSize;
+
+    // 1回の問い合わせで比較キーを求める値の数
+    @Value("${tablecraft.validation.fk.in-chunk-size:1000}")
+    private int inChunkSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConfigBasedTableService configBasedTableService;
+
+    @Autowired
+    private ValidationConfigService validationConfigService;
+
+    @Autowired
+    private ForeignKeyChecker foreignKeyChecker;
+
+    private ForkJoinPool validationPool;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors();
+        validationPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("batch-validate-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        validationPool.shutdownNow();
+    }
+
+    /**
+     * 行の配列を検証
+     *
+     * @param rows 検証する行（行番号は0始まりの配列の位置）
+     */
+    public BatchResult validate(String tableName, List<Map<String, Object>> rows, TableValidator.Mode mode) {
+        if (!configBasedTableService.tableExists(tableName)) {
+            throw new IllegalArgumentException("テーブルが見つかりません: " + tableName);
+        }
+        long startTime = System.currentTimeMillis();
+        TableValidator validator = validationConfigService.getValidator(tableName);
+        if (rows.isEmpty()) {
+            return new BatchResult(0, Collections.emptyList(), System.currentTimeMillis() - startTime);
+        }
+
+        List<RowErrors> errors = validator != null
+                ? validationPool.invoke(new ValidateTask(validator, rows, mode, 0, rows.size()))
+                : Collections.emptyList();
+        Map<Integer, List<TableValidator.FieldError>> extra = new TreeMap<>();
+        if (validator != null && !validator.getUniqueFields().isEmpty()) {
+            extra.putAll(checkUnique(tableName, validator, rows, errors, mode));
+        }
+
+        // エラーになったカラムは外部キーを確認しない
+        Map<Integer, Set<String>> failedColumns = new HashMap<>();
+        for (RowErrors rowErrors : errors) {
+            addFields(failedColumns, rowErrors.row, rowErrors.errors);
+        }
+        extra.forEach((row, fieldErrors) -> addFields(failedColumns, row, fieldErrors));
+        foreignKeyChecker.check(tableName, rows, failedColumns).forEach((row, fieldErrors) ->
+                extra.computeIfAbsent(row, r -> new ArrayList<>(fieldErrors.size())).addAll(fieldErrors));
+
+        errors = merge(errors, extra);
+        return new BatchResult(rows.size(), errors, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * unique の確認（一括内で2件目以降の重複と、登録時はDBに存在する値）
+     */
+    private Map<Integer, List<TableValidator.FieldError>> checkUnique(String tableName, TableValidator validator,
+                                                                      List<Map<String, Object>> rows,
+                                                                      List<RowErrors> ruleErrors,
+                                                                      TableValidator.Mode mode) {
+        Map<Integer, List<TableValidator.FieldError>> uniqueErrors = new TreeMap<>();
+        Map<Integer, RowErrors> errorsByRow = new HashMap<>();
+        for (RowErrors rowErrors : ruleErrors) {
+            errorsByRow.put(rowErrors.row, rowErrors);
+        }
+
+        for (String column : validator.getUniqueFields()) {
+            // validation-config のカラム名はSQLに埋め込むため、テーブルのカラムのみを対象にする
+            Map<String, Object> columnInfo = getColumnInfo(tableName, column);
+            if (columnInfo == null) {
+                System.err.println("[BatchValidationService] ⚠️ uniqueのカラムがテーブルにありません: "
+                        + tableName + "." + column);
+                continue;
+            }
+
+            List<Integer> candidateRows = new ArrayList<>();
+            List<Object> candidateValues = new ArrayList<>();
+            for (int row = 0; row < rows.size(); row++) {
+                Map<String, Object> rowValues = rows.get(row);
+                Object value = rowValues != null ? rowValues.get(column) : null;
+                if (value == null || "".equals(value)) {
+                    continue;
+                }
+                RowErrors rowErrors = errorsByRow.get(row);
+                if (rowErrors != null && rowErrors.hasField(column)) {
+                    continue;
+                }
+                candidateRows.add(row);
+                candidateValues.add(value);
+            }
+
+            // 比較キー（DBがカラムの型・照合順序で等しいとみなす値は同じキー） → 最初に出現した行
+            List<String> candidateKeys = toCompareKeys(columnInfo, candidateValues);
+            Map<String, Integer> firstRows = new HashMap<>();
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < candidateRows.size(); i++) {
+                String key = candidateKeys.get(i);
+                if (firstRows.putIfAbsent(key, candidateRows.get(i)) != null) {
+                    addError(uniqueErrors, candidateRows.get(i), column);
+                } else {
+                    values.put(key, candidateValues.get(i));
+                }
+            }
+
+            // 更新時は対象行自身と区別できないためDBの確認は行わない（1行ずつの更新時に確認する）
+            if (mode == TableValidator.Mode.INSERT && !values.isEmpty()) {
+                List<String> keys = new ArrayList<>(values.keySet());
+                boolean[] existing = foreignKeyChecker.findExisting(tableName, column, new ArrayList<>(values.values()));
+                for (int i = 0; i < existing.length; i++) {
+                    if (existing[i]) {
+                        addError(uniqueErrors, firstRows.get(keys.get(i)), column);
+                    }
+                }
+            }
+        }
+        return uniqueErrors;
+    }
+
+    /**
+     * カラムの型・文字セット・照合順序（テーブルにないカラムの場合はnull）
+     */
+    private Map<String, Object> getColumnInfo(String tableName, String column) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT DATA_TYPE, CHARACTER_SET_NAME, COLLATION_NAME FROM information_schema.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?", tableName, column);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * 一括内の重複判定に使う比較キー
+     * 文字列は照合順序の重み（WEIGHT_STRING）、日時はDBで変換した値、数値は末尾の0を除いた10進表現とし、
+     * 大文字・小文字や 1.5 / 1.50 のようにDBで等しいとみなす値を同じキーにする
+     */
+    private List<String> toCompareKeys(Map<String, Object> columnInfo, List<Object> values) {
+        List<String> keys = new ArrayList<>(values.size());
+        for (Object value : values) {
+            keys.add(value.toString());
+        }
+        String dataType = String.valueOf(columnInfo.get("DATA_TYPE")).toLowerCase();
+        Object charset = columnInfo.get("CHARACTER_SET_NAME");
+        Object collation = columnInfo.get("COLLATION_NAME");
+
+        if (NUMERIC_TYPES.contains(dataType)) {
+            for (int i = 0; i < keys.size(); i++) {
+                try {
+                    keys.set(i, new BigDecimal(keys.get(i).trim()).stripTrailingZeros().toPlainString());
+                } catch (NumberFormatException e) {
+                    // 数値でない値は文字列のまま比較する
+                }
+            }
+            return keys;
+        }
+
+        String expression;
+        if (charset != null && collation != null
+                && charset.toString().matches("\\w+") && collation.toString().matches("\\w+")) {
+            expression = "HEX(WEIGHT_STRING(CONVERT(? USING " + charset + ") COLLATE " + collation + "))";
+        } else if (TEMPORAL_TYPES.contains(dataType)) {
+            expression = dataType.equals("date") ? "CAST(? AS DATE)"
+                    : dataType.equals("time") ? "CAST(? AS TIME(6))" : "CAST(? AS DATETIME(6))";
+        } else {
+            return keys;
+        }
+
+        int step = Math.max(1, inChunkSize);
+        for (int from = 0; from < values.size(); from += step) {
+            int to = Math.min(values.size(), from + step);
+            StringBuilder sql = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT ").append(i).append(", ").append(expression);
+            }
+            jdbcTemplate.query(sql.toString(), rs -> {
+                // 変換できない値（NULL）は元の文字列のまま比較する
+                String key = rs.getString(2);
+                if (key != null) {
+                    keys.set(rs.getInt(1), key);
+                }
+            }, values.subList(from, to).toArray());
+        }
+        return keys;
+    }
+
+    private static void addFields(Map<Integer, Set<String>> fields, int row, List<TableValidator.FieldError> errors) {
+        Set<String> columns = fields.computeIfAbsent(row, r -> new HashSet<>());
+        for (TableValidator.FieldError error : errors) {
+            columns.add(error.getField());
+        }
+    }
+
+    private static void addError(Map<Integer, List<TableValidator.FieldError>> errors, int row, String column) {
+        errors.computeIfAbsent(row, r -> new ArrayList<>(2))
+                .add(new TableValidator.FieldError(column, "unique", "validation.unique", null));
+    }
+
+    /**
+     * 行番号順のエラー一覧に unique のエラーを追加
+     */
+    private static List<RowErrors> merge(List<RowErrors> errors, Map<Integer, List<TableValidator.FieldError>> extra) {
+        if (extra.isEmpty()) {
+            return errors;
+        }
+        List<RowErrors> merged = new ArrayList<>(errors.size() + extra.size());
+        Iterator<Map.Entry<Integer, List<TableValidator.FieldError>>> it = extra.entrySet().iterator();
+        Map.Entry<Integer, List<TableValidator.FieldError>> next = it.next();
+        for (RowErrors rowErrors : errors) {
+            while (next != null && next.getKey() < rowErrors.row) {
+                merged.add(new RowErrors(next.getKey(), next.getValue()));
+                next = it.hasNext() ? it.next() : null;
+            }
+            if (next != null && next.getKey() == rowErrors.row) {
+                List<TableValidator.FieldError> combined = new ArrayList<>(rowErrors.errors);
+                combined.addAll(next.getValue());
+                merged.add(new RowErrors(rowErrors.row, combined));
+                next = it.hasNext() ? it.next() : null;
+            } else {
+                merged.add(rowErrors);
+            }
+        }
+        while (next != null) {
+            merged.add(new RowErrors(next.getKey(), next.getValue()));
+            next = it.hasNext() ? it.next() : null;
+        }
+        return merged;
+    }
+
+    /**
+     * 行範囲の検証（chunk-sizeを超える場合は2分割）
+     */
+    private class ValidateTask extends RecursiveTask<List<RowErrors>> {
+        private static final long serialVersionUID = 1L;
+
+        private final TableValidator validator;
+        private final List<Map<String, Object>> rows;
+        private final TableValidator.Mode mode;
+        private final int from;
+        private final int to;
+
+        ValidateTask(TableValidator validator, List<Map<String, Object>> rows, TableValidator.Mode mode,
+                     int from, int to) {
+            this.validator = validator;
+            this.rows = rows;
+            this.mode = mode;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<RowErrors> compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                ValidateTask left = new ValidateTask(validator, rows, mode, from, middle);
+                ValidateTask right = new ValidateTask(validator, rows, mode, middle, to);
+                left.fork();
+                List<RowErrors> rightErrors = right.compute();
+                List<RowErrors> leftErrors = left.join();
+                if (rightErrors.isEmpty()) {
+                    return leftErrors;
+                }
+                if (leftErrors.isEmpty()) {
+                    return rightErrors;
+                }
+                List<RowErrors> combined = new ArrayList<>(leftErrors.size() + rightErrors.size());
+                combined.addAll(leftErrors);
+                combined.addAll(rightErrors);
+                return combined;
+            }
+
+            List<RowErrors> errors = null;
+            for (int row = from; row < to; row++) {
+                Map<String, Object> values = rows.get(row);
+                List<TableValidator.FieldError> rowErrors =
+                        validator.validate(values != null ? values : Collections.emptyMap(), mode);
+                if (!rowErrors.isEmpty()) {
+                    if (errors == null) {
+                        errors = new ArrayList<>();
+                    }
+                    errors.add(new RowErrors(row, rowErrors));
+                }
+            }
+            return errors != null ? errors : Collections.emptyList();
+        }
+    }
+
+    /**
+     * 1行分のエラー
+     */
+    public static final class RowErrors {
+        private final int row;
+        private final List<TableValidator.FieldError> errors;
+
+        RowErrors(int row, List<TableValidator.FieldError> errors) {
+            this.row = row;
+            this.errors = errors;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public List<TableValidator.FieldError> getErrors() {
+            return errors;
+        }
+
+        boolean hasField(String field) {
+            for (TableValidator.FieldError error : errors) {
+                if (field.equals(error.getField())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * {row, errors: [{field, rule, message, value?}]}
+         */
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("row", row);
+            List<Map<String, Object>> errorMaps = new ArrayList<>(errors.size());
+            for (TableValidator.FieldError error : errors) {
+                errorMaps.add(error.toMap());
+            }
+            map.put("errors", errorMaps);
+            return map;
+        }
+    }
+
+    /**
+     * 一括バリデーションの結果（エラーのある行のみ、行番号順）
+     */
+    public static final class BatchResult {
+        private final int total;
+        private final List<RowErrors> errors;
+        private final long elapsedMs;
+
+        BatchResult(int total, List<RowErrors> errors, long elapsedMs) {
+            this.total = total;
+            this.errors = errors;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getInvalidCount() {
+            return errors.size();
+        }
+
+        public List<RowErrors> getErrors() {
+            return errors;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        /**
+         * レスポンス用（エラー行はmaxErrors件まで）
+         */
+        public Map<String, Object> toMap(int maxErrors) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("valid", isValid());
+            map.put("total", total);
+            map.put("invalidCount", errors.size());
+            int limit = Math.min(errors.size(), Math.max(0, maxErrors));
+            List<Map<String, Object>> rows = new ArrayList<>(limit);
+            for (int i = 0; i < limit; i++) {
+                rows.add(errors.get(i).toMap());
+            }
+            map.put("errors", rows);
+            map.put("truncated", limit < errors.size());
+            map.put("elapsedMs", elapsedMs);
+            return map;
+        }
+    }
+}
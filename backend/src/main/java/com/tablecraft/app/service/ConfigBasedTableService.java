@@ -1,6 +1,7 @@
 package com.tablecraft.app.service;
 
 import com.tablecraft.app.model.ColumnDefinition;
+import com.tablecraft.app.model.SortDefinition;
 import com.tablecraft.app.model.TableConfig;
 import com.tablecraft.app.model.TableDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,11 +20,23 @@ public class ConfigBasedTableService {
 
     private final ExternalConfigService configService;
     private final JdbcTemplate jdbcTemplate;
+    private final QueryWorkloadRecorder workloadRecorder;
+    private final ValidationConfigService validationConfigService;
+    private final ForeignKeyChecker foreignKeyChecker;
+    private final ScriptRuntimeService scriptRuntimeService;
 
     @Autowired
-    public ConfigBasedTableService(ExternalConfigService configService, JdbcTemplate jdbcTemplate) {
+    public ConfigBasedTableService(ExternalConfigService configService, JdbcTemplate jdbcTemplate,
+                                   QueryWorkloadRecorder workloadRecorder,
+                                   ValidationConfigService validationConfigService,
+                                   ForeignKeyChecker foreignKeyChecker,
+                                   ScriptRuntimeService scriptRuntimeService) {
         this.configService = configService;
         this.jdbcTemplate = jdbcTemplate;
+        this.workloadRecorder = workloadRecorder;
+        this.validationConfigService = validationConfigService;
+        this.foreignKeyChecker = foreignKeyChecker;
+        this.scriptRuntimeService = scriptRuntimeService;
     }
 
     /**
@@ -95,20 +108,73 @@ public class ConfigBasedTableService {
         String sql = String.format("SELECT %s FROM %s", columnsStr, tableName);
 
         // ORDER BY句の追加
+        List<String> orderColumns;
         if (orderBy != null && !orderBy.trim().isEmpty()) {
+            orderColumns = parseOrderColumns(orderBy);
             sql += " ORDER BY " + orderBy;
         } else {
-            // デフォルトは主キーでソート
-            List<String> primaryKeys = getPrimaryKeyColumns(tableName);
-            if (!primaryKeys.isEmpty()) {
-                sql += " ORDER BY " + String.join(", ", primaryKeys);
+            // デフォルトは設定のdefaultSort、続けて主キーでソート（スキーマ適用時に作成される複合インデックスと同じ順序）
+            orderColumns = getDefaultOrderColumns(tableName);
+            if (!orderColumns.isEmpty()) {
+                sql += " ORDER BY " + String.join(", ", orderColumns);
             }
         }
 
         // LIMIT句の追加
         sql += String.format(" LIMIT %d OFFSET %d", limit, offset);
 
-        return jdbcTemplate.queryForList(sql);
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql);
+        workloadRecorder.record(tableName, Collections.emptyList(), orderColumns, sql, null,
+                System.nanoTime() - start, results.size());
+        return results;
+    }
+
+    /**
+     * ORDER BY句をカラムごとに分割（「col」または「col DESC」に正規化）
+     */
+    private List<String> parseOrderColumns(String orderBy) {
+        List<String> orderColumns = new ArrayList<>();
+        for (String part : orderBy.split(",")) {
+            String[] tokens = part.trim().split("\\s+");
+            if (tokens.length == 0 || tokens[0].isEmpty()) {
+                continue;
+            }
+            boolean descending = tokens.length > 1 && tokens[1].equalsIgnoreCase("DESC");
+            orderColumns.add(tokens[0].replace("`", "") + (descending ? " DESC" : ""));
+        }
+        return orderColumns;
+    }
+
+    /**
+     * デフォルトのソート順（defaultSortのカラム + 主キー）
+     */
+    private List<String> getDefaultOrderColumns(String tableName) {
+        List<String> orderColumns = new ArrayList<>();
+        Set<String> added = new HashSet<>();
+        String direction = "";
+        TableDefinition tableDefinition = getTableDefinition(tableName);
+        if (tableDefinition != null && tableDefinition.getDefaultSort() != null) {
+            // カラム名は大文字・小文字を区別せずに照合し、テーブル上の表記で並べる
+            Map<String, String> columns = new HashMap<>();
+            for (String column : getTableColumns(tableName)) {
+                columns.put(column.toLowerCase(), column);
+            }
+            for (SortDefinition sort : tableDefinition.getDefaultSort()) {
+                String column = sort.getColumn() != null ? columns.get(sort.getColumn().toLowerCase()) : null;
+                if (column != null && added.add(column.toLowerCase())) {
+                    direction = sort.isDescending() ? " DESC" : "";
+                    orderColumns.add(column + direction);
+                }
+            }
+        }
+        // 主キーは最後のソートカラムと同じ向きにし、インデックスを逆順に走査できるようにする
+        for (String primaryKey : getPrimaryKeyColumns(tableName)) {
+            if (added.add(primaryKey.toLowerCase())) {
+                orderColumns.add(primaryKey + direction);
+            }
+        }
+        return orderColumns;
     }
 
     /**
@@ -120,7 +186,10 @@ public class ConfigBasedTableService {
         }
 
         String sql = "SELECT COUNT(*) FROM " + tableName;
+        long start = System.nanoTime();
         Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        workloadRecorder.record(tableName, Collections.emptyList(), Collections.emptyList(), sql, null,
+                System.nanoTime() - start, 1);
         return count != null ? count : 0;
     }
 
@@ -155,7 +224,10 @@ public class ConfigBasedTableService {
         String sql = String.format("SELECT %s FROM %s WHERE %s",
                 columnsStr, tableName, String.join(" AND ", whereConditions));
 
+        long start = System.nanoTime();
         List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, parameters.toArray());
+        workloadRecorder.record(tableName, primaryKeys, Collections.emptyList(), sql, parameters.toArray(),
+                System.nanoTime() - start, results.size());
         return results.isEmpty() ? null : results.get(0);
     }
 
@@ -179,7 +251,9 @@ public class ConfigBasedTableService {
             throw new IllegalArgumentException("テーブルが見つかりません: " + tableName);
         }
 
+        scriptRuntimeService.runBeforeSave(tableName, data);
         validateDataTypes(tableName, data);
+        validateRules(tableName, data, TableValidator.Mode.INSERT, null);
 
         List<String> columns = new ArrayList<>(data.keySet());
         List<String> placeholders = columns.stream().map(col -> "?").collect(Collectors.toList());
@@ -190,7 +264,9 @@ public class ConfigBasedTableService {
                 String.join(", ", columns),
                 String.join(", ", placeholders));
 
-        return jdbcTemplate.update(sql, values.toArray());
+        int affected = jdbcTemplate.update(sql, values.toArray());
+        scriptRuntimeService.runAfterSave(tableName, data);
+        return affected;
     }
 
     /**
@@ -206,7 +282,9 @@ public class ConfigBasedTableService {
             throw new IllegalStateException("主キーが定義されていません: " + tableName);
         }
 
+        scriptRuntimeService.runBeforeSave(tableName, data);
         validateDataTypes(tableName, data);
+        validateRules(tableName, data, TableValidator.Mode.UPDATE, primaryKeyValues);
 
         // SET句の構築（主キー以外のカラム）
         List<String> setConditions = new ArrayList<>();
@@ -238,7 +316,9 @@ public class ConfigBasedTableService {
                 String.join(", ", setConditions),
                 String.join(" AND ", whereConditions));
 
-        return jdbcTemplate.update(sql, parameters.toArray());
+        int affected = jdbcTemplate.update(sql, parameters.toArray());
+        scriptRuntimeService.runAfterSave(tableName, data);
+        return affected;
     }
 
     /**
@@ -268,7 +348,10 @@ public class ConfigBasedTableService {
         String sql = String.format("DELETE FROM %s WHERE %s",
                 tableName, String.join(" AND ", whereConditions));
 
-        return jdbcTemplate.update(sql, parameters.toArray());
+        int affectedRows = jdbcTemplate.update(sql, parameters.toArray());
+        // 削除された行を参照先とする外部キーのキャッシュを破棄（主キーは更新されないため更新時は不要）
+        foreignKeyChecker.invalidate(tableName);
+        return affectedRows;
     }
 
     /**
@@ -296,6 +379,78 @@ public class ConfigBasedTableService {
         }
     }
 
+    /**
+     * validation-config.json のルールによるバリデーション（エラーがある場合はValidationException）
+     */
+    private void validateRules(String tableName, Map<String, Object> data, TableValidator.Mode mode,
+                               Map<String, Object> primaryKeyValues) {
+        List<TableValidator.FieldError> errors = validate(tableName, data, mode, primaryKeyValues);
+        if (!errors.isEmpty()) {
+            throw new ValidationException(tableName, errors);
+        }
+    }
+
+    /**
+     * validation-config.json のルールで1行分の値を検証
+     * ルールを満たした場合のみ unique をDBで確認し（更新時は対象行自身を除く）、外部キーの参照先の存在を確認する
+     *
+     * @return エラーの一覧（エラーがない場合は空）
+     */
+    public List<TableValidator.FieldError> validate(String tableName, Map<String, Object> data,
+                                                    TableValidator.Mode mode, Map<String, Object> primaryKeyValues) {
+        TableValidator validator = validationConfigService.getValidator(tableName);
+        List<TableValidator.FieldError> errors = validator != null
+                ? validator.validate(data, mode) : Collections.emptyList();
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        List<TableValidator.FieldError> checkErrors = new ArrayList<>();
+        if (validator != null) {
+            // validation-config のカラム名はSQLに埋め込むため、テーブルのカラムのみを対象にする
+            List<String> tableColumns = getTableColumns(tableName);
+            for (String column : validator.getUniqueFields()) {
+                if (!tableColumns.contains(column)) {
+                    System.err.println("[ConfigBasedTableService] ⚠️ uniqueのカラムがテーブルにありません: "
+                            + tableName + "." + column);
+                    continue;
+                }
+                Object value = data.get(column);
+                if (value == null || "".equals(value)) {
+                    continue;
+                }
+                if (existsOtherRow(tableName, column, value, primaryKeyValues)) {
+                    checkErrors.add(new TableValidator.FieldError(column, "unique", "validation.unique", null));
+                }
+            }
+        }
+        foreignKeyChecker.check(tableName, Collections.singletonList(data), null)
+                .values().forEach(checkErrors::addAll);
+        return checkErrors;
+    }
+
+    /**
+     * 同じ値を持つ別の行が存在するか
+     */
+    private boolean existsOtherRow(String tableName, String column, Object value, Map<String, Object> primaryKeyValues) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM ").append(tableName)
+                .append(" WHERE ").append(column).append(" = ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(value);
+        if (primaryKeyValues != null && !primaryKeyValues.isEmpty()) {
+            List<String> pkConditions = new ArrayList<>();
+            for (String pkColumn : getPrimaryKeyColumns(tableName)) {
+                pkConditions.add(pkColumn + " = ?");
+                parameters.add(primaryKeyValues.get(pkColumn));
+            }
+            if (!pkConditions.isEmpty()) {
+                sql.append(" AND NOT (").append(String.join(" AND ", pkConditions)).append(")");
+            }
+        }
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, parameters.toArray());
+        return count != null && count > 0;
+    }
+
     /**
      * 個別カラムの値バリデーション
      */
@@ -356,6 +511,8 @@ public class ConfigBasedTableService {
      */
     public void reloadConfig() {
         configService.reloadTableConfig();
+        validationConfigService.reload();
+        scriptRuntimeService.reload();
     }
 
     /**
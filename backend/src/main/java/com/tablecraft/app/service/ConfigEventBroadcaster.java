@@ -0,0 +1,98 @@
+package com.tablecraft.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 設定変更通知をServer-Sent Eventsで購読中のクライアントへ配信する
+ * イベント名は「config-changed」、データは設定バージョンと変更されたテーブルID一覧
+ */
+@Component
+public class ConfigEventBroadcaster {
+
+    public static final String EVENT_CONFIG_CHANGED = "config-changed";
+    public static final String EVENT_CONNECTED = "connected";
+
+    @Value("${tablecraft.config.events.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    /**
+     * 購読を開始し、接続直後に現在の設定バージョンを送信する
+     */
+    public SseEmitter subscribe(long currentVersion) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("version", currentVersion);
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(EVENT_CONNECTED)
+                    .id(String.valueOf(currentVersion))
+                    .data(data));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * 新しい設定バージョンを配信
+     */
+    public void publish(long version, Collection<String> changedTableIds) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("version", version);
+        data.put("changedTables", new ArrayList<>(changedTableIds));
+        data.put("timestamp", System.currentTimeMillis());
+
+        int delivered = 0;
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(EVENT_CONFIG_CHANGED)
+                        .id(String.valueOf(version))
+                        .data(data));
+                delivered++;
+            } catch (Exception e) {
+                // 切断済みのクライアントは購読一覧から外す
+                emitters.remove(emitter);
+            }
+        }
+        System.out.println("[ConfigEventBroadcaster] 設定変更を通知: version=" + version
+                + ", tables=" + changedTableIds + " (" + delivered + " クライアント)");
+    }
+
+    /**
+     * プロキシによる切断を防ぎ、切断済みクライアントを検出するためのコメント送信
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.config.events.heartbeat-ms:30000}")
+    public void sendHeartbeat() {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (Exception e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+}
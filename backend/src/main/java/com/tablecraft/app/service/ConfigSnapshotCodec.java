@@ -0,0 +1,118 @@
+package com.tablecraft.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * 設定ファイルのバイナリスナップショット（Smile形式）を読み書きする
+ * スナップショットは元JSONの隣に「&lt;ファイル名&gt;.smile」として保存し、
+ * 先頭に元JSONのSHA-256を持つ。ハッシュが一致しない場合は使用しない
+ *
+ * フォーマット: マジック(4) + フォーマットバージョン(1) + SHA-256(32) + Smileペイロード
+ */
+@Component
+public class ConfigSnapshotCodec {
+
+    public static final String SNAPSHOT_SUFFIX = ".smile";
+
+    private static final byte[] MAGIC = "TCSS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + HASH_LENGTH;
+
+    @Value("${tablecraft.config.snapshot.enabled:false}")
+    private boolean enabled;
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * JSONファイルに対応するスナップショットのパスを取得
+     */
+    public Path getSnapshotPath(Path jsonFile) {
+        return jsonFile.resolveSibling(jsonFile.getFileName() + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * JSONファイルの隣にスナップショットを書き出す
+     *
+     * @param jsonFile  元JSONファイル
+     * @param jsonBytes 元JSONファイルの内容（ハッシュ計算用）
+     * @param value     スナップショットに保存する値（jsonBytesと同じ内容）
+     */
+    public void writeSnapshot(Path jsonFile, byte[] jsonBytes, Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(jsonBytes.length / 2 + HEADER_LENGTH);
+        out.write(MAGIC);
+        out.write(FORMAT_VERSION);
+        out.write(sha256(jsonBytes));
+        smileMapper.writeValue(out, value);
+
+        Path snapshotFile = getSnapshotPath(jsonFile);
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        Files.write(tempFile, out.toByteArray());
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        System.out.println("[ConfigSnapshotCodec] スナップショットを保存: " + snapshotFile
+                + " (json: " + jsonBytes.length + " bytes, snapshot: " + out.size() + " bytes)");
+    }
+
+    /**
+     * スナップショットを読み込む
+     * スナップショットが存在しない、または元JSONのハッシュと一致しない場合はnullを返す
+     * メモリマップは使わない（マップ中のファイルは保存時の置き換えがWindowsで失敗するため）
+     */
+    public <T> T readSnapshot(Path jsonFile, Class<T> type) {
+        Path snapshotFile = getSnapshotPath(jsonFile);
+        if (!Files.exists(snapshotFile) || !Files.exists(jsonFile)) {
+            return null;
+        }
+
+        try {
+            byte[] content = Files.readAllBytes(snapshotFile);
+            if (content.length < HEADER_LENGTH) {
+                return null;
+            }
+
+            if (!Arrays.equals(Arrays.copyOfRange(content, 0, MAGIC.length), MAGIC)
+                    || content[MAGIC.length] != FORMAT_VERSION) {
+                System.err.println("[ConfigSnapshotCodec] ⚠️ 不正なスナップショット形式: " + snapshotFile);
+                return null;
+            }
+
+            byte[] snapshotHash = Arrays.copyOfRange(content, MAGIC.length + 1, HEADER_LENGTH);
+            if (!Arrays.equals(snapshotHash, sha256(Files.readAllBytes(jsonFile)))) {
+                System.out.println("[ConfigSnapshotCodec] スナップショットが古いためJSONを使用: " + jsonFile);
+                return null;
+            }
+
+            return smileMapper.readValue(content, HEADER_LENGTH, content.length - HEADER_LENGTH, type);
+        } catch (IOException e) {
+            System.err.println("[ConfigSnapshotCodec] ⚠️ スナップショットの読み込みに失敗: " + snapshotFile
+                    + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    private byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.tablecraft.app.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tablecraft.app.model.TableConfig;
+import com.tablecraft.app.model.TableDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
@@ -13,6 +17,8 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 外部設定ファイル管理サービス
@@ -30,9 +36,29 @@ public class ExternalConfigService {
     @Value("${tablecraft.config.table-config-file:table-config.json}")
     private String tableConfigFileName;
 
+    @Value("${tablecraft.config.sharded.enabled:false}")
+    private boolean shardedEnabled;
+
+    @Value("${tablecraft.config.sharded.directory:tables}")
+    private String shardedDirectoryName;
+
+    @Value("${tablecraft.config.hot-reload:true}")
+    private boolean hotReload;
+
+    @Autowired
+    private ConfigSnapshotCodec snapshotCodec;
+
+    @Autowired
+    private ConfigEventBroadcaster eventBroadcaster;
+
     private final ObjectMapper objectMapper;
-    private TableConfig cachedTableConfig;
+    private volatile TableConfig cachedTableConfig;
     private long lastModified = 0;
+    private ShardedTableConfigStore shardedStore;
+
+    // 設定バージョン（変更を検出するたびに加算）と、差分検出用のテーブル単位ハッシュ
+    private final AtomicLong configVersion = new AtomicLong(0);
+    private Map<String, Integer> tableHashes = new HashMap<>();
 
     public ExternalConfigService() {
         this.objectMapper = new ObjectMapper();
@@ -40,6 +66,10 @@ public class ExternalConfigService {
 
     @PostConstruct
     public void initialize() {
+        if (shardedEnabled && enableExternalConfig) {
+            shardedStore = new ShardedTableConfigStore(
+                    Paths.get(externalConfigPath, shardedDirectoryName), objectMapper);
+        }
         loadTableConfig();
     }
 
@@ -62,6 +92,85 @@ public class ExternalConfigService {
         loadTableConfig();
     }
 
+    /**
+     * 設定ファイルの更新を定期的にチェックし、変更があれば購読中のクライアントへ通知
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.config.hot-reload-interval-ms:5000}",
+            initialDelayString = "${tablecraft.config.hot-reload-interval-ms:5000}")
+    public void checkForUpdates() {
+        if (!hotReload) {
+            return;
+        }
+        try {
+            getTableConfig();
+            if (isShardedLayout()) {
+                // 読み込み済みのテーブル定義ファイルのみ更新時刻を確認する
+                publishChange(shardedStore.refreshModifiedShards());
+            }
+        } catch (Exception e) {
+            System.err.println("設定ファイルの更新チェックに失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 現在の設定バージョン
+     */
+    public long getConfigVersion() {
+        return configVersion.get();
+    }
+
+    /**
+     * 単一テーブルの変更を差分として反映（entryがnullの場合は削除）
+     * 設定ファイル全体を再パースせず、該当テーブルの定義のみ差し替える
+     */
+    public synchronized void applyTableDelta(String tableId, Object entry) {
+        try {
+            if (cachedTableConfig == null) {
+                loadTableConfig();
+                return;
+            }
+
+            if (isShardedLayout()) {
+                shardedStore.applyDelta(tableId, entry != null ? objectMapper.valueToTree(entry) : null);
+            } else {
+                // 読み取り中のスレッドに影響しないよう、テーブルMapを複製して差し替える
+                Map<String, TableDefinition> tables = cachedTableConfig.getTables() != null
+                        ? new LinkedHashMap<>(cachedTableConfig.getTables())
+                        : new LinkedHashMap<>();
+                if (entry != null) {
+                    tables.put(tableId, objectMapper.convertValue(entry, TableDefinition.class));
+                } else {
+                    tables.remove(tableId);
+                }
+                cachedTableConfig = copyWithTables(cachedTableConfig, tables);
+                updateLastModifiedTime();
+
+                Map<String, Integer> hashes = new HashMap<>(tableHashes);
+                if (entry != null) {
+                    hashes.put(tableId, objectMapper.valueToTree(entry).hashCode());
+                } else {
+                    hashes.remove(tableId);
+                }
+                tableHashes = hashes;
+            }
+            System.out.println("✅ テーブル設定の差分を反映: " + tableId + (entry != null ? "" : " (削除)"));
+            publishChange(Collections.singletonList(tableId));
+        } catch (Exception e) {
+            System.err.println("❌ テーブル設定の差分反映に失敗、全体を再読み込みします: " + e.getMessage());
+            reloadTableConfig();
+        }
+    }
+
+    private TableConfig copyWithTables(TableConfig source, Map<String, TableDefinition> tables) {
+        TableConfig config = new TableConfig();
+        config.setVersion(source.getVersion());
+        config.setGenerated(source.getGenerated());
+        config.setProject(source.getProject());
+        config.setDatabase(source.getDatabase());
+        config.setTables(tables);
+        return config;
+    }
+
     /**
      * 設定ファイルが更新されているかチェック
      */
@@ -70,6 +179,10 @@ public class ExternalConfigService {
             return true;
         }
 
+        if (isShardedLayout()) {
+            return shardedStore.isIndexModified();
+        }
+
         try {
             Path configPath = getConfigFilePath();
             if (configPath != null && Files.exists(configPath)) {
@@ -90,15 +203,46 @@ public class ExternalConfigService {
         try {
             System.out.println("テーブル設定ファイルを読み込み中...");
 
+            // 分割レイアウトではindex.jsonのみ読み込み、テーブル定義は初回アクセス時に読み込む
+            if (isShardedLayout()) {
+                Set<String> previousIds = shardedStore.getTableIds();
+                cachedTableConfig = shardedStore.loadIndex();
+                System.out.println("✅ テーブル設定インデックスの読み込み完了: " + shardedStore.getIndexPath().toAbsolutePath()
+                        + " (" + cachedTableConfig.getTables().size() + " テーブル)");
+
+                // テーブルの追加・削除に加え、読み込み済み定義の更新分を通知
+                Set<String> changed = new LinkedHashSet<>(shardedStore.getTableIds());
+                changed.removeAll(previousIds);
+                for (String id : previousIds) {
+                    if (!shardedStore.getTableIds().contains(id)) {
+                        changed.add(id);
+                    }
+                }
+                changed.addAll(shardedStore.refreshModifiedShards());
+                publishChange(changed);
+                return;
+            }
+
+            // バイナリスナップショットが有効かつ最新であればJSONのパースを省略
+            Path externalFilePath = getConfigFilePath();
+            if (externalFilePath != null && snapshotCodec.isEnabled() && loadFromSnapshot(externalFilePath)) {
+                return;
+            }
+
             String configContent = readConfigFile();
             if (configContent == null) {
                 throw new RuntimeException("設定ファイルの読み込みに失敗しました");
             }
 
-            cachedTableConfig = objectMapper.readValue(configContent, TableConfig.class);
+            JsonNode tree = objectMapper.readTree(configContent);
+            cachedTableConfig = objectMapper.treeToValue(tree, TableConfig.class);
+            if (externalFilePath != null && snapshotCodec.isEnabled()) {
+                writeSnapshot(externalFilePath, configContent, tree);
+            }
             updateLastModifiedTime();
 
             System.out.println("✅ テーブル設定ファイルの読み込み完了: " + cachedTableConfig.getTables().size() + " テーブル");
+            publishChange(diffTableHashes(tree));
 
         } catch (Exception e) {
             System.err.println("❌ テーブル設定ファイルの読み込みエラー: " + e.getMessage());
@@ -109,6 +253,114 @@ public class ExternalConfigService {
         }
     }
 
+    /**
+     * バイナリスナップショットから設定を読み込み
+     */
+    private boolean loadFromSnapshot(Path configPath) {
+        // 更新時刻はスナップショットの検証前に取得（検証中に更新された場合は次回チェックで再読み込みされる）
+        long modified = getLastModified(configPath);
+        JsonNode tree = snapshotCodec.readSnapshot(configPath, JsonNode.class);
+        if (tree == null) {
+            return false;
+        }
+
+        TableConfig snapshot;
+        try {
+            snapshot = objectMapper.treeToValue(tree, TableConfig.class);
+        } catch (IOException e) {
+            System.err.println("スナップショットの変換に失敗: " + e.getMessage());
+            return false;
+        }
+
+        cachedTableConfig = snapshot;
+        lastModified = modified;
+        System.out.println("✅ テーブル設定をスナップショットから読み込み完了: "
+                + (snapshot.getTables() != null ? snapshot.getTables().size() : 0) + " テーブル");
+        publishChange(diffTableHashes(tree));
+        return true;
+    }
+
+    /**
+     * 前回読み込み時とテーブル単位で比較し、変更されたテーブルIDを返す
+     */
+    private List<String> diffTableHashes(JsonNode root) {
+        Map<String, Integer> hashes = new HashMap<>();
+        JsonNode tablesNode = root.get("tables");
+        if (tablesNode != null && tablesNode.isObject()) {
+            tablesNode.fields().forEachRemaining(e -> hashes.put(e.getKey(), e.getValue().hashCode()));
+        }
+
+        List<String> changed = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : hashes.entrySet()) {
+            if (!entry.getValue().equals(tableHashes.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String tableId : tableHashes.keySet()) {
+            if (!hashes.containsKey(tableId)) {
+                changed.add(tableId);
+            }
+        }
+        tableHashes = hashes;
+        return changed;
+    }
+
+    /**
+     * 設定バージョンを進めて変更を通知（変更がない場合は何もしない）
+     */
+    private void publishChange(Collection<String> changedTableIds) {
+        if (changedTableIds.isEmpty()) {
+            return;
+        }
+        long version = configVersion.incrementAndGet();
+        eventBroadcaster.publish(version, changedTableIds);
+    }
+
+    /**
+     * 読み込んだJSONからスナップショットを作成（次回起動時の高速化用）
+     */
+    private void writeSnapshot(Path configPath, String configContent, JsonNode tree) {
+        try {
+            snapshotCodec.writeSnapshot(configPath,
+                    configContent.getBytes(java.nio.charset.StandardCharsets.UTF_8), tree);
+        } catch (Exception e) {
+            System.err.println("スナップショットの作成に失敗: " + e.getMessage());
+        }
+    }
+
+    private long getLastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * テーブル単位の分割レイアウトで運用しているか
+     */
+    public boolean isShardedLayout() {
+        return shardedStore != null && shardedStore.exists();
+    }
+
+    /**
+     * 分割レイアウトの設定を単一ファイル形式のJSONとして取得
+     */
+    public String readShardedTableConfigJson() throws IOException {
+        return readShardedTableConfigJson(null);
+    }
+
+    /**
+     * 分割レイアウトの設定を指定テーブルのみ含めて取得（tableIdsがnullの場合は全テーブル）
+     */
+    public String readShardedTableConfigJson(Collection<String> tableIds) throws IOException {
+        if (!isShardedLayout()) {
+            throw new IllegalStateException("分割レイアウトが有効ではありません");
+        }
+        getTableConfig();
+        return objectMapper.writeValueAsString(shardedStore.toJsonTree(tableIds));
+    }
+
     /**
      * 設定ファイルの内容を読み込み
      */
@@ -202,9 +454,14 @@ public class ExternalConfigService {
             return "設定ファイル未読み込み";
         }
 
-        return String.format("プロジェクト: %s, バージョン: %s, テーブル数: %d",
+        String summary = String.format("プロジェクト: %s, バージョン: %s, テーブル数: %d",
                 cachedTableConfig.getProject() != null ? cachedTableConfig.getProject().getName() : "N/A",
                 cachedTableConfig.getVersion(),
                 cachedTableConfig.getTables() != null ? cachedTableConfig.getTables().size() : 0);
+        if (isShardedLayout()) {
+            summary += String.format(" (分割レイアウト, 読み込み済み: %d)", shardedStore.getLoadedCount());
+        }
+        summary += ", 設定バージョン: " + configVersion.get();
+        return summary;
     }
 }
\ No newline at end of file
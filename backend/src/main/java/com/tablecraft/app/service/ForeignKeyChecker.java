@@ -0,0 +1,214 @@
+package com.tablecraft.app.service;
+
+import com.tablecraft.app.model.ForeignKeyDefinition;
+import com.tablecraft.app.model.TableConfig;
+import com.tablecraft.app.model.TableDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 外部キーの事前チェック（書き込み前に参照先の存在を確認する）
+ * 複数行分の参照値をまとめて問い合わせ、一致の判定はDB側で行う
+ * 存在が確認された親キーは一定時間キャッシュし（件数上限あり、LRU）、親テーブルの行の削除時は破棄する
+ * キャッシュが古い場合もDBの外部キー制約で書き込み時にエラーになる
+ */
+@Component
+public class ForeignKeyChecker {
+
+    @Value("${tablecraft.validation.fk.enabled:true}")
+    private boolean enabled;
+
+    // 1回の問い合わせで確認する値の数
+    @Value("${tablecraft.validation.fk.in-chunk-size:1000}")
+    private int inChunkSize;
+
+    @Value("${tablecraft.validation.fk.cache.max-entries:100000}")
+    private int maxCacheEntries;
+
+    @Value("${tablecraft.validation.fk.cache.ttl-ms:60000}")
+    private long cacheTtlMs;
+
+    @Autowired
+    private ExternalConfigService configService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 存在が確認された親キー → 有効期限
+    private final Map<String, Long> presentKeys = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxCacheEntries;
+        }
+    };
+
+    // テーブルごとの世代（行の削除で加算し、古い世代のキャッシュは参照されずにLRUで消える）
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 行の外部キーカラムの値が参照先に存在するか確認
+     *
+     * @param skip 確認を省略する行とカラム（他のルールでエラーになっている等、nullの場合はすべて確認）
+     * @return 行番号 → エラー（エラーのない行は含まない）
+     */
+    public Map<Integer, List<TableValidator.FieldError>> check(String tableName, List<Map<String, Object>> rows,
+                                                               Map<Integer, Set<String>> skip) {
+        List<ForeignKeyDefinition> foreignKeys = getForeignKeys(tableName);
+        if (!enabled || foreignKeys.isEmpty() || rows.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Integer, List<TableValidator.FieldError>> errors = new TreeMap<>();
+        for (ForeignKeyDefinition foreignKey : foreignKeys) {
+            String column = foreignKey.getColumn();
+            String referencedTable = foreignKey.getReferencedTable();
+            String referencedColumn = foreignKey.getReferencedColumn();
+            if (column == null || referencedTable == null || referencedColumn == null) {
+                continue;
+            }
+
+            // 参照値（文字列表現） → 値と参照している行
+            Map<String, Object> values = new LinkedHashMap<>();
+            Map<String, List<Integer>> rowsByValue = new HashMap<>();
+            for (int row = 0; row < rows.size(); row++) {
+                Map<String, Object> rowValues = rows.get(row);
+                Object value = rowValues != null ? rowValues.get(column) : null;
+                if (value == null || "".equals(value)) {
+                    continue;
+                }
+                if (skip != null && skip.getOrDefault(row, Collections.emptySet()).contains(column)) {
+                    continue;
+                }
+                String key = value.toString();
+                values.putIfAbsent(key, value);
+                rowsByValue.computeIfAbsent(key, k -> new ArrayList<>(1)).add(row);
+            }
+            if (values.isEmpty()) {
+                continue;
+            }
+
+            Set<String> missing = findMissing(referencedTable, referencedColumn, values);
+            for (String key : missing) {
+                for (Integer row : rowsByValue.get(key)) {
+                    errors.computeIfAbsent(row, r -> new ArrayList<>(2)).add(new TableValidator.FieldError(
+                            column, "foreignKey", "validation.foreign.key", referencedTable));
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 指定した値がテーブルに存在するか（値の位置ごと、in-chunk-size 件ずつまとめて問い合わせる）
+     * 一致の判定はDB側でカラムの照合順序・型に従って行う（大文字小文字・末尾の空白・DECIMALの桁・日時の表記の違いを区別しない）
+     * DBの値をJava側で文字列として比較すると判定が異なるため、結果は入力値の位置で返す
+     */
+    public boolean[] findExisting(String tableName, String column, List<Object> values) {
+        boolean[] existing = new boolean[values.size()];
+        for (int from = 0; from < values.size(); from += inChunkSize) {
+            int to = Math.min(values.size(), from + inChunkSize);
+            StringBuilder sql = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    sql.append(" UNION ALL ");
+                }
+                sql.append("SELECT ").append(i).append(" FROM DUAL WHERE EXISTS (SELECT 1 FROM ").append(tableName)
+                        .append(" WHERE ").append(column).append(" = ?)");
+            }
+            jdbcTemplate.query(sql.toString(), rs -> {
+                existing[rs.getInt(1)] = true;
+            }, values.subList(from, to).toArray());
+        }
+        return existing;
+    }
+
+    /**
+     * テーブルの行が削除された（そのテーブルを参照先とするキャッシュを破棄）
+     */
+    public void invalidate(String tableName) {
+        generations.computeIfAbsent(tableName, t -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void clear() {
+        synchronized (presentKeys) {
+            presentKeys.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (presentKeys) {
+            stats.put("entries", presentKeys.size());
+        }
+        stats.put("maxEntries", maxCacheEntries);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    /**
+     * 参照先に存在しない値（キャッシュにない値のみ問い合わせる）
+     */
+    private Set<String> findMissing(String referencedTable, String referencedColumn, Map<String, Object> values) {
+        String prefix = referencedTable + '\u0000' + getGeneration(referencedTable) + '\u0000' + referencedColumn + '\u0000';
+        long now = System.currentTimeMillis();
+
+        List<Object> uncached = new ArrayList<>();
+        Set<String> uncachedKeys = new LinkedHashSet<>();
+        synchronized (presentKeys) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                Long expiresAt = presentKeys.get(prefix + entry.getKey());
+                if (expiresAt != null && expiresAt > now) {
+                    continue;
+                }
+                uncached.add(entry.getValue());
+                uncachedKeys.add(entry.getKey());
+            }
+        }
+        hits.add(values.size() - uncached.size());
+        misses.add(uncached.size());
+        if (uncached.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        boolean[] existing = findExisting(referencedTable, referencedColumn, uncached);
+        Set<String> missing = new LinkedHashSet<>();
+        long expiresAt = now + cacheTtlMs;
+        synchronized (presentKeys) {
+            int index = 0;
+            for (String key : uncachedKeys) {
+                if (existing[index++]) {
+                    presentKeys.put(prefix + key, expiresAt);
+                } else {
+                    missing.add(key);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private long getGeneration(String tableName) {
+        AtomicLong generation = generations.get(tableName);
+        return generation != null ? generation.get() : 0;
+    }
+
+    private List<ForeignKeyDefinition> getForeignKeys(String tableName) {
+        TableConfig config = configService.getTableConfig();
+        TableDefinition definition = config != null && config.getTables() != null
+                ? config.getTables().get(tableName) : null;
+        if (definition == null || definition.getForeignKeys() == null) {
+            return Collections.emptyList();
+        }
+        return definition.getForeignKeys();
+    }
+}
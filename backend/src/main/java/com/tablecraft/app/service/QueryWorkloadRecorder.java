@@ -0,0 +1,191 @@
+package com.tablecraft.app.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 業務画面のクエリ実績（テーブル・絞り込みカラム・ソートカラムごとの件数と実行時間）を記録する
+ * 形ごとに一定間隔でEXPLAINを取得し、インデックス提案の根拠にする
+ */
+@Component
+public class QueryWorkloadRecorder {
+
+    @Value("${tablecraft.workload.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tablecraft.workload.max-shapes:500}")
+    private int maxShapes;
+
+    @Value("${tablecraft.workload.explain-interval-ms:300000}")
+    private long explainIntervalMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, QueryShape> shapes = new ConcurrentHashMap<>();
+
+    // EXPLAINは業務リクエストのスレッドでは実行せず、1スレッドで順に取得する（溢れた分は捨てる）
+    private final ExecutorService explainExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    /**
+     * クエリの実行実績を記録
+     *
+     * @param filterColumns 等価条件で絞り込んだカラム
+     * @param sortColumns   ORDER BYのカラム（降順は「col DESC」）
+     */
+    public void record(String tableName, List<String> filterColumns, List<String> sortColumns,
+                       String sql, Object[] parameters, long elapsedNanos, int resultRows) {
+        if (!enabled) {
+            return;
+        }
+
+        String key = tableName + "|" + String.join(",", filterColumns) + "|" + String.join(",", sortColumns);
+        QueryShape shape = shapes.get(key);
+        if (shape == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            shape = shapes.computeIfAbsent(key, k -> new QueryShape(tableName, filterColumns, sortColumns));
+        }
+        shape.add(elapsedNanos, resultRows);
+
+        long now = System.currentTimeMillis();
+        long explainedAt = shape.explainedAt.get();
+        if (now - explainedAt >= explainIntervalMs && shape.explainedAt.compareAndSet(explainedAt, now)) {
+            QueryShape target = shape;
+            Object[] sampleParameters = parameters != null ? parameters.clone() : new Object[0];
+            try {
+                explainExecutor.execute(() -> explain(target, sql, sampleParameters));
+            } catch (RejectedExecutionException e) {
+                // 停止中は取得しない
+            }
+        }
+    }
+
+    private void explain(QueryShape shape, String sql, Object[] parameters) {
+        try {
+            shape.sampleSql = sql;
+            shape.explain = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+        } catch (Exception e) {
+            System.err.println("[QueryWorkloadRecorder] ⚠️ EXPLAINに失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 記録済みのクエリの形（実行時間の合計が大きい順）
+     */
+    public List<QueryShape> getShapes() {
+        List<QueryShape> result = new ArrayList<>(shapes.values());
+        result.sort(Comparator.comparingLong(QueryShape::getTotalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * 記録をクリア
+     */
+    public void reset() {
+        shapes.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * クエリの形ごとの実績
+     */
+    public static class QueryShape {
+        private final String tableName;
+        private final List<String> filterColumns;
+        private final List<String> sortColumns;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder totalRows = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong explainedAt = new AtomicLong();
+        private volatile long lastSeen;
+        private volatile String sampleSql;
+        private volatile List<Map<String, Object>> explain;
+
+        QueryShape(String tableName, List<String> filterColumns, List<String> sortColumns) {
+            this.tableName = tableName;
+            this.filterColumns = Collections.unmodifiableList(new ArrayList<>(filterColumns));
+            this.sortColumns = Collections.unmodifiableList(new ArrayList<>(sortColumns));
+        }
+
+        void add(long elapsedNanos, int resultRows) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            totalRows.add(resultRows);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            lastSeen = System.currentTimeMillis();
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public List<String> getFilterColumns() {
+            return filterColumns;
+        }
+
+        public List<String> getSortColumns() {
+            return sortColumns;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * 1回あたりの平均取得件数
+         */
+        public double getAverageRows() {
+            long executions = count.sum();
+            return executions > 0 ? (double) totalRows.sum() / executions : 0;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+
+        public String getSampleSql() {
+            return sampleSql;
+        }
+
+        public List<Map<String, Object>> getExplain() {
+            return explain;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.tablecraft.app.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tablecraft.app.admin.entity.ActionScriptBinding;
+import com.tablecraft.app.admin.entity.CustomScript;
+import com.tablecraft.app.admin.repository.ActionScriptBindingRepository;
+import com.tablecraft.app.admin.repository.CustomScriptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * テーブルのアクションに紐付いたスクリプトのメモリ上の索引
+ * 有効な紐付けを (テーブル名, アクションタイプ) ごとに実行順で保持し、スクリプト本体も解決済みとする
+ * 書き込み処理からの参照はマップの読み取りのみ。紐付け・スクリプトの変更は件数と更新日時の定期確認、
+ * または refresh()（POST /api/config/reload）で反映する
+ */
+@Component
+public class ScriptBindingRegistry {
+
+    private static final String SIGNATURE_SQL =
+            "SELECT (SELECT CONCAT(COUNT(*), '/', COALESCE(MAX(id), 0), '/', COALESCE(MAX(updated_at), '')) FROM action_script_bindings), "
+                    + "(SELECT CONCAT(COUNT(*), '/', COALESCE(MAX(id), 0), '/', COALESCE(SUM(version), 0), '/', COALESCE(MAX(updated_at), '')) FROM custom_scripts)";
+
+    @Value("${tablecraft.script.registry.poll-enabled:true}")
+    private boolean pollEnabled;
+
+    @Autowired
+    private ActionScriptBindingRepository bindingRepository;
+
+    @Autowired
+    private CustomScriptRepository scriptRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * テーブルのアクションに紐付いたスクリプト（実行順、ない場合は空の不変リスト）
+     */
+    public List<Handle> get(String tableName, String actionType) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current.handles.getOrDefault(key(tableName, actionType), Collections.emptyList());
+    }
+
+    /**
+     * 紐付けとスクリプトを読み込み直す
+     */
+    public synchronized void refresh() {
+        snapshot = build(readSignature());
+    }
+
+    /**
+     * 紐付け・スクリプトの変更を確認（件数・最大ID・更新日時・バージョンのみを問い合わせる）
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.script.registry.poll-interval-ms:5000}",
+            initialDelayString = "${tablecraft.script.registry.poll-interval-ms:5000}")
+    public void checkForChanges() {
+        if (!pollEnabled || snapshot == null) {
+            return;
+        }
+        try {
+            String signature = readSignature();
+            if (!Objects.equals(signature, snapshot.signature)) {
+                synchronized (this) {
+                    snapshot = build(signature);
+                }
+                System.out.println("[ScriptBindingRegistry] ✅ スクリプトの紐付けを再読み込み: " + snapshot.size + "件");
+            }
+        } catch (Exception e) {
+            System.err.println("[ScriptBindingRegistry] ⚠️ 変更の確認に失敗: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("bindings", current != null ? current.size : 0);
+        stats.put("keys", current != null ? current.handles.size() : 0);
+        return stats;
+    }
+
+    private synchronized Snapshot load() {
+        if (snapshot == null) {
+            try {
+                snapshot = build(readSignature());
+                System.out.println("[ScriptBindingRegistry] ✅ スクリプトの紐付けを読み込み: " + snapshot.size + "件");
+            } catch (Exception e) {
+                // テーブル未作成等の場合は紐付けなしとして扱い、定期確認で読み込み直す
+                System.err.println("[ScriptBindingRegistry] ⚠️ スクリプトの紐付けの読み込みに失敗: " + e.getMessage());
+                snapshot = new Snapshot(null, Collections.emptyMap(), 0);
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(String signature) {
+        List<ActionScriptBinding> bindings = bindingRepository.findByIsActiveTrueOrderByExecutionOrder();
+        Set<Long> scriptIds = bindings.stream().map(ActionScriptBinding::getScriptId).collect(Collectors.toSet());
+        Map<Long, CustomScript> scripts = scriptRepository.findAllById(scriptIds).stream()
+                .filter(script -> Boolean.TRUE.equals(script.getIsActive()))
+                .collect(Collectors.toMap(CustomScript::getId, Function.identity()));
+
+        Map<String, List<Handle>> handles = new HashMap<>();
+        int size = 0;
+        for (ActionScriptBinding binding : bindings) {
+            CustomScript script = scripts.get(binding.getScriptId());
+            if (script == null) {
+                continue;
+            }
+            handles.computeIfAbsent(key(binding.getTableName(), binding.getActionType()), k -> new ArrayList<>())
+                    .add(new Handle(binding, script, parseParams(binding)));
+            size++;
+        }
+        handles.replaceAll((k, list) -> Collections.unmodifiableList(list));
+        return new Snapshot(signature, handles, size);
+    }
+
+    private String readSignature() {
+        return jdbcTemplate.queryForObject(SIGNATURE_SQL, (rs, rowNum) -> rs.getString(1) + "|" + rs.getString(2));
+    }
+
+    private Map<String, Object> parseParams(ActionScriptBinding binding) {
+        String bindingConfig = binding.getBindingConfig();
+        if (bindingConfig == null || bindingConfig.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return Collections.unmodifiableMap(objectMapper.readValue(bindingConfig,
+                    new TypeReference<Map<String, Object>>() {
+                    }));
+        } catch (Exception e) {
+            System.err.println("[ScriptBindingRegistry] ⚠️ binding_config の解析に失敗: id=" + binding.getId()
+                    + " - " + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    private static String key(String tableName, String actionType) {
+        return tableName + '\u0000' + actionType;
+    }
+
+    private static final class Snapshot {
+        private final String signature;
+        private final Map<String, List<Handle>> handles;
+        private final int size;
+
+        Snapshot(String signature, Map<String, List<Handle>> handles, int size) {
+            this.signature = signature;
+            this.handles = handles;
+            this.size = size;
+        }
+    }
+
+    /**
+     * 解決済みの紐付け（binding_config は解析済み）
+     */
+    public static final class Handle {
+        private final ActionScriptBinding binding;
+        private final CustomScript script;
+        private final Map<String, Object> params;
+
+        Handle(ActionScriptBinding binding, CustomScript script, Map<String, Object> params) {
+            this.binding = binding;
+            this.script = script;
+            this.params = params;
+        }
+
+        public ActionScriptBinding getBinding() {
+            return binding;
+        }
+
+        public CustomScript getScript() {
+            return script;
+        }
+
+        public Map<String, Object> getParams() {
+            return params;
+        }
+    }
+}
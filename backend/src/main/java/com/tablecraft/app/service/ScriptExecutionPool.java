@@ -0,0 +1,433 @@
+package com.tablecraft.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * カスタムスクリプト専用の実行プール
+ * スクリプトはリクエストのスレッドではなく専用のスレッドで実行し、呼び出し側は終了または中断まで待つ
+ * 監視スレッドが実行中のスクリプトの経過時間・CPU時間・メモリ割り当て量を確認し、上限を超えた場合は中断する
+ * 上限はスクリプトの実行開始（Execution.begin()）から数え、実行待ち・実行コンテキストの取得待ちは含めない
+ * 中断に応じないスクリプトのスレッドは上限数まで補充し、タイムアウトが続くスクリプトは一定時間実行を停止する
+ */
+@Component
+public class ScriptExecutionPool {
+
+    // 実行時間の分布（ミリ秒、上限値）
+    private static final long[] LATENCY_BUCKETS_MS = {1, 10, 100, 1000};
+
+    // スクリプトを実行するスレッド数（全スクリプト合計の同時実行数）
+    @Value("${tablecraft.script.max-concurrency:16}")
+    private int threads;
+
+    // 実行待ちの上限（超えた場合は待たずにエラー）
+    @Value("${tablecraft.script.queue-capacity:64}")
+    private int queueCapacity;
+
+    // 実行開始からの経過時間の上限（実行待ち・実行コンテキストの取得待ちは含めない）
+    @Value("${tablecraft.script.timeout-ms:2000}")
+    private long timeoutMs;
+
+    // スクリプトのスレッドが使用したCPU時間の上限
+    @Value("${tablecraft.script.cpu-time-limit-ms:1000}")
+    private long cpuTimeLimitMs;
+
+    // 1回の実行でのメモリ割り当て量の上限（0は無制限、JVMが対応している場合のみ）
+    @Value("${tablecraft.script.max-allocated-bytes:67108864}")
+    private long maxAllocatedBytes;
+
+    @Value("${tablecraft.script.watchdog-interval-ms:20}")
+    private long watchdogIntervalMs;
+
+    // 中断に応じないスレッドを補充する上限数
+    @Value("${tablecraft.script.max-stuck-threads:4}")
+    private int maxStuckThreads;
+
+    // この回数続けてタイムアウトしたスクリプトは quarantine-ms の間実行しない
+    @Value("${tablecraft.script.quarantine-after-timeouts:3}")
+    private int quarantineAfterTimeouts;
+
+    @Value("${tablecraft.script.quarantine-ms:60000}")
+    private long quarantineMs;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Set<Execution> running = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ScriptMetrics> metrics = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private com.sun.management.ThreadMXBean allocationMXBean;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService watchdog;
+    private int stuckThreads;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "script-exec-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "script-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleAtFixedRate(this::checkDeadlines, watchdogIntervalMs, watchdogIntervalMs, TimeUnit.MILLISECONDS);
+
+        if (threadMXBean.isThreadCpuTimeSupported() && !threadMXBean.isThreadCpuTimeEnabled()) {
+            threadMXBean.setThreadCpuTimeEnabled(true);
+        }
+        if (maxAllocatedBytes > 0 && threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                allocationMXBean = bean;
+            }
+        }
+        if (allocationMXBean == null && maxAllocatedBytes > 0) {
+            System.err.println("[ScriptExecutionPool] ⚠️ スレッドごとのメモリ割り当て量を取得できないため、メモリの上限は確認しません");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * スクリプトの処理を専用スレッドで実行し、結果を待つ（上限を超えた場合は監視スレッドが中断する）
+     *
+     * @throws ScriptTimeoutException 上限（経過時間・CPU時間・メモリ）を超えて中断した場合
+     */
+    public <T> T execute(Long scriptId, String scriptName, ScriptTask<T> task) {
+        ScriptMetrics scriptMetrics = metrics.computeIfAbsent(scriptId, id -> new ScriptMetrics(scriptName));
+        long now = System.currentTimeMillis();
+        if (scriptMetrics.quarantinedUntil.get() > now) {
+            scriptMetrics.rejected.increment();
+            throw new IllegalStateException("タイムアウトが続いたため実行を停止中のスクリプトです: " + scriptName);
+        }
+
+        Execution execution = new Execution();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> run(execution, task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            scriptMetrics.rejected.increment();
+            throw new IllegalStateException("スクリプトの実行待ちが上限に達しました: " + scriptName);
+        }
+        execution.future = future;
+
+        long startNanos = System.nanoTime();
+        try {
+            T result = future.get();
+            scriptMetrics.recordSuccess(System.nanoTime() - startNanos);
+            return result;
+        } catch (CancellationException e) {
+            throw timedOut(scriptName, scriptMetrics, execution, startNanos);
+        } catch (InterruptedException e) {
+            abort(execution, "interrupted");
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("スクリプトの実行待ちが中断されました: " + scriptName);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (execution.abortReason != null) {
+                throw timedOut(scriptName, scriptMetrics, execution, startNanos);
+            }
+            if (execution.beginNanos < 0) {
+                // 実行開始前の失敗（実行コンテキストの取得待ちのタイムアウト等）はスクリプトの失敗・タイムアウトとして数えない
+                scriptMetrics.rejected.increment();
+            } else {
+                scriptMetrics.recordFailure(System.nanoTime() - startNanos);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("スクリプトの実行に失敗しました: " + scriptName + " - " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * スクリプトの実行を再開（停止中の解除、スクリプトの更新時）
+     */
+    public void resetQuarantine(Long scriptId) {
+        ScriptMetrics scriptMetrics = metrics.get(scriptId);
+        if (scriptMetrics != null) {
+            scriptMetrics.consecutiveTimeouts.set(0);
+            scriptMetrics.quarantinedUntil.set(0);
+        }
+    }
+
+    public void resetAllQuarantines() {
+        for (Long scriptId : metrics.keySet()) {
+            resetQuarantine(scriptId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        synchronized (this) {
+            stats.put("stuckThreads", stuckThreads);
+        }
+        stats.put("rejected", rejected.sum());
+        Map<String, Object> scripts = new TreeMap<>();
+        metrics.forEach((scriptId, scriptMetrics) -> scripts.put(String.valueOf(scriptId), scriptMetrics.toMap()));
+        stats.put("scripts", scripts);
+        return stats;
+    }
+
+    private <T> T run(Execution execution, ScriptTask<T> task) throws Exception {
+        execution.start(Thread.currentThread());
+        running.add(execution);
+        try {
+            return task.run(execution);
+        } finally {
+            running.remove(execution);
+            boolean compensated;
+            synchronized (execution) {
+                execution.finished = true;
+                compensated = execution.compensated;
+            }
+            if (compensated) {
+                releaseStuckThread();
+            }
+        }
+    }
+
+    /**
+     * 実行中のスクリプトの経過時間・CPU時間・メモリ割り当て量を確認
+     */
+    private void checkDeadlines() {
+        try {
+            long cpuLimitNanos = TimeUnit.MILLISECONDS.toNanos(cpuTimeLimitMs);
+            long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            long now = System.nanoTime();
+            for (Execution execution : running) {
+                if (execution.abortReason != null || execution.beginNanos < 0) {
+                    continue;
+                }
+                if (timeoutMs > 0 && now - execution.beginNanos > timeoutNanos) {
+                    abort(execution, "wall-clock");
+                    continue;
+                }
+                long threadId = execution.threadId;
+                if (cpuTimeLimitMs > 0 && execution.cpuStartNanos >= 0) {
+                    long cpu = threadMXBean.getThreadCpuTime(threadId);
+                    if (cpu >= 0 && cpu - execution.cpuStartNanos > cpuLimitNanos) {
+                        abort(execution, "cpu-time");
+                        continue;
+                    }
+                }
+                if (allocationMXBean != null && execution.allocatedStartBytes >= 0) {
+                    long allocated = allocationMXBean.getThreadAllocatedBytes(threadId);
+                    if (allocated >= 0 && allocated - execution.allocatedStartBytes > maxAllocatedBytes) {
+                        abort(execution, "memory");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[ScriptExecutionPool] ⚠️ 実行時間の確認に失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 実行を中断（スレッドに割り込み、中断に応じない場合に備えてスレッドを補充する）
+     */
+    private void abort(Execution execution, String reason) {
+        synchronized (execution) {
+            if (execution.abortReason != null) {
+                return;
+            }
+            execution.abortReason = reason;
+        }
+        Future<?> future = execution.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        synchronized (execution) {
+            if (execution.thread != null && !execution.finished) {
+                execution.compensated = acquireStuckThread();
+            }
+        }
+    }
+
+    private synchronized boolean acquireStuckThread() {
+        if (stuckThreads >= maxStuckThreads) {
+            return false;
+        }
+        stuckThreads++;
+        executor.setMaximumPoolSize(threads + stuckThreads);
+        executor.setCorePoolSize(threads + stuckThreads);
+        return true;
+    }
+
+    private synchronized void releaseStuckThread() {
+        stuckThreads--;
+        executor.setCorePoolSize(threads + stuckThreads);
+        executor.setMaximumPoolSize(threads + stuckThreads);
+    }
+
+    private ScriptTimeoutException timedOut(String scriptName, ScriptMetrics scriptMetrics, Execution execution,
+                                            long startNanos) {
+        String reason = execution.abortReason != null ? execution.abortReason : "cancelled";
+        scriptMetrics.recordTimeout(System.nanoTime() - startNanos, reason);
+        if (scriptMetrics.consecutiveTimeouts.get() >= quarantineAfterTimeouts) {
+            scriptMetrics.quarantinedUntil.set(System.currentTimeMillis() + quarantineMs);
+            System.err.println("[ScriptExecutionPool] ❌ タイムアウトが続いたためスクリプトの実行を停止: " + scriptName
+                    + " (" + quarantineMs + "ms)");
+        }
+        System.err.println("[ScriptExecutionPool] ⚠️ スクリプトを中断: " + scriptName + " - " + reason);
+        return new ScriptTimeoutException("スクリプトの実行が上限を超えたため中断しました: " + scriptName + " (" + reason + ")",
+                reason);
+    }
+
+    /**
+     * 専用スレッドで実行する処理
+     */
+    @FunctionalInterface
+    public interface ScriptTask<T> {
+        T run(Execution execution) throws Exception;
+    }
+
+    /**
+     * 1回の実行の状態（中断された場合、使用中の実行コンテキストは再利用しない）
+     */
+    public final class Execution {
+        private volatile Thread thread;
+        private volatile long threadId;
+        private volatile long beginNanos = -1;
+        private volatile long cpuStartNanos = -1;
+        private volatile long allocatedStartBytes = -1;
+        private volatile Future<?> future;
+        private volatile String abortReason;
+        private boolean compensated;
+        private boolean finished;
+
+        void start(Thread current) {
+            threadId = current.getId();
+            thread = current;
+        }
+
+        /**
+         * スクリプトの実行開始（実行コンテキストの取得後に呼び出す）。ここから上限の確認を始める
+         */
+        public void begin() {
+            cpuStartNanos = cpuTimeLimitMs > 0 ? threadMXBean.getThreadCpuTime(threadId) : -1;
+            allocatedStartBytes = allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) : -1;
+            beginNanos = System.nanoTime();
+        }
+
+        public boolean isAborted() {
+            return abortReason != null;
+        }
+    }
+
+    /**
+     * スクリプトごとの実行回数・実行時間・タイムアウト
+     */
+    private static final class ScriptMetrics {
+        private final String scriptName;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder[] latencyBuckets = new LongAdder[LATENCY_BUCKETS_MS.length + 1];
+        private final AtomicInteger consecutiveTimeouts = new AtomicInteger();
+        private final AtomicLong quarantinedUntil = new AtomicLong();
+        private volatile String lastTimeoutReason;
+
+        ScriptMetrics(String scriptName) {
+            this.scriptName = scriptName;
+            for (int i = 0; i < latencyBuckets.length; i++) {
+                latencyBuckets[i] = new LongAdder();
+            }
+        }
+
+        void recordSuccess(long nanos) {
+            record(nanos);
+            consecutiveTimeouts.set(0);
+        }
+
+        void recordFailure(long nanos) {
+            record(nanos);
+            failures.increment();
+            consecutiveTimeouts.set(0);
+        }
+
+        void recordTimeout(long nanos, String reason) {
+            record(nanos);
+            timeouts.increment();
+            lastTimeoutReason = reason;
+            consecutiveTimeouts.incrementAndGet();
+        }
+
+        private void record(long nanos) {
+            executions.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MS.length && millis >= LATENCY_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            latencyBuckets[bucket].increment();
+        }
+
+        Map<String, Object> toMap() {
+            long count = executions.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("scriptName", scriptName);
+            map.put("executions", count);
+            map.put("failures", failures.sum());
+            map.put("timeouts", timeouts.sum());
+            map.put("rejected", rejected.sum());
+            map.put("avgMicros", count > 0 ? TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / count) : 0);
+            map.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+            Map<String, Object> latency = new LinkedHashMap<>();
+            for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+                latency.put("<" + LATENCY_BUCKETS_MS[i] + "ms", latencyBuckets[i].sum());
+            }
+            latency.put(">=" + LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1] + "ms",
+                    latencyBuckets[LATENCY_BUCKETS_MS.length].sum());
+            map.put("latency", latency);
+            map.put("lastTimeoutReason", lastTimeoutReason);
+            map.put("quarantined", quarantinedUntil.get() > System.currentTimeMillis());
+            return map;
+        }
+    }
+
+    /**
+     * 上限を超えたためスクリプトを中断した
+     */
+    public static class ScriptTimeoutException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private final String reason;
+
+        public ScriptTimeoutException(String message, String reason) {
+            super(message);
+            this.reason = reason;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.tablecraft.app.service;
+
+import com.tablecraft.app.admin.entity.CustomScript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.script.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * カスタムスクリプト（CustomScript）の実行環境
+ * スクリプトはID・バージョンごとに1度だけコンパイルし（javax.script の Compilable）、
+ * 実行用のコンテキスト（Bindings）をスクリプトごとにプールして使い回す。実行は専用の実行プール（ScriptExecutionPool）で行う
+ * JavaScriptのエンジンはJavaのクラスを参照できない設定で作成する（GraalJS・Nashornのみ、Groovyは制限なし）
+ * 制限はエンジンの既定のコンテキストに設定されるため、JavaScriptは実行コンテキストごとにエンジンを作成する
+ * スクリプトの種類に対応するエンジンがない場合は、起動時に警告を出してその種類のスクリプトを実行しない
+ * スクリプトは execute(context) 関数を定義し、context には tableName / actionType / record / params を渡す
+ */
+@Service
+public class ScriptRuntimeService {
+
+    public static final String ACTION_BEFORE_SAVE = "before_save";
+    public static final String ACTION_AFTER_SAVE = "after_save";
+
+    // スクリプトの種類ごとに試すエンジン名（先に見つかったものを使用）
+    private static final Map<String, List<String>> ENGINE_NAMES = Map.of(
+            "javascript", List.of("graal.js", "nashorn", "javascript", "js"),
+            "groovy", List.of("groovy"));
+
+    @Value("${tablecraft.script.enabled:true}")
+    private boolean enabled;
+
+    // スクリプトごとにプールする実行コンテキストの数
+    @Value("${tablecraft.script.pool-size:4}")
+    private int poolSize;
+
+    @Value("${tablecraft.script.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMs;
+
+    @Autowired
+    private ScriptBindingRegistry bindingRegistry;
+
+    @Autowired
+    private ScriptExecutionPool executionPool;
+
+    // 同梱スクリプト（resources/scripts/*.js）の場所。起動時にエンジンでコンパイルできるか確認する
+    private static final String BUNDLED_SCRIPTS = "classpath*:scripts/*.js";
+
+    private final ScriptEngineManager engineManager = new ScriptEngineManager();
+    // スクリプトの種類ごとのエンジン（見つからない場合は空）
+    private final Map<String, Optional<ScriptEngineFactory>> engineFactories = new ConcurrentHashMap<>();
+    private final Map<Long, CompiledEntry> compiledScripts = new ConcurrentHashMap<>();
+    private final LongAdder compileCount = new LongAdder();
+    private final LongAdder executionCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        List<String> engines = new ArrayList<>();
+        for (ScriptEngineFactory factory : engineManager.getEngineFactories()) {
+            engines.add(factory.getEngineName() + " " + factory.getEngineVersion());
+        }
+        System.out.println("[ScriptRuntimeService] 利用可能なスクリプトエンジン: " + (engines.isEmpty() ? "なし" : engines));
+        if (!enabled) {
+            return;
+        }
+        for (String type : ENGINE_NAMES.keySet()) {
+            findEngineFactory(type);
+        }
+        findEngineFactory("javascript").ifPresent(this::checkBundledScripts);
+    }
+
+    /**
+     * テーブルのアクションに紐付いたスクリプトを実行順に実行
+     * スクリプトには record の複製を渡し、中断されずに終了した場合のみ変更を record に反映する
+     * （中断に応じないスクリプトのスレッドが、呼び出し側で使用中の record を変更しないようにする）
+     *
+     * @return スクリプトの戻り値（実行順）
+     */
+    public List<Object> runHooks(String tableName, String actionType, Map<String, Object> record) {
+        if (!enabled) {
+            return Collections.emptyList();
+        }
+        List<ScriptBindingRegistry.Handle> handles = bindingRegistry.get(tableName, actionType);
+        if (handles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = new ArrayList<>(handles.size());
+        for (ScriptBindingRegistry.Handle handle : handles) {
+            // エンジンがない種類のスクリプトは実行しない（起動時・初回に警告済み）
+            if (!findEngineFactory(handle.getScript().getScriptType()).isPresent()) {
+                continue;
+            }
+            Map<String, Object> copy = new LinkedHashMap<>(record);
+            results.add(execute(handle.getScript(), createContext(tableName, handle, copy)));
+            // execute() が戻った時点でスクリプトの実行は終了している（中断時は例外）
+            if (!copy.equals(record)) {
+                record.clear();
+                record.putAll(copy);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 保存前のスクリプトを実行（success=false を返した場合は保存を中止）
+     * スクリプトが record を変更した場合、または戻り値に record を含む場合は保存する値に反映する
+     */
+    @SuppressWarnings("unchecked")
+    public void runBeforeSave(String tableName, Map<String, Object> record) {
+        for (Object result : runHooks(tableName, ACTION_BEFORE_SAVE, record)) {
+            if (!(result instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> map = (Map<String, Object>) result;
+            if (Boolean.FALSE.equals(map.get("success"))) {
+                Object error = map.get("error");
+                throw new IllegalArgumentException(error != null ? error.toString() : "保存前のスクリプトで中止されました");
+            }
+            if (map.get("record") instanceof Map) {
+                record.putAll((Map<String, Object>) map.get("record"));
+            }
+        }
+    }
+
+    /**
+     * 保存後のスクリプトを実行（エラーは記録のみ、保存済みのデータには影響しない）
+     */
+    public void runAfterSave(String tableName, Map<String, Object> record) {
+        try {
+            runHooks(tableName, ACTION_AFTER_SAVE, record);
+        } catch (Exception e) {
+            System.err.println("[ScriptRuntimeService] ⚠️ 保存後のスクリプトでエラー: " + tableName + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * スクリプトを実行（未コンパイル、またはバージョンが変わった場合はコンパイルする）
+     */
+    public Object execute(CustomScript script, Map<String, Object> context) {
+        CompiledEntry entry = getCompiled(script);
+        executionCount.increment();
+        return executionPool.execute(script.getId(), script.getScriptName(), execution -> {
+            ScriptInstance instance = entry.borrow();
+            try {
+                execution.begin();
+                return toJava(instance.eval(context));
+            } catch (ScriptException e) {
+                throw new IllegalStateException("スクリプトの実行に失敗しました: " + script.getScriptName() + " - " + e.getMessage(), e);
+            } finally {
+                // 中断された実行コンテキストは状態が不明なため再利用しない
+                if (execution.isAborted()) {
+                    entry.discard(instance);
+                } else {
+                    entry.release(instance);
+                }
+            }
+        });
+    }
+
+    /**
+     * コンパイル済みのスクリプトを破棄（スクリプトの更新・削除時）
+     */
+    public void invalidate(Long scriptId) {
+        compiledScripts.remove(scriptId);
+    }
+
+    public void clear() {
+        compiledScripts.clear();
+    }
+
+    /**
+     * 紐付け・スクリプトを読み込み直し、コンパイル済みのスクリプトを破棄
+     */
+    public void reload() {
+        compiledScripts.clear();
+        executionPool.resetAllQuarantines();
+        try {
+            bindingRegistry.refresh();
+        } catch (Exception e) {
+            System.err.println("[ScriptRuntimeService] ⚠️ スクリプトの紐付けの再読み込みに失敗: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("compiledScripts", compiledScripts.size());
+        stats.put("compileCount", compileCount.sum());
+        stats.put("executionCount", executionCount.sum());
+        stats.put("pool", executionPool.getStats());
+        stats.put("registry", bindingRegistry.getStats());
+        return stats;
+    }
+
+    private CompiledEntry getCompiled(CustomScript script) {
+        CompiledEntry entry = compiledScripts.get(script.getId());
+        if (entry != null && entry.matches(script)) {
+            return entry;
+        }
+        return compiledScripts.compute(script.getId(), (id, current) -> {
+            if (current != null && current.matches(script)) {
+                return current;
+            }
+            // 更新されたスクリプトは停止中でも実行を再開する
+            executionPool.resetQuarantine(id);
+            return new CompiledEntry(script);
+        });
+    }
+
+    private Map<String, Object> createContext(String tableName, ScriptBindingRegistry.Handle handle,
+                                              Map<String, Object> record) {
+        Map<String, Object> context = new HashMap<>();
+        context.put("tableName", tableName);
+        context.put("actionType", handle.getBinding().getActionType());
+        context.put("actionName", handle.getBinding().getActionName());
+        context.put("record", record);
+        context.put("params", handle.getParams());
+        return context;
+    }
+
+    /**
+     * エンジン固有のオブジェクト（JSのオブジェクト・配列等）をJavaのMap・Listに変換
+     */
+    private static Object toJava(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(String.valueOf(entry.getKey()), toJava(entry.getValue()));
+            }
+            return map;
+        }
+        if (value instanceof Collection) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (Collection<?>) value) {
+                list.add(toJava(item));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    /**
+     * 1スクリプト分のコンパイル結果と実行コンテキストのプール
+     * スレッドセーフなエンジンは1つのエンジン・コンパイル結果を共有し、実行コンテキストのみ分ける
+     * それ以外のエンジンはプールする実行コンテキストごとにエンジンを作成してコンパイルする
+     */
+    private final class CompiledEntry {
+        private final Long scriptId;
+        private final Integer version;
+        private final LocalDateTime updatedAt;
+        private final String scriptName;
+        private final String source;
+        private final ScriptEngineFactory factory;
+        private final boolean threadSafe;
+        private final BlockingQueue<ScriptInstance> idle = new LinkedBlockingQueue<>();
+        private final AtomicInteger created = new AtomicInteger();
+        private volatile ScriptInstance shared;
+
+        CompiledEntry(CustomScript script) {
+            this.scriptId = script.getId();
+            this.version = script.getVersion();
+            this.updatedAt = script.getUpdatedAt();
+            this.scriptName = script.getScriptName();
+            // execute(context) を定義したスクリプトの末尾で呼び出し、戻り値を結果とする
+            this.source = script.getScriptContent() + "\n;execute(context);";
+            this.factory = findEngineFactory(script.getScriptType()).orElseThrow(() -> new IllegalStateException(
+                    "スクリプトエンジンが見つかりません: " + script.getScriptType() + " (" + script.getScriptName() + ")"));
+            // 制限付きで作成するエンジンは既定のコンテキストにのみ制限が掛かるため共有しない
+            this.threadSafe = isThreadSafe(factory) && !isSandboxed(factory);
+            // 最初の実行コンテキストを作成してコンパイルエラーを検出する
+            created.incrementAndGet();
+            idle.add(newInstance());
+        }
+
+        boolean matches(CustomScript script) {
+            return Objects.equals(scriptId, script.getId()) && Objects.equals(version, script.getVersion())
+                    && Objects.equals(updatedAt, script.getUpdatedAt());
+        }
+
+        ScriptInstance borrow() throws ScriptException {
+            ScriptInstance instance = idle.poll();
+            if (instance != null) {
+                return instance;
+            }
+            // プールの上限までは新しい実行コンテキストを作成（作成数の確保は不可分に行う）
+            for (int count = created.get(); count < poolSize; count = created.get()) {
+                if (created.compareAndSet(count, count + 1)) {
+                    return newInstance();
+                }
+            }
+            try {
+                instance = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScriptException("実行コンテキストの取得が中断されました: " + scriptName);
+            }
+            if (instance == null) {
+                throw new ScriptException("実行コンテキストの取得がタイムアウトしました: " + scriptName);
+            }
+            return instance;
+        }
+
+        void release(ScriptInstance instance) {
+            idle.offer(instance);
+        }
+
+        void discard(ScriptInstance instance) {
+            created.decrementAndGet();
+        }
+
+        /**
+         * 実行コンテキストを作成（呼び出し側で created を確保済み、失敗時は戻す）
+         */
+        private ScriptInstance newInstance() {
+            try {
+                if (threadSafe && shared != null) {
+                    return new ScriptInstance(shared.engine, shared.compiled, shared.engine.createBindings(), source);
+                }
+                ScriptEngine engine = createEngine(factory);
+                CompiledScript compiled = null;
+                if (engine instanceof Compilable) {
+                    compiled = ((Compilable) engine).compile(source);
+                    compileCount.increment();
+                } else {
+                    System.err.println("[ScriptRuntimeService] ⚠️ エンジンがコンパイルに対応していないため毎回評価します: "
+                            + factory.getEngineName());
+                }
+                ScriptInstance instance = new ScriptInstance(engine, compiled,
+                        engine.getBindings(ScriptContext.ENGINE_SCOPE), source);
+                if (threadSafe) {
+                    shared = instance;
+                }
+                return instance;
+            } catch (ScriptException e) {
+                created.decrementAndGet();
+                throw new IllegalArgumentException("スクリプトのコンパイルに失敗しました: " + scriptName + " - " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * スクリプトの種類に対応するエンジンを検索（種類ごとに1度だけ検索し、見つからない場合は警告する）
+     */
+    private Optional<ScriptEngineFactory> findEngineFactory(String scriptType) {
+        String type = scriptType != null ? scriptType.toLowerCase() : "";
+        return engineFactories.computeIfAbsent(type, key -> {
+            for (String name : ENGINE_NAMES.getOrDefault(key, Collections.singletonList(key))) {
+                ScriptEngine engine = engineManager.getEngineByName(name);
+                if (engine != null) {
+                    return Optional.of(engine.getFactory());
+                }
+            }
+            System.err.println("[ScriptRuntimeService] ⚠️ スクリプトエンジンが見つかりません: " + key
+                    + "（この種類のスクリプトの紐付けは実行しません）");
+            return Optional.empty();
+        });
+    }
+
+    /**
+     * 同梱スクリプトが選択したエンジンでコンパイルできるか確認（結果はログのみ）
+     */
+    private void checkBundledScripts(ScriptEngineFactory factory) {
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(BUNDLED_SCRIPTS)) {
+                ScriptEngine engine = createEngine(factory);
+                if (!(engine instanceof Compilable)) {
+                    return;
+                }
+                try {
+                    String content = new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+                    ((Compilable) engine).compile(content);
+                } catch (ScriptException e) {
+                    System.err.println("[ScriptRuntimeService] ⚠️ 同梱スクリプトをコンパイルできません: "
+                            + resource.getFilename() + " (" + factory.getEngineName() + ") - " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[ScriptRuntimeService] ⚠️ 同梱スクリプトの確認に失敗: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Javaのクラスを参照できない設定でエンジンを作成（context の Map・List の参照は可能）
+     * GraalJSの制限はエンジンの既定のコンテキストに適用されるため、実行もそのコンテキスト（ENGINE_SCOPE）で行う
+     */
+    private static ScriptEngine createEngine(ScriptEngineFactory factory) {
+        String engineName = factory.getEngineName() != null ? factory.getEngineName().toLowerCase() : "";
+        if (engineName.contains("graal")) {
+            ScriptEngine engine = factory.getScriptEngine();
+            Bindings options = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+            options.put("polyglot.js.allowHostAccess", true);
+            options.put("polyglot.js.allowHostClassLookup", (java.util.function.Predicate<String>) className -> false);
+            options.put("polyglot.js.allowIO", false);
+            options.put("polyglot.js.allowCreateThread", false);
+            options.put("polyglot.js.allowNativeAccess", false);
+            return engine;
+        }
+        if (engineName.contains("nashorn")) {
+            try {
+                return (ScriptEngine) factory.getClass().getMethod("getScriptEngine", String[].class)
+                        .invoke(factory, (Object) new String[]{"--no-java", "--no-syntax-extensions"});
+            } catch (ReflectiveOperationException e) {
+                System.err.println("[ScriptRuntimeService] ⚠️ Nashornの制限付きエンジンを作成できません: " + e.getMessage());
+            }
+        }
+        return factory.getScriptEngine();
+    }
+
+    private static boolean isSandboxed(ScriptEngineFactory factory) {
+        String engineName = factory.getEngineName() != null ? factory.getEngineName().toLowerCase() : "";
+        return engineName.contains("graal") || engineName.contains("nashorn");
+    }
+
+    private static boolean isThreadSafe(ScriptEngineFactory factory) {
+        Object threading = factory.getParameter("THREADING");
+        return "MULTITHREADED".equals(threading) || "THREAD-ISOLATED".equals(threading) || "STATELESS".equals(threading);
+    }
+
+    /**
+     * プールする実行コンテキスト（同時に1スレッドのみが使用する）
+     */
+    private static final class ScriptInstance {
+        private final ScriptEngine engine;
+        private final CompiledScript compiled;
+        private final Bindings bindings;
+        private final String source;
+
+        ScriptInstance(ScriptEngine engine, CompiledScript compiled, Bindings bindings, String source) {
+            this.engine = engine;
+            this.compiled = compiled;
+            this.bindings = bindings;
+            this.source = source;
+        }
+
+        Object eval(Map<String, Object> context) throws ScriptException {
+            bindings.put("context", context);
+            try {
+                return compiled != null ? compiled.eval(bindings) : engine.eval(source, bindings);
+            } finally {
+                bindings.remove("context");
+            }
+        }
+    }
+}
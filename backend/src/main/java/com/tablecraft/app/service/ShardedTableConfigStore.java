@@ -0,0 +1,304 @@
+package com.tablecraft.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tablecraft.app.model.TableConfig;
+import com.tablecraft.app.model.TableDefinition;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * テーブル単位に分割された設定ディレクトリの読み込みを担当
+ * index.json（ヘッダー情報とテーブルID一覧）と &lt;tableId&gt;.json で構成され、
+ * テーブル定義は初回アクセス時に読み込み、ファイル単位の更新時刻で再読み込みする
+ */
+public class ShardedTableConfigStore {
+
+    public static final String INDEX_FILE_NAME = "index.json";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+    // 読み込み済み定義のうち、ファイル更新により再読み込みされたテーブルID（変更通知用）
+    private final Set<String> reloadedTableIds = ConcurrentHashMap.newKeySet();
+
+    private volatile Set<String> tableIds = Collections.emptySet();
+    private volatile ObjectNode header;
+    private long indexLastModified = 0;
+
+    public ShardedTableConfigStore(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 分割レイアウトが存在するか（index.jsonの有無）
+     */
+    public boolean exists() {
+        return Files.exists(getIndexPath());
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Path getIndexPath() {
+        return directory.resolve(INDEX_FILE_NAME);
+    }
+
+    /**
+     * テーブル定義ファイルのパスを取得
+     */
+    public Path getShardPath(String tableId) {
+        return directory.resolve(tableId + ".json");
+    }
+
+    /**
+     * index.jsonが前回読み込み以降に更新されたか
+     */
+    public boolean isIndexModified() {
+        return lastModified(getIndexPath()) > indexLastModified;
+    }
+
+    /**
+     * index.jsonを読み込み、テーブル定義を遅延読み込みするTableConfigを返す
+     * テーブル本体はここでは読み込まない
+     */
+    public synchronized TableConfig loadIndex() throws IOException {
+        Path indexPath = getIndexPath();
+        long modified = lastModified(indexPath);
+        JsonNode root = objectMapper.readTree(indexPath.toFile());
+
+        Set<String> ids = new LinkedHashSet<>();
+        JsonNode tablesNode = root.get("tables");
+        if (tablesNode != null && tablesNode.isArray()) {
+            for (JsonNode idNode : tablesNode) {
+                ids.add(idNode.asText());
+            }
+        }
+
+        ObjectNode headerNode = root.deepCopy();
+        headerNode.remove("tables");
+
+        // 一覧から外れたテーブルのキャッシュを破棄
+        shards.keySet().retainAll(ids);
+
+        this.header = headerNode;
+        this.tableIds = Collections.unmodifiableSet(ids);
+        this.indexLastModified = modified;
+
+        TableConfig config = objectMapper.treeToValue(headerNode, TableConfig.class);
+        config.setTables(new LazyTableMap());
+        return config;
+    }
+
+    /**
+     * テーブル定義を取得（未読み込みの場合のみ読み込み、ファイルの更新は refreshModifiedShards で反映）
+     */
+    public TableDefinition getDefinition(String tableId) {
+        Shard shard = getShard(tableId);
+        return shard != null ? shard.definition : null;
+    }
+
+    /**
+     * テーブル定義の元JSONを取得
+     */
+    public JsonNode getRawDefinition(String tableId) {
+        Shard shard = getShard(tableId);
+        return shard != null ? shard.raw : null;
+    }
+
+    /**
+     * 書き込み済みのテーブル定義を差分として反映（rawがnullの場合は削除）
+     * ファイルの再読み込みを行わずにキャッシュを更新する
+     */
+    public synchronized void applyDelta(String tableId, JsonNode raw) throws IOException {
+        Set<String> ids = new LinkedHashSet<>(tableIds);
+        if (raw != null) {
+            Shard shard = new Shard();
+            shard.raw = raw;
+            shard.definition = objectMapper.treeToValue(raw, TableDefinition.class);
+            shard.lastModified = lastModified(getShardPath(tableId));
+            shards.put(tableId, shard);
+            ids.add(tableId);
+        } else {
+            shards.remove(tableId);
+            ids.remove(tableId);
+        }
+        this.tableIds = Collections.unmodifiableSet(ids);
+        this.indexLastModified = lastModified(getIndexPath());
+    }
+
+    public Set<String> getTableIds() {
+        return tableIds;
+    }
+
+    /**
+     * 読み込み済みのテーブル数
+     */
+    public int getLoadedCount() {
+        return shards.size();
+    }
+
+    /**
+     * 単一ファイル形式（tablesをMapで持つJSON）に組み立てる
+     * 全テーブルを読み込むため、一覧表示など全件が必要な場合のみ使用する
+     */
+    public ObjectNode toJsonTree() {
+        return toJsonTree(null);
+    }
+
+    /**
+     * 指定テーブルのみを含む単一ファイル形式のJSONに組み立てる（filterがnullの場合は全テーブル）
+     */
+    public ObjectNode toJsonTree(Collection<String> filter) {
+        ObjectNode root = header != null ? header.deepCopy() : objectMapper.createObjectNode();
+        ObjectNode tablesNode = root.putObject("tables");
+        for (String tableId : tableIds) {
+            if (filter != null && !filter.contains(tableId)) {
+                continue;
+            }
+            JsonNode raw = getRawDefinition(tableId);
+            if (raw != null) {
+                tablesNode.set(tableId, raw);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 読み込み済みのテーブル定義ファイルの更新時刻を確認し、変更されたものを再読み込みする
+     * 前回呼び出し以降にアクセス時に再読み込みされたものも含め、変更されたテーブルIDを返す
+     */
+    public synchronized List<String> refreshModifiedShards() {
+        for (Map.Entry<String, Shard> entry : shards.entrySet()) {
+            Shard shard = entry.getValue();
+            if (shard.definition != null && lastModified(getShardPath(entry.getKey())) > shard.lastModified) {
+                load(entry.getKey(), shard);
+            }
+        }
+
+        List<String> changed = new ArrayList<>(reloadedTableIds);
+        reloadedTableIds.removeAll(changed);
+        return changed;
+    }
+
+    private Shard getShard(String tableId) {
+        if (tableId == null || !tableIds.contains(tableId)) {
+            return null;
+        }
+
+        // 読み込み済みの場合はファイルを確認しない（業務画面の参照ごとにファイルシステムへアクセスしない）
+        Shard shard = shards.computeIfAbsent(tableId, id -> new Shard());
+        if (shard.definition == null) {
+            synchronized (shard) {
+                if (shard.definition == null && !load(tableId, shard)) {
+                    shards.remove(tableId);
+                    return null;
+                }
+            }
+        }
+        return shard;
+    }
+
+    /**
+     * テーブル定義ファイルを読み込んでキャッシュエントリを更新（失敗時は直前の定義を使い続ける）
+     */
+    private boolean load(String tableId, Shard shard) {
+        synchronized (shard) {
+            Path shardPath = getShardPath(tableId);
+            long modified = lastModified(shardPath);
+            try {
+                JsonNode raw = objectMapper.readTree(shardPath.toFile());
+                TableDefinition definition = objectMapper.treeToValue(raw, TableDefinition.class);
+                if (shard.definition != null && !raw.equals(shard.raw)) {
+                    reloadedTableIds.add(tableId);
+                }
+                shard.raw = raw;
+                shard.definition = definition;
+                shard.lastModified = modified;
+                System.out.println("[ShardedTableConfigStore] テーブル定義を読み込み: " + tableId);
+                return true;
+            } catch (IOException e) {
+                System.err.println("[ShardedTableConfigStore] ❌ テーブル定義の読み込みに失敗: " + tableId
+                        + " (" + e.getMessage() + ")");
+                return false;
+            }
+        }
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.exists(path) ? Files.getLastModifiedTime(path).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 読み込み済みテーブル定義のキャッシュエントリ
+     */
+    private static class Shard {
+        private volatile long lastModified;
+        private volatile JsonNode raw;
+        private volatile TableDefinition definition;
+    }
+
+    /**
+     * index.jsonのテーブルID一覧をキーとし、値を初回アクセス時に読み込むMap
+     */
+    private class LazyTableMap extends AbstractMap<String, TableDefinition> {
+
+        @Override
+        public TableDefinition get(Object key) {
+            return key instanceof String ? getDefinition((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return tableIds.contains(key);
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return tableIds;
+        }
+
+        @Override
+        public int size() {
+            return tableIds.size();
+        }
+
+        @Override
+        public Set<Entry<String, TableDefinition>> entrySet() {
+            return new AbstractSet<Entry<String, TableDefinition>>() {
+                @Override
+                public Iterator<Entry<String, TableDefinition>> iterator() {
+                    Iterator<String> ids = tableIds.iterator();
+                    return new Iterator<Entry<String, TableDefinition>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return ids.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, TableDefinition> next() {
+                            String id = ids.next();
+                            return new SimpleImmutableEntry<>(id, getDefinition(id));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return tableIds.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.tablecraft.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * validation-config.json の1テーブル分のルールをコンパイルした検証器（不変・スレッドセーフ）
+ * 正規表現は事前にコンパイルし、数値の上下限はプリミティブで保持する。エラーがない場合はオブジェクトを生成しない
+ * ルールの判定はフロントエンド（DynamicForm）と同じ（空の値は required 以外のルールを適用しない）
+ * unique はDBの参照が必要なため対象カラムのみを保持し、判定は呼び出し側で行う
+ */
+public final class TableValidator {
+
+    public enum Mode {
+        // 登録: 値のない必須項目もエラー
+        INSERT,
+        // 更新: 指定された項目のみ検証
+        UPDATE
+    }
+
+    private static final String EMAIL_PATTERN = "^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$";
+
+    private final String tableName;
+    private final FieldRules[] fields;
+    private final List<String> uniqueFields;
+
+    private TableValidator(String tableName, FieldRules[] fields, List<String> uniqueFields) {
+        this.tableName = tableName;
+        this.fields = fields;
+        this.uniqueFields = uniqueFields;
+    }
+
+    /**
+     * テーブルのルール定義をコンパイル
+     * 形式は fields.&lt;name&gt;.rules[]（validation-config.json）と columns.&lt;name&gt;[]（管理画面の生成結果）の両方に対応
+     *
+     * @param generatedColumns 登録時に値がなくてもよいカラム（AUTO_INCREMENT・デフォルト値あり）
+     */
+    public static TableValidator compile(String tableName, JsonNode tableNode, Set<String> generatedColumns) {
+        List<FieldRules> fields = new ArrayList<>();
+        List<String> uniqueFields = new ArrayList<>();
+
+        JsonNode fieldsNode = tableNode.get("fields");
+        JsonNode columnsNode = tableNode.get("columns");
+        if (fieldsNode != null && fieldsNode.isObject()) {
+            fieldsNode.fields().forEachRemaining(entry -> {
+                JsonNode fieldNode = entry.getValue();
+                String name = fieldNode.hasNonNull("name") ? fieldNode.get("name").asText() : entry.getKey();
+                addField(tableName, name, fieldNode.get("rules"), generatedColumns, fields, uniqueFields);
+            });
+        } else if (columnsNode != null && columnsNode.isObject()) {
+            columnsNode.fields().forEachRemaining(entry -> addField(tableName, entry.getKey(), entry.getValue(),
+                    generatedColumns, fields, uniqueFields));
+        }
+
+        return new TableValidator(tableName, fields.toArray(new FieldRules[0]),
+                Collections.unmodifiableList(uniqueFields));
+    }
+
+    private static void addField(String tableName, String name, JsonNode rulesNode, Set<String> generatedColumns,
+                                 List<FieldRules> fields, List<String> uniqueFields) {
+        if (rulesNode == null || !rulesNode.isArray() || rulesNode.size() == 0) {
+            return;
+        }
+        FieldRules rules = new FieldRules(tableName, name, rulesNode, generatedColumns.contains(name));
+        if (rules.unique) {
+            uniqueFields.add(name);
+        }
+        if (rules.hasRules()) {
+            fields.add(rules);
+        }
+    }
+
+    /**
+     * 1行分の値を検証
+     *
+     * @return エラーの一覧（エラーがない場合は空の不変リスト）
+     */
+    public List<FieldError> validate(Map<String, Object> row, Mode mode) {
+        List<FieldError> errors = null;
+        for (FieldRules field : fields) {
+            boolean present = row.containsKey(field.name);
+            if (!present && mode == Mode.UPDATE) {
+                continue;
+            }
+            FieldError error = field.check(row.get(field.name), present, mode);
+            if (error != null) {
+                if (errors == null) {
+                    errors = new ArrayList<>(4);
+                }
+                errors.add(error);
+            }
+        }
+        return errors != null ? errors : Collections.emptyList();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * unique ルールが設定されたカラム
+     */
+    public List<String> getUniqueFields() {
+        return uniqueFields;
+    }
+
+    /**
+     * 値を検証するルールがあるか（unique のみの場合はfalse）
+     */
+    public boolean hasFieldRules() {
+        return fields.length > 0;
+    }
+
+    /**
+     * 1カラム分のルール（未設定の上下限は-1またはNaN）
+     */
+    private static final class FieldRules {
+        private final String name;
+        private final boolean required;
+        private final boolean generated;
+        private final String requiredMessage;
+        private final int minLength;
+        private final String minLengthMessage;
+        private final int maxLength;
+        private final String maxLengthMessage;
+        private final double min;
+        private final String minMessage;
+        private final double max;
+        private final String maxMessage;
+        private final Pattern pattern;
+        private final String patternMessage;
+        private final boolean unique;
+
+        FieldRules(String tableName, String name, JsonNode rulesNode, boolean generated) {
+            this.name = name;
+            this.generated = generated;
+
+            boolean required = false;
+            String requiredMessage = null;
+            int minLength = -1;
+            String minLengthMessage = null;
+            int maxLength = -1;
+            String maxLengthMessage = null;
+            double min = Double.NaN;
+            String minMessage = null;
+            double max = Double.NaN;
+            String maxMessage = null;
+            Pattern pattern = null;
+            String patternMessage = null;
+            boolean unique = false;
+
+            for (JsonNode rule : rulesNode) {
+                String type = rule.path("type").asText();
+                JsonNode value = rule.get("value");
+                String message = rule.hasNonNull("message") ? rule.get("message").asText() : null;
+                switch (type) {
+                    case "required":
+                        required = true;
+                        requiredMessage = message != null ? message : "validation.required";
+                        break;
+                    case "minLength":
+                        if (value != null && value.canConvertToInt()) {
+                            minLength = value.asInt();
+                            minLengthMessage = message != null ? message : "validation.min.length";
+                        }
+                        break;
+                    case "maxLength":
+                        if (value != null && value.canConvertToInt()) {
+                            maxLength = value.asInt();
+                            maxLengthMessage = message != null ? message : "validation.max.length";
+                        }
+                        break;
+                    case "min":
+                        if (value != null && value.isNumber()) {
+                            min = value.asDouble();
+                            minMessage = message != null ? message : "validation.min.value";
+                        }
+                        break;
+                    case "max":
+                        if (value != null && value.isNumber()) {
+                            max = value.asDouble();
+                            maxMessage = message != null ? message : "validation.max.value";
+                        }
+                        break;
+                    case "pattern":
+                        if (value != null && value.isTextual()) {
+                            String regex = "email".equals(value.asText()) ? EMAIL_PATTERN : value.asText();
+                            try {
+                                pattern = Pattern.compile(regex);
+                                patternMessage = message != null ? message : "validation.pattern.invalid";
+                            } catch (PatternSyntaxException e) {
+                                System.err.println("[TableValidator] ⚠️ 正規表現が不正なためルールを無視: "
+                                        + tableName + "." + name + " - " + e.getDescription());
+                            }
+                        }
+                        break;
+                    case "unique":
+                        unique = true;
+                        break;
+                    default:
+                        // 未対応のルールはフロントエンドのみで判定
+                        break;
+                }
+            }
+
+            this.required = required;
+            this.requiredMessage = requiredMessage;
+            this.minLength = minLength;
+            this.minLengthMessage = minLengthMessage;
+            this.maxLength = maxLength;
+            this.maxLengthMessage = maxLengthMessage;
+            this.min = min;
+            this.minMessage = minMessage;
+            this.max = max;
+            this.maxMessage = maxMessage;
+            this.pattern = pattern;
+            this.patternMessage = patternMessage;
+            this.unique = unique;
+        }
+
+        boolean hasRules() {
+            return required || minLength >= 0 || maxLength >= 0 || !Double.isNaN(min) || !Double.isNaN(max)
+                    || pattern != null;
+        }
+
+        FieldError check(Object value, boolean present, Mode mode) {
+            if (value == null || (value instanceof String && ((String) value).isEmpty())) {
+                // 登録時に省略されたAUTO_INCREMENT・デフォルト値ありのカラムはDB側で設定される
+                if (required && !(mode == Mode.INSERT && !present && generated)) {
+                    return new FieldError(name, "required", requiredMessage, null);
+                }
+                return null;
+            }
+
+            if (minLength >= 0 || maxLength >= 0 || pattern != null) {
+                String text = value.toString();
+                if (minLength >= 0 && text.length() < minLength) {
+                    return new FieldError(name, "minLength", minLengthMessage, minLength);
+                }
+                if (maxLength >= 0 && text.length() > maxLength) {
+                    return new FieldError(name, "maxLength", maxLengthMessage, maxLength);
+                }
+                if (pattern != null && !pattern.matcher(text).find()) {
+                    return new FieldError(name, "pattern", patternMessage, null);
+                }
+            }
+
+            if (!Double.isNaN(min) || !Double.isNaN(max)) {
+                double number;
+                if (value instanceof Number) {
+                    number = ((Number) value).doubleValue();
+                } else {
+                    try {
+                        number = Double.parseDouble(value.toString().trim());
+                    } catch (NumberFormatException e) {
+                        return new FieldError(name, "number", "validation.number.invalid", null);
+                    }
+                }
+                if (!Double.isNaN(min) && number < min) {
+                    return new FieldError(name, "min", minMessage, toParam(min));
+                }
+                if (!Double.isNaN(max) && number > max) {
+                    return new FieldError(name, "max", maxMessage, toParam(max));
+                }
+            }
+            return null;
+        }
+
+        private static Object toParam(double bound) {
+            return bound == Math.rint(bound) && Math.abs(bound) < Long.MAX_VALUE ? (Object) (long) bound : bound;
+        }
+    }
+
+    /**
+     * 1項目の検証エラー（message はメッセージキー、value はメッセージの引数）
+     */
+    public static final class FieldError {
+        private final String field;
+        private final String rule;
+        private final String message;
+        private final Object value;
+
+        public FieldError(String field, String rule, String message, Object value) {
+            this.field = field;
+            this.rule = rule;
+            this.message = message;
+            this.value = value;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("field", field);
+            map.put("rule", rule);
+            map.put("message", message);
+            if (value != null) {
+                map.put("value", value);
+            }
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return field + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.tablecraft.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tablecraft.app.model.ColumnDefinition;
+import com.tablecraft.app.model.TableConfig;
+import com.tablecraft.app.model.TableDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * validation-config.json の読み込みと、テーブルごとの検証器（TableValidator）の管理
+ * 検証器はテーブルの初回利用時にコンパイルし、設定ファイルまたはテーブル設定が変更されるまで使い回す
+ */
+@Service
+public class ValidationConfigService {
+
+    private static final String VALIDATION_CONFIG_FILE = "validation-config.json";
+
+    @Value("${tablecraft.admin.config.save-path:src/main/resources/config}")
+    private String externalConfigPath;
+
+    @Value("${tablecraft.config.enable-external:true}")
+    private boolean enableExternalConfig;
+
+    @Value("${tablecraft.config.hot-reload:true}")
+    private boolean hotReload;
+
+    @Autowired
+    private ExternalConfigService configService;
+
+    @Autowired
+    private ConfigSnapshotCodec snapshotCodec;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Compiled compiled = new Compiled(Collections.emptyMap(), -1);
+    private long lastModified = 0;
+
+    @PostConstruct
+    public void initialize() {
+        reload();
+    }
+
+    /**
+     * テーブルの検証器（ルールが定義されていない場合はnull）
+     */
+    public TableValidator getValidator(String tableName) {
+        // テーブル設定（AUTO_INCREMENT・デフォルト値）が変わった場合はコンパイルし直す
+        Compiled current = compiled;
+        if (configService.getConfigVersion() != current.configVersion) {
+            // reload() と同じロックで差し替え、再読み込みしたルールを古いルールで上書きしない
+            synchronized (this) {
+                current = compiled;
+                long configVersion = configService.getConfigVersion();
+                if (configVersion != current.configVersion) {
+                    current = new Compiled(current.tableRules, configVersion);
+                    compiled = current;
+                }
+            }
+        }
+        Map<String, JsonNode> rules = current.tableRules;
+        return current.validators.computeIfAbsent(tableName, name -> Optional.ofNullable(compile(rules, name)))
+                .orElse(null);
+    }
+
+    /**
+     * 設定ファイルを再読み込み（コンパイル済みの検証器は破棄する）
+     */
+    public synchronized void reload() {
+        try {
+            JsonNode root = readConfig();
+            Map<String, JsonNode> rules = new HashMap<>();
+            JsonNode tablesNode = root != null ? root.get("tables") : null;
+            if (tablesNode != null && tablesNode.isObject()) {
+                tablesNode.fields().forEachRemaining(entry -> rules.put(entry.getKey(), entry.getValue()));
+            }
+            compiled = new Compiled(rules, configService.getConfigVersion());
+            System.out.println("[ValidationConfigService] ✅ バリデーション設定の読み込み完了: " + rules.size() + " テーブル");
+        } catch (Exception e) {
+            System.err.println("[ValidationConfigService] ❌ バリデーション設定の読み込みエラー: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 設定ファイルの更新を定期的にチェック
+     */
+    @Scheduled(fixedDelayString = "${tablecraft.config.hot-reload-interval-ms:5000}",
+            initialDelayString = "${tablecraft.config.hot-reload-interval-ms:5000}")
+    public void checkForUpdates() {
+        if (!hotReload) {
+            return;
+        }
+        Path path = getExternalPath();
+        if (path == null) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(path).toMillis() > lastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            System.err.println("[ValidationConfigService] ⚠️ 設定ファイルの更新チェックに失敗: " + e.getMessage());
+        }
+    }
+
+    private TableValidator compile(Map<String, JsonNode> rules, String tableName) {
+        JsonNode tableNode = rules.get(tableName);
+        if (tableNode == null) {
+            tableNode = rules.get(tableName.toLowerCase());
+        }
+        if (tableNode == null) {
+            return null;
+        }
+        TableValidator validator = TableValidator.compile(tableName, tableNode, getGeneratedColumns(tableName));
+        return validator.hasFieldRules() || !validator.getUniqueFields().isEmpty() ? validator : null;
+    }
+
+    /**
+     * 登録時に省略できるカラム（AUTO_INCREMENT・デフォルト値あり）
+     */
+    private Set<String> getGeneratedColumns(String tableName) {
+        TableConfig config = configService.getTableConfig();
+        TableDefinition definition = config != null && config.getTables() != null
+                ? config.getTables().get(tableName) : null;
+        if (definition == null || definition.getColumns() == null) {
+            return Collections.emptySet();
+        }
+        Set<String> columns = new HashSet<>();
+        for (ColumnDefinition column : definition.getColumns()) {
+            if (column.isAutoIncrement() || column.getDefaultValue() != null) {
+                columns.add(column.getName());
+            }
+        }
+        return columns;
+    }
+
+    private JsonNode readConfig() throws IOException {
+        // 1. 外部設定ファイルを優先的に読み込み
+        Path path = getExternalPath();
+        if (path != null) {
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+            if (!snapshotCodec.isEnabled()) {
+                return objectMapper.readTree(path.toFile());
+            }
+            // バイナリスナップショットが最新であればJSONのパースを省略し、古い場合は作り直す
+            JsonNode snapshot = snapshotCodec.readSnapshot(path, JsonNode.class);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            byte[] content = Files.readAllBytes(path);
+            JsonNode tree = objectMapper.readTree(content);
+            try {
+                snapshotCodec.writeSnapshot(path, content, tree);
+            } catch (IOException e) {
+                System.err.println("[ValidationConfigService] ⚠️ スナップショットの作成に失敗: " + e.getMessage());
+            }
+            return tree;
+        }
+
+        // 2. クラスパス内の設定ファイルをフォールバック
+        Resource resource = new ClassPathResource("config/" + VALIDATION_CONFIG_FILE);
+        if (resource.exists()) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                return objectMapper.readTree(inputStream);
+            }
+        }
+        return null;
+    }
+
+    private Path getExternalPath() {
+        if (enableExternalConfig) {
+            Path path = Paths.get(externalConfigPath, VALIDATION_CONFIG_FILE);
+            if (Files.exists(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 読み込んだルール定義（テーブル名 → ルール）と、それからコンパイルした検証器
+     */
+    private static final class Compiled {
+        private final Map<String, JsonNode> tableRules;
+        private final long configVersion;
+        private final Map<String, Optional<TableValidator>> validators = new ConcurrentHashMap<>();
+
+        Compiled(Map<String, JsonNode> tableRules, long configVersion) {
+            this.tableRules = tableRules;
+            this.configVersion = configVersion;
+        }
+    }
+}
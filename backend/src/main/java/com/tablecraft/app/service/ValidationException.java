@@ -0,0 +1,34 @@
+package com.tablecraft.app.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 入力値の検証エラー（項目ごとのエラーを保持する）
+ */
+public class ValidationException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String tableName;
+    private final List<TableValidator.FieldError> errors;
+
+    public ValidationException(String tableName, List<TableValidator.FieldError> errors) {
+        super("入力値が不正です: " + tableName + " " + errors);
+        this.tableName = tableName;
+        this.errors = errors;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<TableValidator.FieldError> getErrors() {
+        return errors;
+    }
+
+    public List<Map<String, Object>> getErrorMaps() {
+        return errors.stream().map(TableValidator.FieldError::toMap).collect(Collectors.toList());
+    }
+}
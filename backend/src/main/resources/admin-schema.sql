@@ -9,28 +9,39 @@ CREATE TABLE IF NOT EXISTS uploaded_sql_files (
     file_size BIGINT NOT NULL,
     sql_type VARCHAR(50) NOT NULL,
     dbms_type VARCHAR(50) NOT NULL,
-    sql_content LONGTEXT NOT NULL,
+    sql_content LONGTEXT NULL,
+    content_hash VARCHAR(64),
+    stored_size BIGINT,
     parse_status VARCHAR(50) NOT NULL DEFAULT 'pending',
     parse_result LONGTEXT,
     error_message TEXT,
     uploaded_by VARCHAR(100),
     uploaded_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_uploaded_at (uploaded_at),
-    INDEX idx_parse_status (parse_status)
+    INDEX idx_parse_status (parse_status),
+    INDEX idx_content_hash (content_hash)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 既存環境の移行（SQLファイルの内容はファイルストアに保存し、ハッシュのみを持つ）
+-- ALTER TABLE uploaded_sql_files MODIFY sql_content LONGTEXT NULL,
+--     ADD COLUMN content_hash VARCHAR(64), ADD COLUMN stored_size BIGINT, ADD INDEX idx_content_hash (content_hash);
+
 -- Parsed Table Definitions
 CREATE TABLE IF NOT EXISTS parsed_table_definitions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     sql_file_id BIGINT NOT NULL,
     table_name VARCHAR(255) NOT NULL,
     table_structure LONGTEXT NOT NULL,
+    statement_hash VARCHAR(64),
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (sql_file_id) REFERENCES uploaded_sql_files(id) ON DELETE CASCADE,
     UNIQUE KEY uk_sql_file_table (sql_file_id, table_name),
     INDEX idx_table_name (table_name)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 既存環境の移行（CREATE TABLE文ごとのハッシュ）
+-- ALTER TABLE parsed_table_definitions ADD COLUMN statement_hash VARCHAR(64);
+
 -- Config Generation History
 CREATE TABLE IF NOT EXISTS config_generation_history (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -63,6 +74,22 @@ CREATE TABLE IF NOT EXISTS custom_scripts (
     INDEX idx_is_active (is_active)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Action Script Bindings (before_save / after_save / button)
+CREATE TABLE IF NOT EXISTS action_script_bindings (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(100) NOT NULL,
+    action_type VARCHAR(50) NOT NULL,
+    action_name VARCHAR(100),
+    script_id BIGINT NOT NULL,
+    binding_config JSON,
+    execution_order INT DEFAULT 0,
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_table_action (table_name, action_type),
+    INDEX idx_script_id (script_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 -- Manual Table Definitions (for Table Builder)
 CREATE TABLE IF NOT EXISTS manual_table_definitions (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -74,3 +101,27 @@ CREATE TABLE IF NOT EXISTS manual_table_definitions (
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_table_name (table_name)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Config Versions (multi-node synchronization, one row per config)
+CREATE TABLE IF NOT EXISTS config_versions (
+    config_name VARCHAR(100) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0,
+    header_hash VARCHAR(64),
+    header_content LONGTEXT,
+    updated_by VARCHAR(100),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO config_versions (config_name, version) VALUES ('table-config', 0);
+
+-- Config Table Entries (latest content and hash per table)
+CREATE TABLE IF NOT EXISTS config_table_entries (
+    table_id VARCHAR(255) PRIMARY KEY,
+    version BIGINT NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    content LONGTEXT,
+    deleted BOOLEAN DEFAULT FALSE,
+    updated_by VARCHAR(100),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_config_table_entries_version (version)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
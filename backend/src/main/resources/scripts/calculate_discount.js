@@ -3,7 +3,7 @@
  * @description 商品価格から10%の割引額を計算します
  */
 function execute(context) {
-  const { record } = context;
+  var record = context.record;
   
   // 価格の検証
   if (!record.price || record.price < 0) {
@@ -14,13 +14,13 @@ function execute(context) {
   }
   
   // 10%割引を計算
-  const discount = record.price * 0.1;
-  const finalPrice = record.price - discount;
+  var discount = record.price * 0.1;
+  var finalPrice = record.price - discount;
   
   return {
     success: true,
     discount: discount,
     finalPrice: finalPrice,
-    message: `割引額: ${discount}円、割引後価格: ${finalPrice}円`
+    message: '割引額: ' + discount + '円、割引後価格: ' + finalPrice + '円'
   };
 }
@@ -3,7 +3,7 @@
  * @description 指定されたメールアドレスに通知を送信します
  */
 function execute(context) {
-  const { record } = context;
+  var record = context.record;
   
   // メールアドレスの検証
   if (!record.email) {
@@ -13,7 +13,7 @@ function execute(context) {
     };
   }
   
-  const emailPattern = /^[^\s@]+@[^\s@]+\.[^\s@]+$/;
+  var emailPattern = /^[^\s@]+@[^\s@]+\.[^\s@]+$/;
   if (!emailPattern.test(record.email)) {
     return {
       success: false,
@@ -22,13 +22,15 @@ function execute(context) {
   }
   
   // メール送信処理（実際の実装はバックエンドで行う）
-  console.log('Sending email to:', record.email);
-  console.log('Subject:', record.subject || 'お知らせ');
-  console.log('Body:', record.body || '');
+  if (typeof console !== 'undefined') {
+    console.log('Sending email to:', record.email);
+    console.log('Subject:', record.subject || 'お知らせ');
+    console.log('Body:', record.body || '');
+  }
   
   return {
     success: true,
-    message: `メールを${record.email}に送信しました`,
+    message: 'メールを' + record.email + 'に送信しました',
     sentTo: record.email,
     timestamp: new Date().toISOString()
   };
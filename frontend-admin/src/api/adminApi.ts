@@ -30,20 +30,42 @@ export interface UploadSqlFileResponse {
 
 export interface ParseSqlFileRequest {
   sqlFileId: number;
+  wait?: boolean;  // trueの場合は完了まで待つ（通常はジョブIDで進捗を取得）
+  waitTimeoutMs?: number;
+}
+
+export interface ParseJobStatus {
+  jobId: string;
+  sqlFileId: number;
+  status: 'queued' | 'parsing' | 'completed' | 'failed';
+  done: number;
+  total: number;
+  totalKnown: boolean;
+  percent: number | null;
+  tableCount: number;
+  errorCount: number;
+  errors?: { statementIndex: number; line: number; tableName: string; error: string }[];
+  message?: string;
+  startedAt: string;
+  finishedAt?: string;
 }
 
 export interface ParseSqlFileResponse {
   success: boolean;
-  data?: {
-    sqlFileId: number;
+  data?: ParseJobStatus & {
     parseStatus: string;
-    tableCount: number;
-    tables: string[];
+    tables?: string[];
     errorMessage?: string;
   };
   error?: string;
 }
 
+export interface ParseStatusResponse {
+  success: boolean;
+  data?: ParseJobStatus;
+  error?: string;
+}
+
 export interface SqlFileInfo {
   sqlFileId: number;
   fileName: string;
@@ -56,9 +78,16 @@ export interface SqlFileInfo {
   tables?: string[];  // 解析済みテーブル一覧（オプション）
 }
 
+export interface ListSqlFilesRequest {
+  limit?: number;
+  cursor?: string;
+}
+
 export interface ListSqlFilesResponse {
   success: boolean;
   data?: SqlFileInfo[];
+  hasMore?: boolean;
+  nextCursor?: string | null;
   error?: string;
 }
 
@@ -125,21 +154,54 @@ export async function parseSqlFile(request: ParseSqlFileRequest): Promise<ParseS
   return response.json();
 }
 
+/**
+ * SQL解析ジョブの進捗を取得
+ */
+export async function getParseStatus(request: { jobId?: string; sqlFileId?: number }): Promise<ParseStatusResponse> {
+  const response = await fetch(`${API_BASE_URL}/api/admin/sql/parse/status`, {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    body: JSON.stringify(request),
+  });
+
+  return response.json();
+}
+
 /**
  * アップロード済みSQLファイル一覧を取得
  */
-export async function listSqlFiles(): Promise<ListSqlFilesResponse> {
+export async function listSqlFiles(request: ListSqlFilesRequest = {}): Promise<ListSqlFilesResponse> {
   const response = await fetch(`${API_BASE_URL}/api/admin/sql/list`, {
     method: 'POST',
     headers: {
       'Content-Type': 'application/json',
     },
-    body: JSON.stringify({}),
+    body: JSON.stringify(request),
   });
 
   return response.json();
 }
 
+/**
+ * アップロード済みSQLファイル一覧をすべて取得（nextCursorで最後のページまで取得）
+ */
+export async function listAllSqlFiles(pageSize = 1000): Promise<ListSqlFilesResponse> {
+  const files: SqlFileInfo[] = [];
+  let cursor: string | undefined;
+  do {
+    const response = await listSqlFiles({ limit: pageSize, cursor });
+    if (!response.success) {
+      return response;
+    }
+    files.push(...(response.data ?? []));
+    cursor = response.hasMore && response.nextCursor ? response.nextCursor : undefined;
+  } while (cursor);
+
+  return { success: true, data: files, hasMore: false, nextCursor: null };
+}
+
 /**
  * 特定のSQLファイル詳細を取得
  */
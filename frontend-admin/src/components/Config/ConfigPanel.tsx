@@ -74,14 +74,14 @@ const ConfigPanel = ({ type, title }: ConfigPanelProps) => {
       if (type === 'table' && selectedTables.length > 0) {
         console.log(`[ConfigPanel] Table設定を生成中... selectedTables:`, selectedTables);
         
-        // ⚠️ データクリア確認ダイアログ
+        // ⚠️ スキーマ変更確認ダイアログ
         const confirmed = window.confirm(
           '⚠️ 重要な警告 ⚠️\n\n' +
           'テーブル設定を保存すると、以下の処理が実行されます:\n\n' +
           '1. table-config.json を更新\n' +
           '2. データベース上のテーブルを作成/更新\n' +
-          '3. 既存テーブルの場合、全データをクリア（TRUNCATE）\n\n' +
-          '【注意】既存データは完全に削除されます。\n' +
+          '3. 既存テーブルの場合、データを保持したままカラム構造を変更\n\n' +
+          '【注意】大きなテーブルでは変更に時間がかかる場合があります。\n' +
           '必要に応じて事前にバックアップを取得してください。\n\n' +
           '続行しますか？'
         );
@@ -137,7 +137,7 @@ const ConfigPanel = ({ type, title }: ConfigPanelProps) => {
 
   const loadUploadedFiles = async () => {
     try {
-      const response = await adminApi.listSqlFiles();
+      const response = await adminApi.listAllSqlFiles();
       if (response.success && response.data) {
         setUploadedFiles(response.data);
       }
@@ -35,7 +35,7 @@ const SqlUploadModal = ({ isOpen, onClose }: SqlUploadModalProps) => {
   const loadUploadedFiles = async () => {
     try {
       setLoading(true);
-      const response = await adminApi.listSqlFiles();
+      const response = await adminApi.listAllSqlFiles();
       if (response.success && response.data) {
         setUploadedFiles(response.data);
       }